@@ -0,0 +1,103 @@
+package com.neumarket.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.neumarket.dto.response.ListingSummaryResponse;
+import com.neumarket.dto.response.PagedResponse;
+import com.neumarket.enums.Category;
+import com.neumarket.enums.Condition;
+import com.neumarket.enums.ListingStatus;
+import com.neumarket.event.BulkDataChangedEvent;
+import com.neumarket.event.ListingChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Anonymous browse pages (no search text, no saved flags) keyed by their normalized filters.
+ *
+ * Concurrent misses for one key share a single load, so a burst on the default page runs the
+ * select and count once. Pages are dropped after commit when an active listing in their category
+ * is created, edited or changes status; pages across all categories are dropped on any such change.
+ * A load that was already running when a change committed can still be cached, which the short
+ * TTL bounds.
+ *
+ * Metrics: cache.gets{cache=listing.browse,result=hit|miss}, cache.evictions, cache.size.
+ */
+@Component
+@RequiredArgsConstructor
+public class ListingBrowseCache {
+
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.cache.listing-browse.max-entries:500}")
+  private long maxEntries;
+
+  @Value("${app.cache.listing-browse.ttl-seconds:30}")
+  private long ttlSeconds;
+
+  private Cache<Key, PagedResponse<ListingSummaryResponse>> cache;
+
+  /**
+   * Filters of a browse page; prices compare by value so "50" and "50.00" share an entry
+   */
+  public record Key(Category category, Condition condition, BigDecimal minPrice, BigDecimal maxPrice,
+                    String sort, int page, int size) {
+
+    public Key {
+      minPrice = minPrice != null ? minPrice.stripTrailingZeros() : null;
+      maxPrice = maxPrice != null ? maxPrice.stripTrailingZeros() : null;
+    }
+  }
+
+  @PostConstruct
+  public void init() {
+    cache = Caffeine.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "listing.browse");
+  }
+
+  public PagedResponse<ListingSummaryResponse> get(Key key, Function<Key, PagedResponse<ListingSummaryResponse>> loader) {
+    return cache.get(key, loader);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onListingChanged(ListingChangedEvent event) {
+    Set<Category> affected = new HashSet<>();
+    addIfActive(affected, event.before());
+    addIfActive(affected, event.after());
+    if (!affected.isEmpty()) {
+      cache.asMap().keySet().removeIf(key -> key.category() == null || affected.contains(key.category()));
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onBulkDataChanged(BulkDataChangedEvent event) {
+    invalidateAll();
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  // Changes to listings that are not active on either side never show up in browse
+  private static void addIfActive(Set<Category> categories, ListingChangedEvent.Snapshot snapshot) {
+    if (snapshot != null && snapshot.status() == ListingStatus.ACTIVE) {
+      categories.add(snapshot.category());
+    }
+  }
+}
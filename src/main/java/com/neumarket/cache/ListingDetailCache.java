@@ -0,0 +1,159 @@
+package com.neumarket.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.neumarket.dto.response.ListingResponse;
+import com.neumarket.event.BulkDataChangedEvent;
+import com.neumarket.event.ListingChangedEvent;
+import com.neumarket.event.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Listing detail pages by slug, without the per-user isSaved flag (callers overlay it).
+ *
+ * Caffeine bounds the cache by size with W-TinyLFU admission, so a burst of one-off slugs
+ * can't push out the listings everyone is opening, and entries also expire after a TTL.
+ * Concurrent misses on one slug share a single load.
+ *
+ * Each entry keeps the version (listing and seller updatedAt) it was loaded at. Readers that
+ * already know the current version pass it in, and a mismatch reloads the entry: that covers
+ * changes committed on another node, and a change that commits while a load is running.
+ *
+ * Changes are evicted by listing id once they commit: ListingChangedEvent covers edits and
+ * status changes (including expiry), image changes call evict directly, and UserChangedEvent
+ * drops the seller's listings since their pages show the seller's profile.
+ *
+ * Metrics: cache.gets{cache=listing.detail,result=hit|miss}, cache.evictions, cache.size.
+ */
+@Component
+@RequiredArgsConstructor
+public class ListingDetailCache {
+
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.cache.listing-detail.max-entries:10000}")
+  private long maxEntries;
+
+  @Value("${app.cache.listing-detail.ttl-seconds:300}")
+  private long ttlSeconds;
+
+  private Cache<String, Entry> cache;
+
+  /**
+   * A cached page and the version it was loaded at
+   */
+  public record Entry(ListingResponse listing, String version) {
+  }
+
+  // Evictions arrive by id; slugs don't change, so this only grows with new entries
+  private final Map<Long, String> slugsById = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  public void init() {
+    cache = Caffeine.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+        .removalListener((String slug, Entry entry, RemovalCause cause) -> {
+          // A replaced entry keeps its slug, so the mapping stays
+          if (entry != null && cause != RemovalCause.REPLACED) {
+            slugsById.remove(entry.listing().getId(), slug);
+          }
+        })
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "listing.detail");
+  }
+
+  /**
+   * Cached listing for the slug, loading it on a miss or when the cached copy isn't at the given
+   * version (null accepts any); null (and nothing cached) if the loader finds none
+   */
+  public ListingResponse get(String slug, String version, Function<String, Entry> loader) {
+    Entry entry = cache.get(slug, key -> track(key, loader.apply(key)));
+    if (entry != null && version != null && !version.equals(entry.version())) {
+      entry = track(slug, loader.apply(slug));
+      if (entry != null) {
+        cache.put(slug, entry);
+      } else {
+        cache.invalidate(slug);
+      }
+    }
+    return entry != null ? entry.listing() : null;
+  }
+
+  private Entry track(String slug, Entry entry) {
+    if (entry != null) {
+      slugsById.put(entry.listing().getId(), slug);
+    }
+    return entry;
+  }
+
+  /**
+   * Evict a listing once the current transaction commits (immediately if there is none)
+   */
+  public void evict(Long listingId) {
+    afterCommit(() -> evictNow(listingId));
+  }
+
+  public void evictAll(Collection<Long> listingIds) {
+    List<Long> ids = List.copyOf(listingIds);
+    afterCommit(() -> ids.forEach(this::evictNow));
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onListingChanged(ListingChangedEvent event) {
+    evictNow(event.listingId());
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onUserChanged(UserChangedEvent event) {
+    // Rare enough that scanning beats keeping a seller index
+    cache.asMap().values().removeIf(entry -> event.userId().equals(entry.listing().getSeller().getId()));
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onBulkDataChanged(BulkDataChangedEvent event) {
+    invalidateAll();
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private void evictNow(Long listingId) {
+    String slug = slugsById.get(listingId);
+    if (slug != null) {
+      cache.invalidate(slug);
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package com.neumarket.config;
+
+import com.azure.storage.blob.BlobContainerClient;
+import com.neumarket.storage.AzureBlobStore;
+import com.neumarket.storage.BlobStore;
+import com.neumarket.storage.LocalBlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@Slf4j
+public class BlobStoreConfig {
+
+  @Value("${app.storage.type:azure}")
+  private String storageType;
+
+  @Value("${app.storage.local.root:./data/blobs}")
+  private String localRoot;
+
+  @Value("${app.storage.local.public-base-url:http://localhost:8080/api/images/files/}")
+  private String localPublicBaseUrl;
+
+  /**
+   * Azure when a container client is configured (prod profile), local disk otherwise
+   * or when app.storage.type=local
+   */
+  @Bean
+  public BlobStore blobStore(ObjectProvider<BlobContainerClient> blobContainerClient) throws IOException {
+    BlobContainerClient containerClient = blobContainerClient.getIfAvailable();
+
+    if (!"local".equalsIgnoreCase(storageType)) {
+      if (containerClient != null) {
+        return new AzureBlobStore(containerClient);
+      }
+      log.warn("Azure Blob Storage not configured. Storing images on local disk.");
+    }
+    return new LocalBlobStore(Path.of(localRoot), localPublicBaseUrl);
+  }
+}
@@ -4,6 +4,8 @@ import com.neumarket.dto.request.BlockUserRequest;
 import com.neumarket.dto.request.ReviewReportRequest;
 import com.neumarket.dto.response.*;
 import com.neumarket.enums.ListingStatus;
+import com.neumarket.enums.MetricSeries;
+import com.neumarket.enums.MetricStep;
 import com.neumarket.enums.ReportStatus;
 import com.neumarket.enums.ReportType;
 import com.neumarket.security.CurrentUser;
@@ -11,10 +13,12 @@ import com.neumarket.security.UserPrincipal;
 import com.neumarket.service.AdminService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -37,6 +41,21 @@ public class AdminController {
     return ResponseEntity.ok(stats);
   }
 
+  /**
+   * Activity over time, one zero-filled point per bucket
+   * GET /api/admin/metrics?series=SIGNUPS,SEARCHES&from=2025-01-01T00:00:00&to=2025-01-08T00:00:00&step=DAY
+   */
+  @GetMapping("/metrics")
+  public ResponseEntity<List<MetricSeriesResponse>> getMetrics(
+      @RequestParam(required = false) List<MetricSeries> series,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam(required = false) MetricStep step) {
+
+    List<MetricSeriesResponse> response = adminService.getActivityMetrics(series, from, to, step);
+    return ResponseEntity.ok(response);
+  }
+
   // ==================== USER MANAGEMENT ====================
 
   /**
@@ -203,12 +222,30 @@ public class AdminController {
   }
 
   /**
-   * Get messages in a conversation (admin oversight)
-   * GET /api/admin/conversations/{id}/messages
+   * Get messages in a conversation (admin oversight), newest page first
+   * GET /api/admin/conversations/{id}/messages?before=123&limit=50
    */
   @GetMapping("/conversations/{id}/messages")
-  public ResponseEntity<List<ChatMessageResponse>> getConversationMessages(@PathVariable Long id) {
-    List<ChatMessageResponse> messages = adminService.getConversationMessages(id);
+  public ResponseEntity<CursorPagedResponse<ChatMessageResponse>> getConversationMessages(
+      @PathVariable Long id,
+      @RequestParam(required = false) Long before,
+      @RequestParam(defaultValue = "50") int limit) {
+
+    CursorPagedResponse<ChatMessageResponse> messages = adminService.getConversationMessages(id, before, limit);
     return ResponseEntity.ok(messages);
   }
-}
\ No newline at end of file
+
+  // ==================== STORAGE ====================
+
+  /**
+   * Find blobs no image references; unless dryRun, queue those past the grace period for deletion
+   * POST /api/admin/storage/gc?dryRun=true
+   */
+  @PostMapping("/storage/gc")
+  public ResponseEntity<BlobGcReport> collectOrphanedBlobs(
+      @RequestParam(defaultValue = "true") boolean dryRun) {
+
+    BlobGcReport report = adminService.collectOrphanedBlobs(dryRun);
+    return ResponseEntity.ok(report);
+  }
+}
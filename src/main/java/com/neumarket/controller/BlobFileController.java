@@ -0,0 +1,156 @@
+package com.neumarket.controller;
+
+import com.neumarket.storage.BlobStore;
+import com.neumarket.storage.LocalBlobStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+/**
+ * Serves blobs from the local-disk BlobStore. With Azure configured, image URLs point at
+ * Azure directly and this endpoint returns 404.
+ *
+ * Bodies are handed to Tomcat's sendfile (zero-copy from the page cache to the socket) when
+ * the connector supports it, and otherwise written with FileChannel.transferTo.
+ */
+@RestController
+@RequiredArgsConstructor
+public class BlobFileController {
+
+  static final String FILES_PATH = "/api/images/files/";
+
+  // Request attributes Tomcat reads to send the body with sendfile
+  private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+  private final BlobStore blobStore;
+
+  /**
+   * Download a stored file, optionally a single byte range
+   * GET /api/images/files/{blobName}
+   */
+  @GetMapping(FILES_PATH + "**")
+  public void serveFile(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    Path file = resolve(request);
+    if (file == null || !Files.isRegularFile(file)) {
+      response.sendError(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
+
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    long length = attributes.size();
+    long lastModified = attributes.lastModifiedTime().toMillis();
+    String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+    response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+    // Sets ETag / Last-Modified and answers 304 when the client's copy is current
+    if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+      return;
+    }
+    response.setContentType(MediaTypeFactory.getMediaType(file.getFileName().toString())
+        .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+    long start = 0;
+    long end = length - 1;
+    List<HttpRange> ranges = requestedRanges(request, etag);
+    if (ranges.size() == 1) {
+      try {
+        start = ranges.get(0).getRangeStart(length);
+        end = ranges.get(0).getRangeEnd(length);
+      } catch (IllegalArgumentException e) {
+        start = length;
+      }
+      if (start >= length || start > end) {
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        return;
+      }
+      response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+      response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+    }
+    // Multi-range requests get the whole file; images don't need multipart/byteranges
+
+    long count = end - start + 1;
+    response.setContentLengthLong(count);
+    if (count == 0 || "HEAD".equals(request.getMethod())) {
+      return;
+    }
+
+    if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+      request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+      request.setAttribute(SENDFILE_START, start);
+      request.setAttribute(SENDFILE_END, end + 1);
+      return;
+    }
+
+    try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+      WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+      long position = start;
+      long remaining = count;
+      while (remaining > 0) {
+        long sent = in.transferTo(position, remaining, out);
+        if (sent <= 0) {
+          break;
+        }
+        position += sent;
+        remaining -= sent;
+      }
+    }
+  }
+
+  private Path resolve(HttpServletRequest request) {
+    if (!(blobStore instanceof LocalBlobStore localBlobStore)) {
+      return null;
+    }
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    String name = UriUtils.decode(path.substring(FILES_PATH.length()), StandardCharsets.UTF_8);
+    try {
+      return localBlobStore.resolve(name);
+    } catch (InvalidPathException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Ranges to serve; a stale If-Range means the client's partial copy is outdated, so send it all
+   */
+  private static List<HttpRange> requestedRanges(HttpServletRequest request, String etag) {
+    String range = request.getHeader(HttpHeaders.RANGE);
+    if (range == null) {
+      return List.of();
+    }
+    String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+    if (ifRange != null && !ifRange.equals(etag)) {
+      return List.of();
+    }
+    try {
+      return HttpRange.parseRanges(range);
+    } catch (IllegalArgumentException e) {
+      // Malformed Range headers are ignored
+      return List.of();
+    }
+  }
+}
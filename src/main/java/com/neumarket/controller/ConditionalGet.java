@@ -0,0 +1,37 @@
+package com.neumarket.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Conditional GET for JSON reads whose services can report a version (ids, updatedAt stamps,
+ * counts) without loading the response. The version is hashed into a strong ETag so
+ * timestamps and ids don't leak through the header.
+ *
+ * Responses may differ per viewer (saved flags, inbox), so they are private and must be
+ * revalidated; browsers keep them and send If-None-Match, shared caches don't store them.
+ */
+final class ConditionalGet {
+
+  private ConditionalGet() {
+  }
+
+  /**
+   * Sets ETag and Cache-Control, and answers 304 when the client's copy is current.
+   * A null version (nothing to compare, e.g. the resource doesn't exist) never matches.
+   */
+  static boolean notModified(ServletWebRequest request, String version) {
+    if (version == null) {
+      return false;
+    }
+    request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+    return request.checkNotModified(etag(version));
+  }
+
+  static String etag(String version) {
+    return "\"" + DigestUtils.md5DigestAsHex(version.getBytes(StandardCharsets.UTF_8)) + "\"";
+  }
+}
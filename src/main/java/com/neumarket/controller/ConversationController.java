@@ -4,15 +4,20 @@ import com.neumarket.dto.request.MessageRequest;
 import com.neumarket.dto.response.ApiResponse;
 import com.neumarket.dto.response.ChatMessageResponse;
 import com.neumarket.dto.response.ConversationResponse;
+import com.neumarket.dto.response.CursorPagedResponse;
 import com.neumarket.security.CurrentUser;
 import com.neumarket.security.UserPrincipal;
+import com.neumarket.service.ChatStreamService;
 import com.neumarket.service.ConversationService;
 import com.neumarket.service.MessageService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -24,17 +29,33 @@ public class ConversationController {
 
   private final ConversationService conversationService;
   private final MessageService messageService;
+  private final ChatStreamService chatStreamService;
 
   /**
-   * Get all conversations for current user (inbox)
+   * Get all conversations for current user (inbox); 304 when If-None-Match is current
    * GET /api/conversations
    */
   @GetMapping
-  public ResponseEntity<List<ConversationResponse>> getMyConversations(@CurrentUser UserPrincipal currentUser) {
+  public ResponseEntity<List<ConversationResponse>> getMyConversations(
+      @CurrentUser UserPrincipal currentUser,
+      ServletWebRequest webRequest) {
+
+    if (ConditionalGet.notModified(webRequest, conversationService.getUserConversationsVersion(currentUser.getId()))) {
+      return null;
+    }
     List<ConversationResponse> conversations = conversationService.getUserConversations(currentUser.getId());
     return ResponseEntity.ok(conversations);
   }
 
+  /**
+   * Live stream of new messages, read receipts and unread-count changes (Server-Sent Events)
+   * GET /api/conversations/stream
+   */
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamEvents(@CurrentUser UserPrincipal currentUser) {
+    return chatStreamService.subscribe(currentUser.getId());
+  }
+
   /**
    * Start or get existing conversation for a listing
    * POST /api/conversations?listingId=123
@@ -62,15 +83,18 @@ public class ConversationController {
   }
 
   /**
-   * Get messages in a conversation
-   * GET /api/conversations/{id}/messages
+   * Get the newest messages in a conversation; follow nextCursor as ?before= for older history
+   * GET /api/conversations/{id}/messages?before=123&limit=50
    */
   @GetMapping("/{id}/messages")
-  public ResponseEntity<List<ChatMessageResponse>> getMessages(
+  public ResponseEntity<CursorPagedResponse<ChatMessageResponse>> getMessages(
       @PathVariable Long id,
+      @RequestParam(required = false) Long before,
+      @RequestParam(defaultValue = "50") int limit,
       @CurrentUser UserPrincipal currentUser) {
 
-    List<ChatMessageResponse> messages = messageService.getMessages(id, currentUser.getId());
+    CursorPagedResponse<ChatMessageResponse> messages =
+        messageService.getMessages(id, before, limit, currentUser.getId());
     return ResponseEntity.ok(messages);
   }
 
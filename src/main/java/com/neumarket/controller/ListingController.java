@@ -2,6 +2,8 @@ package com.neumarket.controller;
 
 import com.neumarket.dto.request.ListingRequest;
 import com.neumarket.dto.response.ApiResponse;
+import com.neumarket.dto.response.CursorPagedResponse;
+import com.neumarket.dto.response.ListingFacetsResponse;
 import com.neumarket.dto.response.ListingResponse;
 import com.neumarket.dto.response.ListingSummaryResponse;
 import com.neumarket.dto.response.PagedResponse;
@@ -15,6 +17,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -52,16 +55,75 @@ public class ListingController {
   }
 
   /**
-   * Get single listing by slug (public)
+   * Browse listings with cursor pagination (public) - selected by the presence of the cursor param
+   * GET /api/listings?cursor=&category=ELECTRONICS&sort=newest&size=20
+   * Follow-up pages pass the returned nextCursor; the sort must stay the same.
+   */
+  @GetMapping(params = "cursor")
+  public ResponseEntity<CursorPagedResponse<ListingSummaryResponse>> getListingsByCursor(
+      @RequestParam(required = false) Category category,
+      @RequestParam(required = false) Condition condition,
+      @RequestParam(required = false) BigDecimal minPrice,
+      @RequestParam(required = false) BigDecimal maxPrice,
+      @RequestParam(required = false) String search,
+      @RequestParam(defaultValue = "newest") String sort,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int size,
+      @CurrentUser UserPrincipal currentUser) {
+
+    Long currentUserId = currentUser != null ? currentUser.getId() : null;
+
+    CursorPagedResponse<ListingSummaryResponse> response = listingService.getListingsByCursor(
+        category, condition, minPrice, maxPrice, search, sort, cursor, size, currentUserId
+    );
+
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Facet counts for a browse/search (public): per category, per condition and per price bucket
+   * GET /api/listings/facets?category=ELECTRONICS&minPrice=50&search=iphone
+   * 503 while the search index is still being built at startup.
+   */
+  @GetMapping("/facets")
+  public ResponseEntity<ListingFacetsResponse> getFacets(
+      @RequestParam(required = false) Category category,
+      @RequestParam(required = false) Condition condition,
+      @RequestParam(required = false) BigDecimal minPrice,
+      @RequestParam(required = false) BigDecimal maxPrice,
+      @RequestParam(required = false) String search) {
+
+    return ResponseEntity.ok(listingService.getFacets(category, condition, minPrice, maxPrice, search));
+  }
+
+  /**
+   * Autocomplete for the search box (public), at most 10 suggestions
+   * GET /api/listings/suggest?q=stand&limit=5
+   */
+  @GetMapping("/suggest")
+  public ResponseEntity<List<String>> suggest(
+      @RequestParam String q,
+      @RequestParam(defaultValue = "10") int limit) {
+
+    return ResponseEntity.ok(listingService.getSuggestions(q, limit));
+  }
+
+  /**
+   * Get single listing by slug (public); 304 when If-None-Match is current
    * GET /api/listings/{slug}
    */
   @GetMapping("/{slug}")
   public ResponseEntity<ListingResponse> getListingBySlug(
       @PathVariable String slug,
-      @CurrentUser UserPrincipal currentUser) {
+      @CurrentUser UserPrincipal currentUser,
+      ServletWebRequest webRequest) {
 
     Long currentUserId = currentUser != null ? currentUser.getId() : null;
-    ListingResponse response = listingService.getListingBySlug(slug, currentUserId);
+    ListingService.ListingVersion version = listingService.getListingVersion(slug, currentUserId);
+    if (ConditionalGet.notModified(webRequest, version != null ? version.etag() : null)) {
+      return null;
+    }
+    ListingResponse response = listingService.getListingBySlug(slug, currentUserId, version);
 
     return ResponseEntity.ok(response);
   }
@@ -11,6 +11,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -46,25 +47,32 @@ public class UserController {
   }
 
   /**
-   * Get public profile of a user (public)
+   * Get public profile of a user (public); 304 when If-None-Match is current
    * GET /api/users/{id}
    */
   @GetMapping("/{id}")
-  public ResponseEntity<UserResponse> getPublicProfile(@PathVariable Long id) {
+  public ResponseEntity<UserResponse> getPublicProfile(@PathVariable Long id, ServletWebRequest webRequest) {
+    if (ConditionalGet.notModified(webRequest, userService.getPublicProfileVersion(id))) {
+      return null;
+    }
     UserResponse response = userService.getPublicProfile(id);
     return ResponseEntity.ok(response);
   }
 
   /**
-   * Get listings by user (public)
+   * Get listings by user (public); 304 when If-None-Match is current
    * GET /api/users/{id}/listings
    */
   @GetMapping("/{id}/listings")
   public ResponseEntity<List<ListingSummaryResponse>> getUserListings(
       @PathVariable Long id,
-      @CurrentUser UserPrincipal currentUser) {
+      @CurrentUser UserPrincipal currentUser,
+      ServletWebRequest webRequest) {
 
     Long currentUserId = currentUser != null ? currentUser.getId() : null;
+    if (ConditionalGet.notModified(webRequest, listingService.getListingsByUserVersion(id, currentUserId))) {
+      return null;
+    }
     List<ListingSummaryResponse> listings = listingService.getListingsByUser(id, currentUserId);
 
     return ResponseEntity.ok(listings);
@@ -0,0 +1,40 @@
+package com.neumarket.dto.projection;
+
+import com.neumarket.enums.ListingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat read model for inbox rows, filled by a single JPQL constructor expression.
+ * Last message comes from the denormalized columns on Conversation; the listing
+ * thumbnail comes from a correlated subquery and the unread count from the viewer's counter.
+ */
+@Getter
+@AllArgsConstructor
+public class ConversationSummaryView {
+
+  private Long id;
+  private LocalDateTime createdAt;
+  private LocalDateTime updatedAt;
+  private String lastMessageContent;
+  private LocalDateTime lastMessageAt;
+
+  private Long listingId;
+  private String listingSlug;
+  private String listingTitle;
+  private BigDecimal listingPrice;
+  private ListingStatus listingStatus;
+  private String listingThumbnailUrl;
+
+  private Long buyerId;
+  private String buyerName;
+  private String buyerProfilePicUrl;
+  private Long sellerId;
+  private String sellerName;
+  private String sellerProfilePicUrl;
+
+  private Integer unreadCount;
+}
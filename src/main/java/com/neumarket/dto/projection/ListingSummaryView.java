@@ -0,0 +1,31 @@
+package com.neumarket.dto.projection;
+
+import com.neumarket.enums.Category;
+import com.neumarket.enums.Condition;
+import com.neumarket.enums.ListingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat read model for listing cards, filled by a single JPQL constructor expression
+ * (seller name joined, first image via subquery) so no lazy associations are touched.
+ */
+@Getter
+@AllArgsConstructor
+public class ListingSummaryView {
+
+  private Long id;
+  private String slug;
+  private String title;
+  private BigDecimal price;
+  private Category category;
+  private Condition condition;
+  private ListingStatus status;
+  private LocalDateTime createdAt;
+  private LocalDateTime expiresAt;
+  private String sellerName;
+  private String thumbnailUrl;
+}
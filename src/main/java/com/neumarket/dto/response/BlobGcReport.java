@@ -0,0 +1,35 @@
+package com.neumarket.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlobGcReport {
+
+  private boolean dryRun;
+  // False if listing storage failed or the per-run limit was reached before the end
+  private boolean completed;
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
+
+  private long scanned;
+  private long referenced;
+  // Unreferenced but inside the grace period (possibly an upload in flight)
+  private long tooRecent;
+  private long alreadyQueued;
+  private long orphaned;
+  private long orphanedBytes;
+  // Orphans queued for deletion; always 0 on a dry run
+  private long queued;
+
+  // First orphans found, for inspection
+  private List<String> sample;
+}
@@ -1,7 +1,7 @@
 package com.neumarket.dto.response;
 
+import com.neumarket.dto.projection.ConversationSummaryView;
 import com.neumarket.model.Conversation;
-import com.neumarket.model.Message;
 import com.neumarket.model.User;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -59,19 +59,10 @@ public class ConversationResponse {
     // The "other" participant is the one who is NOT the current user
     User otherUser = isBuyer ? conversation.getSeller() : conversation.getBuyer();
 
-    // Get last message info
-    String lastMsg = null;
-    LocalDateTime lastMsgAt = null;
-    if (!conversation.getMessages().isEmpty()) {
-      Message last = conversation.getMessages().get(conversation.getMessages().size() - 1);
-      lastMsg = last.getContent();
-      lastMsgAt = last.getCreatedAt();
-    }
-
     // Get thumbnail (first image)
     String thumbnail = conversation.getListing().getImages().isEmpty()
         ? null
-        : conversation.getListing().getImages().get(0).getImageUrl();
+        : conversation.getListing().getImages().get(0).getCardUrl();
 
     return ConversationResponse.builder()
         .id(conversation.getId())
@@ -88,8 +79,8 @@ public class ConversationResponse {
             .name(otherUser.getName())
             .profilePicUrl(otherUser.getProfilePicUrl())
             .build())
-        .lastMessage(lastMsg)
-        .lastMessageAt(lastMsgAt)
+        .lastMessage(conversation.getLastMessageContent())
+        .lastMessageAt(conversation.getLastMessageAt())
         .unreadCount(unreadCount)
         .isBuyer(isBuyer)
         .isSeller(isSeller)
@@ -97,4 +88,33 @@ public class ConversationResponse {
         .updatedAt(conversation.getUpdatedAt())
         .build();
   }
-}
\ No newline at end of file
+
+  public static ConversationResponse fromView(ConversationSummaryView view, Long currentUserId) {
+    boolean isBuyer = view.getBuyerId().equals(currentUserId);
+    boolean isSeller = view.getSellerId().equals(currentUserId);
+
+    ParticipantInfo otherParticipant = isBuyer
+        ? new ParticipantInfo(view.getSellerId(), view.getSellerName(), view.getSellerProfilePicUrl())
+        : new ParticipantInfo(view.getBuyerId(), view.getBuyerName(), view.getBuyerProfilePicUrl());
+
+    return ConversationResponse.builder()
+        .id(view.getId())
+        .listing(ListingInfo.builder()
+            .id(view.getListingId())
+            .slug(view.getListingSlug())
+            .title(view.getListingTitle())
+            .price(view.getListingPrice())
+            .thumbnailUrl(view.getListingThumbnailUrl())
+            .status(view.getListingStatus().name())
+            .build())
+        .otherParticipant(otherParticipant)
+        .lastMessage(view.getLastMessageContent())
+        .lastMessageAt(view.getLastMessageAt())
+        .unreadCount(view.getUnreadCount())
+        .isBuyer(isBuyer)
+        .isSeller(isSeller)
+        .createdAt(view.getCreatedAt())
+        .updatedAt(view.getUpdatedAt())
+        .build();
+  }
+}
@@ -0,0 +1,29 @@
+package com.neumarket.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPagedResponse<T> {
+
+  private List<T> content;
+  private int size;
+  private String nextCursor; // Pass back as ?cursor= to get the next page; null on the last page
+  private boolean hasNext;
+
+  public static <T> CursorPagedResponse<T> of(List<T> content, int size, String nextCursor) {
+    return CursorPagedResponse.<T>builder()
+        .content(content)
+        .size(size)
+        .nextCursor(nextCursor)
+        .hasNext(nextCursor != null)
+        .build();
+  }
+}
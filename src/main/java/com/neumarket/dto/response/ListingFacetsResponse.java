@@ -0,0 +1,44 @@
+package com.neumarket.dto.response;
+
+import com.neumarket.enums.Category;
+import com.neumarket.enums.Condition;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ListingFacetsResponse {
+
+  private long total;  // Listings matching every filter
+  // Each facet ignores its own filter, so it shows what changing that filter would return
+  private List<ValueCount<Category>> categories;
+  private List<ValueCount<Condition>> conditions;
+  private List<PriceBucket> priceBuckets;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class ValueCount<T> {
+    private T value;
+    private String displayName;
+    private long count;
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class PriceBucket {
+    private BigDecimal min;   // Inclusive; null for the first bucket
+    private BigDecimal max;   // Exclusive; null for the last bucket
+    private long count;
+  }
+}
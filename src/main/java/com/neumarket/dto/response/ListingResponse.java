@@ -17,7 +17,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class ListingResponse {
 
   private Long id;
@@ -42,8 +42,20 @@ public class ListingResponse {
   @Builder
   public static class ImageResponse {
     private Long id;
-    private String imageUrl;
+    private String imageUrl;      // Original upload
+    private String thumbnailUrl;  // Card size; null until processed
+    private String mediumUrl;     // Detail-page size; null until processed
     private Integer displayOrder;
+
+    public static ImageResponse fromEntity(ListingImage image) {
+      return ImageResponse.builder()
+          .id(image.getId())
+          .imageUrl(image.getImageUrl())
+          .thumbnailUrl(image.getThumbnailUrl())
+          .mediumUrl(image.getMediumUrl())
+          .displayOrder(image.getDisplayOrder())
+          .build();
+    }
   }
 
   @Data
@@ -71,11 +83,7 @@ public class ListingResponse {
         .conditionDisplayName(listing.getCondition().getDisplayName())
         .status(listing.getStatus())
         .images(listing.getImages().stream()
-            .map(img -> ImageResponse.builder()
-                .id(img.getId())
-                .imageUrl(img.getImageUrl())
-                .displayOrder(img.getDisplayOrder())
-                .build())
+            .map(ImageResponse::fromEntity)
             .toList())
         .seller(SellerResponse.builder()
             .id(listing.getUser().getId())
@@ -1,5 +1,6 @@
 package com.neumarket.dto.response;
 
+import com.neumarket.dto.projection.ListingSummaryView;
 import com.neumarket.enums.Category;
 import com.neumarket.enums.Condition;
 import com.neumarket.enums.ListingStatus;
@@ -37,7 +38,7 @@ public class ListingSummaryResponse {
   public static ListingSummaryResponse fromEntity(Listing listing, Boolean isSaved) {
     String thumbnail = listing.getImages().isEmpty()
         ? null
-        : listing.getImages().get(0).getImageUrl();
+        : listing.getImages().get(0).getCardUrl();
 
     return ListingSummaryResponse.builder()
         .id(listing.getId())
@@ -56,4 +57,24 @@ public class ListingSummaryResponse {
         .expiresAt(listing.getExpiresAt())
         .build();
   }
-}
\ No newline at end of file
+
+  // Factory method to create from the single-query projection
+  public static ListingSummaryResponse fromView(ListingSummaryView view, Boolean isSaved) {
+    return ListingSummaryResponse.builder()
+        .id(view.getId())
+        .slug(view.getSlug())
+        .title(view.getTitle())
+        .price(view.getPrice())
+        .category(view.getCategory())
+        .categoryDisplayName(view.getCategory().getDisplayName())
+        .condition(view.getCondition())
+        .conditionDisplayName(view.getCondition().getDisplayName())
+        .status(view.getStatus())
+        .thumbnailUrl(view.getThumbnailUrl())
+        .sellerName(view.getSellerName())
+        .createdAt(view.getCreatedAt())
+        .isSaved(isSaved)
+        .expiresAt(view.getExpiresAt())
+        .build();
+  }
+}
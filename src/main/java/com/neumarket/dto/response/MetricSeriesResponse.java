@@ -0,0 +1,34 @@
+package com.neumarket.dto.response;
+
+import com.neumarket.enums.MetricSeries;
+import com.neumarket.enums.MetricStep;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetricSeriesResponse {
+
+  private MetricSeries series;
+  private MetricStep step;
+  private LocalDateTime from; // Start of the first bucket
+  private LocalDateTime to;   // End of the last bucket (exclusive)
+  private long total;
+  private List<Point> points; // One per bucket, zero-filled
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class Point {
+    private LocalDateTime bucketStart;
+    private long count;
+  }
+}
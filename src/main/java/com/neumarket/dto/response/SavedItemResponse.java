@@ -1,5 +1,6 @@
 package com.neumarket.dto.response;
 
+import com.neumarket.dto.projection.ListingSummaryView;
 import com.neumarket.model.SavedItem;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -25,4 +26,12 @@ public class SavedItemResponse {
         .savedAt(savedItem.getCreatedAt())
         .build();
   }
-}
\ No newline at end of file
+
+  public static SavedItemResponse fromView(SavedItem savedItem, ListingSummaryView listing) {
+    return SavedItemResponse.builder()
+        .id(savedItem.getId())
+        .listing(ListingSummaryResponse.fromView(listing, true))
+        .savedAt(savedItem.getCreatedAt())
+        .build();
+  }
+}
@@ -0,0 +1,9 @@
+package com.neumarket.enums;
+
+public enum MetricSeries {
+  SIGNUPS,          // New accounts (password or OAuth)
+  LISTINGS_CREATED,
+  MESSAGES_SENT,
+  REPORTS_FILED,
+  SEARCHES          // Text searches from the browse page (first page only)
+}
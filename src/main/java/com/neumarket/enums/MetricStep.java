@@ -0,0 +1,27 @@
+package com.neumarket.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum MetricStep {
+  MINUTE(ChronoUnit.MINUTES),
+  HOUR(ChronoUnit.HOURS),
+  DAY(ChronoUnit.DAYS);
+
+  private final ChronoUnit unit;
+
+  MetricStep(ChronoUnit unit) {
+    this.unit = unit;
+  }
+
+  /**
+   * Start of the bucket containing the given time
+   */
+  public LocalDateTime bucketStart(LocalDateTime time) {
+    return time.truncatedTo(unit);
+  }
+
+  public LocalDateTime next(LocalDateTime bucketStart) {
+    return bucketStart.plus(1, unit);
+  }
+}
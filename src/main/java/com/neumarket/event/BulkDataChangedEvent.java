@@ -0,0 +1,11 @@
+package com.neumarket.event;
+
+/**
+ * Published by bulk jobs (cleanup, expiry, purge) that change rows without per-row events.
+ * Listeners keeping aggregates should reload them from the database.
+ *
+ * @param operation what ran, for logging
+ * @param rows      number of rows affected
+ */
+public record BulkDataChangedEvent(String operation, int rows) {
+}
@@ -0,0 +1,7 @@
+package com.neumarket.event;
+
+/**
+ * Published when a buyer opens a new conversation on a listing.
+ */
+public record ConversationStartedEvent(Long conversationId, Long listingId, Long buyerId) {
+}
@@ -0,0 +1,33 @@
+package com.neumarket.event;
+
+import com.neumarket.enums.Category;
+import com.neumarket.enums.ListingStatus;
+import com.neumarket.model.Listing;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published when a listing is created, edited, changes status or is purged.
+ * Listeners that keep aggregates remove "before" and add "after".
+ *
+ * @param before the listing's state before the change; null when it was just created
+ * @param after  the listing's state after the change; null when it was permanently deleted
+ */
+public record ListingChangedEvent(Long listingId, Snapshot before, Snapshot after) {
+
+  public record Snapshot(ListingStatus status, Category category, BigDecimal price, LocalDateTime createdAt) {
+
+    public static Snapshot of(Listing listing) {
+      return new Snapshot(listing.getStatus(), listing.getCategory(), listing.getPrice(), listing.getCreatedAt());
+    }
+  }
+
+  public static ListingChangedEvent created(Listing listing) {
+    return new ListingChangedEvent(listing.getId(), null, Snapshot.of(listing));
+  }
+
+  public static ListingChangedEvent updated(Snapshot before, Listing listing) {
+    return new ListingChangedEvent(listing.getId(), before, Snapshot.of(listing));
+  }
+}
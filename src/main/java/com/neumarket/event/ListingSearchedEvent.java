@@ -0,0 +1,7 @@
+package com.neumarket.event;
+
+/**
+ * Published when a user runs a text search from the browse page (first page only, not pagination).
+ */
+public record ListingSearchedEvent(String query) {
+}
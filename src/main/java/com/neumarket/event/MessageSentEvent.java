@@ -0,0 +1,17 @@
+package com.neumarket.event;
+
+import com.neumarket.dto.response.ChatMessageResponse;
+
+/**
+ * Published when a chat message is saved. Listeners bound to AFTER_COMMIT only see committed messages.
+ *
+ * @param senderView    the message as rendered for the sender (isOwnMessage = true)
+ * @param recipientView the message as rendered for the other participant
+ */
+public record MessageSentEvent(
+    Long conversationId,
+    Long senderId,
+    Long recipientId,
+    ChatMessageResponse senderView,
+    ChatMessageResponse recipientView) {
+}
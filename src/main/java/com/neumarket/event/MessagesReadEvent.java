@@ -0,0 +1,11 @@
+package com.neumarket.event;
+
+/**
+ * Published when a participant marks the other participant's messages in a conversation as read.
+ *
+ * @param readerId  the user who read the messages
+ * @param senderId  the other participant, whose messages are now read
+ * @param markedRead number of messages flipped to read
+ */
+public record MessagesReadEvent(Long conversationId, Long readerId, Long senderId, int markedRead) {
+}
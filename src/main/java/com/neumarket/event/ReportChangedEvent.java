@@ -0,0 +1,11 @@
+package com.neumarket.event;
+
+import com.neumarket.enums.ReportStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a report is filed (previousStatus null) or reviewed.
+ */
+public record ReportChangedEvent(Long reportId, ReportStatus previousStatus, ReportStatus status, LocalDateTime createdAt) {
+}
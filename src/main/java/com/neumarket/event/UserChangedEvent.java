@@ -0,0 +1,31 @@
+package com.neumarket.event;
+
+import com.neumarket.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a user signs up, verifies their email, edits their public profile (name,
+ * picture), or is blocked or unblocked.
+ *
+ * @param before the user's state before the change; null on signup
+ * @param after  the user's state after the change
+ */
+public record UserChangedEvent(Long userId, Snapshot before, Snapshot after) {
+
+  public record Snapshot(boolean emailVerified, boolean blocked, LocalDateTime createdAt) {
+
+    public static Snapshot of(User user) {
+      return new Snapshot(Boolean.TRUE.equals(user.getEmailVerified()), Boolean.TRUE.equals(user.getBlocked()),
+          user.getCreatedAt());
+    }
+  }
+
+  public static UserChangedEvent created(User user) {
+    return new UserChangedEvent(user.getId(), null, Snapshot.of(user));
+  }
+
+  public static UserChangedEvent updated(Snapshot before, User user) {
+    return new UserChangedEvent(user.getId(), before, Snapshot.of(user));
+  }
+}
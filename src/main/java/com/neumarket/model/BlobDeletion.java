@@ -0,0 +1,46 @@
+package com.neumarket.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A stored blob waiting to be deleted by the background worker
+ */
+@Entity
+@Table(name = "blob_deletions", indexes = @Index(name = "idx_blob_deletions_next_attempt_at", columnList = "next_attempt_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlobDeletion {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private String blobName;
+
+  @Column(nullable = false)
+  @Builder.Default
+  private Integer attempts = 0;
+
+  @Column(nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  @Column(length = 500)
+  private String lastError;
+
+  @Column(nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @PrePersist
+  protected void onCreate() {
+    createdAt = LocalDateTime.now();
+    if (nextAttemptAt == null) {
+      nextAttemptAt = createdAt;
+    }
+  }
+}
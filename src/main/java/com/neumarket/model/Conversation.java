@@ -2,6 +2,7 @@ package com.neumarket.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -40,6 +41,25 @@ public class Conversation {
 
   private LocalDateTime updatedAt;
 
+  // Denormalized from the newest message so the inbox never loads the message list
+  @Column(length = 2000)
+  private String lastMessageContent;
+
+  private LocalDateTime lastMessageAt;
+
+  // Per-participant unread counters. Maintained only by atomic bulk updates
+  // (ConversationRepository), never by entity flushes. The DB default lets the columns be
+  // added to tables that already have rows.
+  @Column(nullable = false, updatable = false)
+  @ColumnDefault("0")
+  @Builder.Default
+  private Integer buyerUnreadCount = 0;
+
+  @Column(nullable = false, updatable = false)
+  @ColumnDefault("0")
+  @Builder.Default
+  private Integer sellerUnreadCount = 0;
+
   // Relationships
   @OneToMany(mappedBy = "conversation", cascade = CascadeType.ALL, orphanRemoval = true)
   @OrderBy("createdAt ASC")
@@ -62,6 +82,17 @@ public class Conversation {
     return buyer.getId().equals(userId) || seller.getId().equals(userId);
   }
 
+  // Record a newly sent message as the inbox preview
+  public void recordLastMessage(Message message) {
+    lastMessageContent = message.getContent();
+    lastMessageAt = message.getCreatedAt();
+  }
+
+  // Unread messages waiting for this participant
+  public int getUnreadCountFor(Long userId) {
+    return buyer.getId().equals(userId) ? buyerUnreadCount : sellerUnreadCount;
+  }
+
   // Get the other person in conversation
   public User getOtherParticipant(Long currentUserId) {
     return buyer.getId().equals(currentUserId) ? seller : buyer;
@@ -0,0 +1,32 @@
+package com.neumarket.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Which node may run a scheduled job (or one shard of it) until leasedUntil
+ */
+@Entity
+@Table(name = "job_leases")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobLease {
+
+  // Job name, or "job#shard" for sharded jobs
+  @Id
+  @Column(length = 100)
+  private String name;
+
+  @Column(nullable = false, length = 100)
+  private String owner;
+
+  @Column(nullable = false)
+  private LocalDateTime leasedUntil;
+
+  @Column(nullable = false)
+  private LocalDateTime acquiredAt;
+}
@@ -11,7 +11,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "listings")
+@Table(name = "listings",
+    indexes = {
+        @Index(name = "idx_listings_status_expires_at", columnList = "status, expires_at"),
+        @Index(name = "idx_listings_updated_at", columnList = "updated_at")
+    }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -5,7 +5,7 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "listing_images")
+@Table(name = "listing_images", indexes = @Index(name = "idx_listing_images_stored_blob_id", columnList = "stored_blob_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,9 +21,19 @@ public class ListingImage {
   @JoinColumn(name = "listing_id", nullable = false)
   private Listing listing;
 
+  // Shared content; null for images uploaded before deduplication
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "stored_blob_id")
+  private StoredBlob storedBlob;
+
   @Column(nullable = false)
   private String imageUrl;
 
+  // Resized variants, filled in asynchronously after upload; null until processed
+  private String thumbnailUrl;
+
+  private String mediumUrl;
+
   @Column(nullable = false)
   @Builder.Default
   private Integer displayOrder = 0;
@@ -31,6 +41,11 @@ public class ListingImage {
   @Column(nullable = false, updatable = false)
   private LocalDateTime createdAt;
 
+  // Smallest available rendition for listing cards
+  public String getCardUrl() {
+    return thumbnailUrl != null ? thumbnailUrl : imageUrl;
+  }
+
   @PrePersist
   protected void onCreate() {
     createdAt = LocalDateTime.now();
@@ -0,0 +1,40 @@
+package com.neumarket.model;
+
+import com.neumarket.enums.MetricSeries;
+import com.neumarket.enums.MetricStep;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Event count for one series over one minute, hour or day bucket
+ */
+@Entity
+@Table(name = "metric_rollups", uniqueConstraints = @UniqueConstraint(
+    name = "uk_metric_rollups_bucket", columnNames = {"series", "step", "bucket_start"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetricRollup {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private MetricSeries series;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 10)
+  private MetricStep step;
+
+  @Column(nullable = false)
+  private LocalDateTime bucketStart;
+
+  // Only changed through MetricRollupRepository.addToBucket
+  @Column(nullable = false, updatable = false)
+  private Long eventCount;
+}
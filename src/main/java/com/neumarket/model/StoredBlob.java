@@ -0,0 +1,54 @@
+package com.neumarket.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * One stored copy of uploaded image content, shared by every ListingImage with the same bytes
+ */
+@Entity
+@Table(name = "stored_blobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoredBlob {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  // Hex SHA-256 of the original bytes
+  @Column(nullable = false, unique = true, length = 64)
+  private String sha256;
+
+  @Column(nullable = false, unique = true)
+  private String blobName;
+
+  @Column(nullable = false)
+  private String url;
+
+  private String thumbnailUrl;
+
+  private String mediumUrl;
+
+  @Column(nullable = false)
+  private Long size;
+
+  private String contentType;
+
+  // Images using this content plus uploads that have reserved it; only changed via bulk updates
+  @Column(nullable = false, updatable = false)
+  @Builder.Default
+  private Integer refCount = 1;
+
+  @Column(nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @PrePersist
+  protected void onCreate() {
+    createdAt = LocalDateTime.now();
+  }
+}
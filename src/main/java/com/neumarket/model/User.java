@@ -3,6 +3,7 @@ package com.neumarket.model;
 import com.neumarket.enums.Role;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -59,6 +60,14 @@ public class User {
 
   private LocalDateTime passwordResetCodeExpiry;
 
+  // Unread messages across all conversations. Maintained only by atomic bulk updates
+  // (UserRepository), never by entity flushes, so a stale User can't overwrite it.
+  // The DB default lets the column be added to a table that already has rows.
+  @Column(nullable = false, updatable = false)
+  @ColumnDefault("0")
+  @Builder.Default
+  private Integer unreadMessageCount = 0;
+
   @Column(nullable = false, updatable = false)
   private LocalDateTime createdAt;
 
@@ -0,0 +1,32 @@
+package com.neumarket.repository;
+
+import com.neumarket.model.BlobDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BlobDeletionRepository extends JpaRepository<BlobDeletion, Long> {
+
+  @Query("SELECT d FROM BlobDeletion d WHERE d.nextAttemptAt <= :now ORDER BY d.nextAttemptAt, d.id")
+  List<BlobDeletion> findDue(@Param("now") LocalDateTime now, Pageable limit);
+
+  @Modifying
+  @Query("UPDATE BlobDeletion d SET d.attempts = d.attempts + 1, d.nextAttemptAt = :nextAttemptAt, " +
+      "d.lastError = :error WHERE d.id = :id")
+  int recordFailure(
+      @Param("id") Long id,
+      @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+      @Param("error") String error
+  );
+
+  @Query("SELECT d.blobName FROM BlobDeletion d WHERE d.blobName IN :names")
+  List<String> findQueuedNames(@Param("names") Collection<String> names);
+}
@@ -1,7 +1,11 @@
 package com.neumarket.repository;
 
+import com.neumarket.dto.projection.ConversationSummaryView;
 import com.neumarket.model.Conversation;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,13 +18,100 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
 
   Optional<Conversation> findByListingIdAndBuyerId(Long listingId, Long buyerId);
 
-  @Query("SELECT c FROM Conversation c " +
-      "WHERE c.buyer.id = :userId OR c.seller.id = :userId " +
+  @Query("SELECT COUNT(c) FROM Conversation c WHERE c.buyer.id = :userId OR c.seller.id = :userId")
+  long countByParticipantId(@Param("userId") Long userId);
+
+  // ==================== INBOX READ MODEL ====================
+  // One statement per inbox: listing, both participants joined; thumbnail as a subquery,
+  // unread count from the viewer's maintained counter.
+
+  String INBOX_COLUMNS = "SELECT new com.neumarket.dto.projection.ConversationSummaryView(" +
+      "c.id, c.createdAt, c.updatedAt, c.lastMessageContent, c.lastMessageAt, " +
+      "l.id, l.slug, l.title, l.price, l.status, " +
+      "(SELECT COALESCE(i.thumbnailUrl, i.imageUrl) FROM ListingImage i WHERE i.listing = l ORDER BY i.displayOrder ASC, i.id ASC LIMIT 1), " +
+      "b.id, b.name, b.profilePicUrl, s.id, s.name, s.profilePicUrl, ";
+
+  String INBOX_UNREAD = "CASE WHEN b.id = :userId THEN c.buyerUnreadCount ELSE c.sellerUnreadCount END) ";
+
+  String INBOX_FROM = "FROM Conversation c JOIN c.listing l JOIN c.buyer b JOIN c.seller s ";
+
+  @Query(INBOX_COLUMNS + INBOX_UNREAD + INBOX_FROM +
+      "WHERE b.id = :userId OR s.id = :userId " +
       "ORDER BY c.updatedAt DESC")
-  List<Conversation> findByUserIdOrderByUpdatedAtDesc(@Param("userId") Long userId);
+  List<ConversationSummaryView> findInboxByUserId(@Param("userId") Long userId);
 
-  @Query("SELECT c FROM Conversation c " +
-      "WHERE c.listing.id = :listingId " +
+  @Query(INBOX_COLUMNS + INBOX_UNREAD + INBOX_FROM +
+      "WHERE l.id = :listingId " +
       "ORDER BY c.updatedAt DESC")
-  List<Conversation> findByListingId(@Param("listingId") Long listingId);
-}
\ No newline at end of file
+  List<ConversationSummaryView> findInboxByListingId(
+      @Param("listingId") Long listingId,
+      @Param("userId") Long userId
+  );
+
+  // Admin oversight: no viewer, so no unread count
+  @Query(value = INBOX_COLUMNS + "0) " + INBOX_FROM + "ORDER BY c.updatedAt DESC",
+      countQuery = "SELECT COUNT(c) FROM Conversation c")
+  Page<ConversationSummaryView> findAllInbox(Pageable pageable);
+
+  /**
+   * Fill the denormalized last-message columns for conversations created before they existed
+   * Returns number of updated conversations
+   */
+  @Modifying
+  @Query("UPDATE Conversation c SET " +
+      "c.lastMessageContent = (SELECT m.content FROM Message m WHERE m.id = " +
+      "  (SELECT MAX(m2.id) FROM Message m2 WHERE m2.conversation = c)), " +
+      "c.lastMessageAt = (SELECT MAX(m3.createdAt) FROM Message m3 WHERE m3.conversation = c) " +
+      "WHERE c.lastMessageAt IS NULL AND EXISTS (SELECT 1 FROM Message m4 WHERE m4.conversation = c)")
+  int backfillLastMessages();
+
+  /**
+   * Version stamp of a user's inbox: [count, newest updatedAt, newest lastMessageAt, unread total,
+   * newest listing updatedAt, newest participant updatedAt (buyer, seller)]
+   */
+  @Query("SELECT COUNT(c), MAX(c.updatedAt), MAX(c.lastMessageAt), SUM(" + INBOX_UNREAD +
+      ", MAX(l.updatedAt), MAX(b.updatedAt), MAX(s.updatedAt) " + INBOX_FROM +
+      "WHERE b.id = :userId OR s.id = :userId")
+  List<Object[]> findInboxVersion(@Param("userId") Long userId);
+
+  // ==================== UNREAD COUNTERS ====================
+  // Single-row atomic adjustments; callers clamp decrements to what was actually marked read.
+
+  @Modifying
+  @Query("UPDATE Conversation c SET " +
+      "c.buyerUnreadCount = c.buyerUnreadCount + CASE WHEN c.buyer.id = :recipientId THEN 1 ELSE 0 END, " +
+      "c.sellerUnreadCount = c.sellerUnreadCount + CASE WHEN c.seller.id = :recipientId THEN 1 ELSE 0 END " +
+      "WHERE c.id = :conversationId")
+  int incrementUnread(@Param("conversationId") Long conversationId, @Param("recipientId") Long recipientId);
+
+  @Modifying
+  @Query("UPDATE Conversation c SET " +
+      "c.buyerUnreadCount = CASE WHEN c.buyer.id = :readerId " +
+      "  THEN (CASE WHEN c.buyerUnreadCount > :count THEN c.buyerUnreadCount - :count ELSE 0 END) " +
+      "  ELSE c.buyerUnreadCount END, " +
+      "c.sellerUnreadCount = CASE WHEN c.seller.id = :readerId " +
+      "  THEN (CASE WHEN c.sellerUnreadCount > :count THEN c.sellerUnreadCount - :count ELSE 0 END) " +
+      "  ELSE c.sellerUnreadCount END " +
+      "WHERE c.id = :conversationId")
+  int decrementUnread(
+      @Param("conversationId") Long conversationId,
+      @Param("readerId") Long readerId,
+      @Param("count") int count
+  );
+
+  /**
+   * Recompute every conversation's unread counters from the messages table
+   * Returns number of conversations whose counters were wrong
+   */
+  @Modifying
+  @Query("UPDATE Conversation c SET " +
+      "c.buyerUnreadCount = (SELECT COUNT(m) FROM Message m " +
+      "  WHERE m.conversation = c AND m.sender.id <> c.buyer.id AND m.isRead = false), " +
+      "c.sellerUnreadCount = (SELECT COUNT(m2) FROM Message m2 " +
+      "  WHERE m2.conversation = c AND m2.sender.id <> c.seller.id AND m2.isRead = false) " +
+      "WHERE c.buyerUnreadCount <> (SELECT COUNT(m3) FROM Message m3 " +
+      "  WHERE m3.conversation = c AND m3.sender.id <> c.buyer.id AND m3.isRead = false) " +
+      "OR c.sellerUnreadCount <> (SELECT COUNT(m4) FROM Message m4 " +
+      "  WHERE m4.conversation = c AND m4.sender.id <> c.seller.id AND m4.isRead = false)")
+  int reconcileUnreadCounts();
+}
@@ -0,0 +1,35 @@
+package com.neumarket.repository;
+
+import com.neumarket.model.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+  /**
+   * Take over a lease that has run out; 0 if another node still holds it (or the row doesn't exist yet)
+   */
+  @Modifying
+  @Query("UPDATE JobLease l SET l.owner = :owner, l.acquiredAt = :now, l.leasedUntil = :leasedUntil " +
+      "WHERE l.name = :name AND l.leasedUntil <= :now")
+  int claim(
+      @Param("name") String name,
+      @Param("owner") String owner,
+      @Param("now") LocalDateTime now,
+      @Param("leasedUntil") LocalDateTime leasedUntil
+  );
+
+  @Modifying
+  @Query("UPDATE JobLease l SET l.leasedUntil = :leasedUntil WHERE l.name = :name AND l.owner = :owner")
+  int release(
+      @Param("name") String name,
+      @Param("owner") String owner,
+      @Param("leasedUntil") LocalDateTime leasedUntil
+  );
+}
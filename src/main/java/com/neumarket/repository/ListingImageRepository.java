@@ -2,10 +2,12 @@ package com.neumarket.repository;
 
 import com.neumarket.model.ListingImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,4 +20,42 @@ public interface ListingImageRepository extends JpaRepository<ListingImage, Long
 
   @Query("SELECT COALESCE(MAX(i.displayOrder), 0) FROM ListingImage i WHERE i.listing.id = :listingId")
   int findMaxDisplayOrderByListingId(@Param("listingId") Long listingId);
-}
\ No newline at end of file
+
+  /**
+   * Copy generated variants onto every image sharing the content
+   */
+  @Modifying
+  @Query("UPDATE ListingImage i SET i.thumbnailUrl = :thumbnailUrl, i.mediumUrl = :mediumUrl " +
+      "WHERE i.storedBlob.id = :storedBlobId")
+  int setVariantUrlsByStoredBlobId(
+      @Param("storedBlobId") Long storedBlobId,
+      @Param("thumbnailUrl") String thumbnailUrl,
+      @Param("mediumUrl") String mediumUrl
+  );
+
+  @Query("SELECT DISTINCT i.listing.id FROM ListingImage i WHERE i.storedBlob.id = :storedBlobId")
+  List<Long> findListingIdsByStoredBlobId(@Param("storedBlobId") Long storedBlobId);
+
+  /**
+   * Shared content of the images of these listings, once per image
+   */
+  @Query("SELECT i.storedBlob.id FROM ListingImage i WHERE i.listing.id IN :listingIds AND i.storedBlob IS NOT NULL")
+  List<Long> findStoredBlobIdsByListingIds(@Param("listingIds") Collection<Long> listingIds);
+
+  /**
+   * Images of these listings uploaded before content was shared
+   */
+  @Query("SELECT i FROM ListingImage i WHERE i.listing.id IN :listingIds AND i.storedBlob IS NULL")
+  List<ListingImage> findUnsharedByListingIds(@Param("listingIds") Collection<Long> listingIds);
+
+  @Modifying
+  @Query("DELETE FROM ListingImage i WHERE i.listing.id IN :listingIds")
+  int deleteByListingIds(@Param("listingIds") Collection<Long> listingIds);
+
+  /**
+   * Images referencing any of these URLs: [imageUrl, thumbnailUrl, mediumUrl]
+   */
+  @Query("SELECT i.imageUrl, i.thumbnailUrl, i.mediumUrl FROM ListingImage i " +
+      "WHERE i.imageUrl IN :urls OR i.thumbnailUrl IN :urls OR i.mediumUrl IN :urls")
+  List<Object[]> findReferencing(@Param("urls") Collection<String> urls);
+}
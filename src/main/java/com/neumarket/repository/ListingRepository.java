@@ -1,5 +1,6 @@
 package com.neumarket.repository;
 
+import com.neumarket.dto.projection.ListingSummaryView;
 import com.neumarket.enums.Category;
 import com.neumarket.enums.Condition;
 import com.neumarket.enums.ListingStatus;
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,14 +28,31 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
 
   List<Listing> findByUserIdAndStatusNot(Long userId, ListingStatus status);
 
-  @Query("SELECT l FROM Listing l WHERE l.status = :status " +
+  // Search index: walk listings of a status in id order, one batch at a time
+  List<Listing> findByStatusAndIdGreaterThanOrderByIdAsc(ListingStatus status, Long id, Pageable pageable);
+
+  // Search index resync: listings of any status updated since a time, in id order
+  List<Listing> findByUpdatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+      LocalDateTime since, Long id, Pageable pageable);
+
+  // Listing card columns in one statement: seller joined, first image by display order via subquery
+  // (its thumbnail once generated, the original until then)
+  String SUMMARY_SELECT = "SELECT new com.neumarket.dto.projection.ListingSummaryView(" +
+      "l.id, l.slug, l.title, l.price, l.category, l.condition, l.status, l.createdAt, l.expiresAt, u.name, " +
+      "(SELECT COALESCE(i.thumbnailUrl, i.imageUrl) FROM ListingImage i WHERE i.listing = l ORDER BY i.displayOrder ASC, i.id ASC LIMIT 1)) " +
+      "FROM Listing l JOIN l.user u ";
+
+  String BROWSE_FILTERS = "l.status = :status " +
       "AND (:category IS NULL OR l.category = :category) " +
       "AND (:condition IS NULL OR l.condition = :condition) " +
       "AND (:minPrice IS NULL OR l.price >= :minPrice) " +
       "AND (:maxPrice IS NULL OR l.price <= :maxPrice) " +
       "AND (:search IS NULL OR LOWER(l.title) LIKE LOWER(CONCAT('%', :search, '%')) " +
-      "     OR LOWER(l.description) LIKE LOWER(CONCAT('%', :search, '%')))")
-  Page<Listing> findWithFilters(
+      "     OR LOWER(l.description) LIKE LOWER(CONCAT('%', :search, '%'))) ";
+
+  @Query(value = SUMMARY_SELECT + "WHERE " + BROWSE_FILTERS,
+      countQuery = "SELECT COUNT(l) FROM Listing l WHERE " + BROWSE_FILTERS)
+  Page<ListingSummaryView> findWithFilters(
       @Param("status") ListingStatus status,
       @Param("category") Category category,
       @Param("condition") Condition condition,
@@ -43,45 +62,171 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
       Pageable pageable
   );
 
+  // ==================== KEYSET (CURSOR) BROWSE ====================
+  // Seek past the last row of the previous page instead of OFFSET; no count query.
+  // A null cursorId means first page. Pass PageRequest.of(0, limit) to cap the rows.
+
+  @Query(SUMMARY_SELECT + "WHERE " + BROWSE_FILTERS +
+      "AND (:cursorId IS NULL OR l.createdAt < :cursorCreatedAt " +
+      "     OR (l.createdAt = :cursorCreatedAt AND l.id < :cursorId)) " +
+      "ORDER BY l.createdAt DESC, l.id DESC")
+  List<ListingSummaryView> findNewestAfter(
+      @Param("status") ListingStatus status,
+      @Param("category") Category category,
+      @Param("condition") Condition condition,
+      @Param("minPrice") BigDecimal minPrice,
+      @Param("maxPrice") BigDecimal maxPrice,
+      @Param("search") String search,
+      @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+      @Param("cursorId") Long cursorId,
+      Pageable limit
+  );
+
+  @Query(SUMMARY_SELECT + "WHERE " + BROWSE_FILTERS +
+      "AND (:cursorId IS NULL OR l.createdAt > :cursorCreatedAt " +
+      "     OR (l.createdAt = :cursorCreatedAt AND l.id > :cursorId)) " +
+      "ORDER BY l.createdAt ASC, l.id ASC")
+  List<ListingSummaryView> findOldestAfter(
+      @Param("status") ListingStatus status,
+      @Param("category") Category category,
+      @Param("condition") Condition condition,
+      @Param("minPrice") BigDecimal minPrice,
+      @Param("maxPrice") BigDecimal maxPrice,
+      @Param("search") String search,
+      @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+      @Param("cursorId") Long cursorId,
+      Pageable limit
+  );
+
+  @Query(SUMMARY_SELECT + "WHERE " + BROWSE_FILTERS +
+      "AND (:cursorId IS NULL OR l.price > :cursorPrice " +
+      "     OR (l.price = :cursorPrice AND l.id > :cursorId)) " +
+      "ORDER BY l.price ASC, l.id ASC")
+  List<ListingSummaryView> findCheapestAfter(
+      @Param("status") ListingStatus status,
+      @Param("category") Category category,
+      @Param("condition") Condition condition,
+      @Param("minPrice") BigDecimal minPrice,
+      @Param("maxPrice") BigDecimal maxPrice,
+      @Param("search") String search,
+      @Param("cursorPrice") BigDecimal cursorPrice,
+      @Param("cursorId") Long cursorId,
+      Pageable limit
+  );
+
+  @Query(SUMMARY_SELECT + "WHERE " + BROWSE_FILTERS +
+      "AND (:cursorId IS NULL OR l.price < :cursorPrice " +
+      "     OR (l.price = :cursorPrice AND l.id < :cursorId)) " +
+      "ORDER BY l.price DESC, l.id DESC")
+  List<ListingSummaryView> findPriciestAfter(
+      @Param("status") ListingStatus status,
+      @Param("category") Category category,
+      @Param("condition") Condition condition,
+      @Param("minPrice") BigDecimal minPrice,
+      @Param("maxPrice") BigDecimal maxPrice,
+      @Param("search") String search,
+      @Param("cursorPrice") BigDecimal cursorPrice,
+      @Param("cursorId") Long cursorId,
+      Pageable limit
+  );
+
+
+
+  // Cards for a known set of ids (search index pages, saved items); caller restores order
+  @Query(SUMMARY_SELECT + "WHERE l.id IN :ids")
+  List<ListingSummaryView> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 
+  @Query(SUMMARY_SELECT + "WHERE u.id = :userId AND l.status <> :status ORDER BY l.createdAt DESC")
+  List<ListingSummaryView> findSummariesByUserIdAndStatusNot(
+      @Param("userId") Long userId,
+      @Param("status") ListingStatus status
+  );
+
+  // Admin: All listings
+  @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(l) FROM Listing l")
+  Page<ListingSummaryView> findAllSummaries(Pageable pageable);
 
   // Admin: Get listings by status
-  Page<Listing> findByStatus(ListingStatus status, Pageable pageable);
+  @Query(value = SUMMARY_SELECT + "WHERE l.status = :status",
+      countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.status = :status")
+  Page<ListingSummaryView> findByStatus(@Param("status") ListingStatus status, Pageable pageable);
 
   // Admin: Search listings
-  @Query("SELECT l FROM Listing l WHERE " +
-      "LOWER(l.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-      "LOWER(l.description) LIKE LOWER(CONCAT('%', :search, '%'))")
-  Page<Listing> searchListings(@Param("search") String search, Pageable pageable);
+  String ADMIN_SEARCH = "LOWER(l.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+      "LOWER(l.description) LIKE LOWER(CONCAT('%', :search, '%'))";
+
+  @Query(value = SUMMARY_SELECT + "WHERE " + ADMIN_SEARCH,
+      countQuery = "SELECT COUNT(l) FROM Listing l WHERE " + ADMIN_SEARCH)
+  Page<ListingSummaryView> searchListings(@Param("search") String search, Pageable pageable);
 
   // Admin: Count stats
   long countByStatus(ListingStatus status);
 
-  @Query("SELECT COUNT(l) FROM Listing l WHERE l.createdAt >= :since")
-  long countNewListingsSince(@Param("since") LocalDateTime since);
+  // [hour, count] per hour with any listing created since
+  @Query("SELECT CAST(FUNCTION('date_trunc', 'hour', l.createdAt) AS LocalDateTime), COUNT(l) FROM Listing l "
+      + "WHERE l.createdAt >= :since GROUP BY CAST(FUNCTION('date_trunc', 'hour', l.createdAt) AS LocalDateTime)")
+  List<Object[]> countCreatedPerHourSince(@Param("since") LocalDateTime since);
+
+  @Query("SELECT l.status, COUNT(l) FROM Listing l GROUP BY l.status")
+  List<Object[]> countGroupedByStatus();
 
-  @Query("SELECT l.category, COUNT(l) FROM Listing l WHERE l.status = 'ACTIVE' GROUP BY l.category")
-  List<Object[]> countByCategory();
+  // [category, count, sum of prices] over active listings
+  @Query("SELECT l.category, COUNT(l), SUM(l.price) FROM Listing l WHERE l.status = 'ACTIVE' GROUP BY l.category")
+  List<Object[]> summarizeActiveByCategory();
 
-  @Query("SELECT AVG(l.price) FROM Listing l WHERE l.status = 'ACTIVE'")
-  BigDecimal getAveragePrice();
+  // ==================== VERSION STAMPS (CONDITIONAL GET) ====================
+  // Every change a reader can see sets updatedAt: entity updates, bulk expiry and image changes.
+
+  // [id, updatedAt, seller updatedAt]
+  @Query("SELECT l.id, l.updatedAt, u.updatedAt FROM Listing l JOIN l.user u WHERE l.slug = :slug")
+  List<Object[]> findVersionBySlug(@Param("slug") String slug);
+
+  // [count, newest updatedAt]
+  @Query("SELECT COUNT(l), MAX(l.updatedAt) FROM Listing l WHERE l.user.id = :userId AND l.status <> :status")
+  List<Object[]> findVersionByUserIdAndStatusNot(
+      @Param("userId") Long userId,
+      @Param("status") ListingStatus status
+  );
+
+  // For changes made without loading the listing (its images)
+  @Modifying
+  @Query("UPDATE Listing l SET l.updatedAt = :now WHERE l.id IN :ids")
+  int touch(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 
   // ==================== CLEANUP QUERIES ====================
 
   /**
-   * Mark expired listings as EXPIRED
-   * Returns number of updated listings
+   * Next batch of listings due to expire, as [id, category, price, createdAt], in id order after afterId,
+   * limited to ids where id mod shards = shard
    */
+  @Query("SELECT l.id, l.category, l.price, l.createdAt FROM Listing l " +
+      "WHERE l.status = 'ACTIVE' AND l.expiresAt < :now AND l.id > :afterId " +
+      "AND MOD(l.id, :shards) = :shard ORDER BY l.id")
+  List<Object[]> findExpiredBatch(
+      @Param("now") LocalDateTime now,
+      @Param("afterId") Long afterId,
+      @Param("shard") int shard,
+      @Param("shards") int shards,
+      Pageable limit
+  );
+
+  // Re-checks status and expiry so a listing bumped since the batch was read is left alone
   @Modifying
-  @Query("UPDATE Listing l SET l.status = 'EXPIRED' " +
-      "WHERE l.status = 'ACTIVE' AND l.expiresAt < :now")
-  int markExpiredListings(@Param("now") LocalDateTime now);
+  @Query("UPDATE Listing l SET l.status = 'EXPIRED', l.updatedAt = :now " +
+      "WHERE l.id IN :ids AND l.status = 'ACTIVE' AND l.expiresAt < :now")
+  int markExpired(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+  @Query("SELECT l.id FROM Listing l WHERE l.id IN :ids AND l.status = :status")
+  List<Long> findIdsWithStatus(@Param("ids") Collection<Long> ids, @Param("status") ListingStatus status);
+
+  @Query("SELECT l.id FROM Listing l WHERE l.status = 'DELETED' AND l.updatedAt < :cutoffTime")
+  List<Long> findOldDeletedListingIds(@Param("cutoffTime") LocalDateTime cutoffTime);
 
   /**
-   * Permanently delete listings that have been DELETED for more than X days
+   * Permanently delete listings that are still DELETED
    * Returns number of deleted listings
    */
   @Modifying
-  @Query("DELETE FROM Listing l WHERE l.status = 'DELETED' AND l.updatedAt < :cutoffTime")
-  int purgeOldDeletedListings(@Param("cutoffTime") LocalDateTime cutoffTime);
+  @Query("DELETE FROM Listing l WHERE l.id IN :ids AND l.status = 'DELETED'")
+  int purgeDeletedListings(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
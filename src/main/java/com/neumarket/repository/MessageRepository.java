@@ -1,6 +1,7 @@
 package com.neumarket.repository;
 
 import com.neumarket.model.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -13,27 +14,25 @@ import java.util.Optional;
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
-  List<Message> findByConversationIdOrderByCreatedAtAsc(Long conversationId);
+  // Newest-first page of a conversation, seeking below a message id (null = latest).
+  // Served by the (conversation_id, id) index; pass PageRequest.of(0, limit) to cap the rows.
+  @Query("SELECT m FROM Message m JOIN FETCH m.sender " +
+      "WHERE m.conversation.id = :conversationId " +
+      "AND (:beforeId IS NULL OR m.id < :beforeId) " +
+      "ORDER BY m.id DESC")
+  List<Message> findPageBefore(
+      @Param("conversationId") Long conversationId,
+      @Param("beforeId") Long beforeId,
+      Pageable limit
+  );
 
   @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId ORDER BY m.createdAt DESC LIMIT 1")
   Optional<Message> findLastMessageByConversationId(@Param("conversationId") Long conversationId);
 
-  @Query("SELECT COUNT(m) FROM Message m " +
-      "WHERE m.conversation.id = :conversationId " +
-      "AND m.sender.id != :userId " +
-      "AND m.isRead = false")
-  int countUnreadMessages(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
-
   @Modifying
   @Query("UPDATE Message m SET m.isRead = true " +
       "WHERE m.conversation.id = :conversationId " +
       "AND m.sender.id != :userId " +
       "AND m.isRead = false")
-  void markMessagesAsRead(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
-
-  @Query("SELECT COUNT(m) FROM Message m " +
-      "WHERE (m.conversation.buyer.id = :userId OR m.conversation.seller.id = :userId) " +
-      "AND m.sender.id != :userId " +
-      "AND m.isRead = false")
-  int countTotalUnreadMessages(@Param("userId") Long userId); //
+  int markMessagesAsRead(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
 }
\ No newline at end of file
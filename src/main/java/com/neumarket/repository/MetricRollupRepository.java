@@ -0,0 +1,40 @@
+package com.neumarket.repository;
+
+import com.neumarket.enums.MetricSeries;
+import com.neumarket.enums.MetricStep;
+import com.neumarket.model.MetricRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MetricRollupRepository extends JpaRepository<MetricRollup, Long> {
+
+  @Modifying
+  @Query("UPDATE MetricRollup r SET r.eventCount = r.eventCount + :delta " +
+      "WHERE r.series = :series AND r.step = :step AND r.bucketStart = :bucketStart")
+  int addToBucket(
+      @Param("series") MetricSeries series,
+      @Param("step") MetricStep step,
+      @Param("bucketStart") LocalDateTime bucketStart,
+      @Param("delta") long delta
+  );
+
+  @Query("SELECT r FROM MetricRollup r WHERE r.series = :series AND r.step = :step " +
+      "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+  List<MetricRollup> findRange(
+      @Param("series") MetricSeries series,
+      @Param("step") MetricStep step,
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to
+  );
+
+  @Modifying
+  @Query("DELETE FROM MetricRollup r WHERE r.step = :step AND r.bucketStart < :cutoff")
+  int deleteOlderThan(@Param("step") MetricStep step, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -38,6 +38,9 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
   // Count reports for specific content
   long countByReportTypeAndTargetId(ReportType reportType, Long targetId);
 
+  @Query("SELECT r.status, COUNT(r) FROM Report r GROUP BY r.status")
+  List<Object[]> countGroupedByStatus();
+
   // Stats query for grouping
   @Query("SELECT r.reportType, COUNT(r) FROM Report r GROUP BY r.reportType")
   List<Object[]> countByReportType();
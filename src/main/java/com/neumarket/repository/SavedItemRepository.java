@@ -2,10 +2,14 @@ package com.neumarket.repository;
 
 import com.neumarket.model.SavedItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface SavedItemRepository extends JpaRepository<SavedItem, Long> {
@@ -16,5 +20,13 @@ public interface SavedItemRepository extends JpaRepository<SavedItem, Long> {
 
   boolean existsByUserIdAndListingId(Long userId, Long listingId);
 
+  // Which of the given listings the user has saved - one query per page instead of one per listing
+  @Query("SELECT s.listing.id FROM SavedItem s WHERE s.user.id = :userId AND s.listing.id IN :listingIds")
+  Set<Long> findSavedListingIds(@Param("userId") Long userId, @Param("listingIds") Collection<Long> listingIds);
+
+  // [count, newest createdAt] of the user's saves among one seller's listings
+  @Query("SELECT COUNT(s), MAX(s.createdAt) FROM SavedItem s WHERE s.user.id = :userId AND s.listing.user.id = :sellerId")
+  List<Object[]> findVersionByUserIdAndSellerId(@Param("userId") Long userId, @Param("sellerId") Long sellerId);
+
   void deleteByUserIdAndListingId(Long userId, Long listingId);
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.neumarket.repository;
+
+import com.neumarket.model.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, Long> {
+
+  Optional<StoredBlob> findBySha256(String sha256);
+
+  /**
+   * Take a reference to existing content; returns 0 if there is none.
+   * The row stays locked until commit, so it can't be released out from under us.
+   */
+  @Modifying
+  @Query("UPDATE StoredBlob b SET b.refCount = b.refCount + 1 WHERE b.sha256 = :sha256")
+  int incrementRefCount(@Param("sha256") String sha256);
+
+  @Modifying
+  @Query("UPDATE StoredBlob b SET b.refCount = b.refCount - :count WHERE b.id = :id")
+  int decrementRefCount(@Param("id") Long id, @Param("count") int count);
+
+  @Query("SELECT b FROM StoredBlob b WHERE b.id IN :ids AND b.refCount <= 0")
+  List<StoredBlob> findUnreferenced(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Query("DELETE FROM StoredBlob b WHERE b.id IN :ids AND b.refCount <= 0")
+  int deleteUnreferenced(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Attach generated variants; returns 0 if the content was released in the meantime
+   */
+  @Modifying
+  @Query("UPDATE StoredBlob b SET b.thumbnailUrl = :thumbnailUrl, b.mediumUrl = :mediumUrl WHERE b.id = :id")
+  int setVariantUrls(
+      @Param("id") Long id,
+      @Param("thumbnailUrl") String thumbnailUrl,
+      @Param("mediumUrl") String mediumUrl
+  );
+
+  /**
+   * Rows referencing any of these blobs as original (by name) or variant (by URL):
+   * [blobName, thumbnailUrl, mediumUrl]
+   */
+  @Query("SELECT b.blobName, b.thumbnailUrl, b.mediumUrl FROM StoredBlob b " +
+      "WHERE b.blobName IN :names OR b.thumbnailUrl IN :urls OR b.mediumUrl IN :urls")
+  List<Object[]> findReferencing(@Param("names") Collection<String> names, @Param("urls") Collection<String> urls);
+}
@@ -21,7 +21,37 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
   boolean existsByEmail(String email);
 
+  @Query("SELECT u.unreadMessageCount FROM User u WHERE u.id = :userId")
+  Optional<Integer> findUnreadMessageCount(@Param("userId") Long userId);
 
+  @Query("SELECT u.updatedAt FROM User u WHERE u.id = :userId")
+  Optional<LocalDateTime> findUpdatedAtById(@Param("userId") Long userId);
+
+  // ==================== UNREAD COUNTERS ====================
+
+  @Modifying
+  @Query("UPDATE User u SET u.unreadMessageCount = u.unreadMessageCount + 1 WHERE u.id = :userId")
+  int incrementUnreadMessageCount(@Param("userId") Long userId);
+
+  @Modifying
+  @Query("UPDATE User u SET u.unreadMessageCount = " +
+      "CASE WHEN u.unreadMessageCount > :count THEN u.unreadMessageCount - :count ELSE 0 END " +
+      "WHERE u.id = :userId")
+  int decrementUnreadMessageCount(@Param("userId") Long userId, @Param("count") int count);
+
+  // Buyer-side plus seller-side counters, each served by its foreign-key index
+  String USER_UNREAD_TOTAL =
+      "((SELECT COALESCE(SUM(cb.buyerUnreadCount), 0) FROM Conversation cb WHERE cb.buyer.id = u.id) + " +
+      "(SELECT COALESCE(SUM(cs.sellerUnreadCount), 0) FROM Conversation cs WHERE cs.seller.id = u.id)) ";
+
+  /**
+   * Recompute every user's unread total from their conversations' counters
+   * Returns number of users whose total was wrong
+   */
+  @Modifying
+  @Query("UPDATE User u SET u.unreadMessageCount = " + USER_UNREAD_TOTAL +
+      "WHERE u.unreadMessageCount <> " + USER_UNREAD_TOTAL)
+  int reconcileUnreadMessageCounts();
 
   // Admin: Search users
   @Query("SELECT u FROM User u WHERE " +
@@ -42,8 +72,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
   long countByRole(Role role);
 
-  @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt >= :since")
-  long countNewUsersSince(@Param("since") LocalDateTime since);
+  // [hour, count] per hour with any signup since
+  @Query("SELECT CAST(FUNCTION('date_trunc', 'hour', u.createdAt) AS LocalDateTime), COUNT(u) FROM User u "
+      + "WHERE u.createdAt >= :since GROUP BY CAST(FUNCTION('date_trunc', 'hour', u.createdAt) AS LocalDateTime)")
+  List<Object[]> countCreatedPerHourSince(@Param("since") LocalDateTime since);
 
   // ==================== CLEANUP QUERIES ====================
 
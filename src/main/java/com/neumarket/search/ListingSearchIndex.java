@@ -0,0 +1,465 @@
+package com.neumarket.search;
+
+import com.neumarket.enums.Category;
+import com.neumarket.enums.Condition;
+import com.neumarket.enums.ListingStatus;
+import com.neumarket.model.Listing;
+import com.neumarket.repository.ListingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-process inverted index over ACTIVE listings (title + description).
+ *
+ * Every indexed listing gets a dense ordinal; posting lists, category and
+ * condition filters are BitSets over those ordinals so a query is a handful
+ * of word-parallel ANDs instead of a LIKE scan of the listings table. Facet
+ * counts walk the text matches once and test the filter BitSets per listing.
+ * Title words also feed a prefix trie (TitleSuggester) for search-box completion.
+ * Mutations are applied after the surrounding transaction commits.
+ *
+ * The index is per node and only hears about this node's commits, so a periodic resync
+ * re-reads every listing whose updatedAt moved since the last sync (ACTIVE ones are indexed,
+ * the rest dropped); another node's changes show up after this node's next resync.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ListingSearchIndex {
+
+  private static final int REBUILD_BATCH_SIZE = 1000;
+  // Each resync reaches back this far before the previous one started, for transactions that
+  // were still open then and for clock differences between nodes
+  private static final Duration RESYNC_OVERLAP = Duration.ofMinutes(5);
+
+  private final ListingRepository listingRepository;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, Integer> ordinals = new HashMap<>();
+  private final List<Doc> docs = new ArrayList<>();
+  private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+  private final BitSet live = new BitSet();
+  private final TreeMap<String, BitSet> postings = new TreeMap<>();
+  private final Map<Category, BitSet> byCategory = new EnumMap<>(Category.class);
+  private final Map<Condition, BitSet> byCondition = new EnumMap<>(Condition.class);
+  private final TitleSuggester suggester = new TitleSuggester(LocalDateTime.now());
+
+  private volatile boolean ready;
+  // Ids changed by committed transactions while rebuild() or resync() runs (null otherwise). Their
+  // live state is newer than any row the sync may have read before that commit, so it skips them.
+  private Set<Long> changedDuringRebuild;
+  // When the last rebuild or resync started reading
+  private LocalDateTime lastSyncStartedAt;
+
+  /**
+   * A matching listing with the fields needed to sort and page results
+   */
+  public record Hit(Long id, BigDecimal price, LocalDateTime createdAt) {
+  }
+
+  /**
+   * Facet counts for a query. Each facet ignores its own filter (category counts use every filter
+   * but category, and so on) so the UI can show what switching that filter would return.
+   *
+   * @param priceBuckets counts per bucket of the requested bounds: below the first, between each
+   *                     pair, and at or above the last
+   */
+  public record Facets(int total, Map<Category, Integer> categories, Map<Condition, Integer> conditions,
+                       int[] priceBuckets) {
+  }
+
+  private record Doc(Long id, String title, Category category, Condition condition, BigDecimal price,
+                     LocalDateTime createdAt, Set<String> terms) {
+  }
+
+  /**
+   * Build the index from the database once the application is up. Listings indexed or removed
+   * by a commit while the rebuild runs keep that state rather than the row read by the rebuild.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void rebuild() {
+    long startedAt = System.currentTimeMillis();
+    lastSyncStartedAt = LocalDateTime.now();
+
+    int count = sync(lastId -> listingRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+        ListingStatus.ACTIVE, lastId, PageRequest.of(0, REBUILD_BATCH_SIZE)));
+
+    ready = true;
+    log.info("Search index built: {} active listings, {} terms in {} ms",
+        count, termCount(), System.currentTimeMillis() - startedAt);
+  }
+
+  /**
+   * Apply every listing updated since shortly before the last sync, including changes committed
+   * on other nodes. Skipped until the first rebuild has finished.
+   */
+  @Scheduled(fixedDelayString = "${app.search.resync-interval-ms:900000}",
+      initialDelayString = "${app.search.resync-interval-ms:900000}")
+  public synchronized void resync() {
+    if (!ready) {
+      return;
+    }
+    long startedAt = System.currentTimeMillis();
+    LocalDateTime since = lastSyncStartedAt.minus(RESYNC_OVERLAP);
+    lastSyncStartedAt = LocalDateTime.now();
+
+    int count = sync(lastId -> listingRepository.findByUpdatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+        since, lastId, PageRequest.of(0, REBUILD_BATCH_SIZE)));
+
+    log.debug("Search index resynced: {} listings updated since {} in {} ms",
+        count, since, System.currentTimeMillis() - startedAt);
+  }
+
+  /**
+   * Read batches in id order until one comes back short, indexing ACTIVE listings and dropping
+   * the rest, except those committed here meanwhile; returns the number of rows read
+   */
+  private int sync(Function<Long, List<Listing>> batchAfter) {
+    long lastId = 0L;
+    int count = 0;
+
+    lock.writeLock().lock();
+    try {
+      changedDuringRebuild = new HashSet<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    try {
+      List<Listing> batch;
+      do {
+        batch = batchAfter.apply(lastId);
+        List<Long> inactive = batch.stream()
+            .filter(listing -> listing.getStatus() != ListingStatus.ACTIVE)
+            .map(Listing::getId)
+            .toList();
+        List<Doc> loaded = batch.stream()
+            .filter(listing -> listing.getStatus() == ListingStatus.ACTIVE)
+            .map(ListingSearchIndex::toDoc)
+            .toList();
+        lock.writeLock().lock();
+        try {
+          for (Doc doc : loaded) {
+            if (!changedDuringRebuild.contains(doc.id())) {
+              addDoc(doc);
+            }
+          }
+          for (Long id : inactive) {
+            if (!changedDuringRebuild.contains(id)) {
+              removeDoc(id);
+            }
+          }
+        } finally {
+          lock.writeLock().unlock();
+        }
+        if (!batch.isEmpty()) {
+          lastId = batch.get(batch.size() - 1).getId();
+        }
+        count += batch.size();
+      } while (batch.size() == REBUILD_BATCH_SIZE);
+    } finally {
+      lock.writeLock().lock();
+      try {
+        changedDuringRebuild = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+    return count;
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Reflect the listing's current state: ACTIVE listings are (re)indexed, anything else is dropped
+   */
+  public void index(Listing listing) {
+    if (listing.getStatus() == ListingStatus.ACTIVE) {
+      Doc doc = toDoc(listing);
+      afterCommit(() -> apply(doc));
+    } else {
+      remove(listing.getId());
+    }
+  }
+
+  public void remove(Long listingId) {
+    afterCommit(() -> {
+      lock.writeLock().lock();
+      try {
+        markChanged(listingId);
+        removeDoc(listingId);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    });
+  }
+
+  public void removeAll(Collection<Long> listingIds) {
+    List<Long> ids = List.copyOf(listingIds);
+    afterCommit(() -> {
+      lock.writeLock().lock();
+      try {
+        for (Long id : ids) {
+          markChanged(id);
+          removeDoc(id);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    });
+  }
+
+  /**
+   * Find ACTIVE listings matching every query term (the last term also matches as a prefix)
+   * and the given filters. Results are unordered.
+   */
+  public List<Hit> search(String text, Category category, Condition condition,
+                          BigDecimal minPrice, BigDecimal maxPrice) {
+    lock.readLock().lock();
+    try {
+      BitSet matches = matchText(text);
+      if (category != null) {
+        matches.and(byCategory.getOrDefault(category, new BitSet()));
+      }
+      if (condition != null) {
+        matches.and(byCondition.getOrDefault(condition, new BitSet()));
+      }
+
+      List<Hit> hits = new ArrayList<>(matches.cardinality());
+      for (int ord = matches.nextSetBit(0); ord >= 0; ord = matches.nextSetBit(ord + 1)) {
+        Doc doc = docs.get(ord);
+        if (minPrice != null && doc.price().compareTo(minPrice) < 0) {
+          continue;
+        }
+        if (maxPrice != null && doc.price().compareTo(maxPrice) > 0) {
+          continue;
+        }
+        hits.add(new Hit(doc.id(), doc.price(), doc.createdAt()));
+      }
+      return hits;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Completions for what has been typed so far: the last word is completed from ACTIVE listing
+   * titles (most used and newest first), earlier words are kept as typed. Nothing is suggested
+   * after a trailing space.
+   */
+  public List<String> suggest(String query, int limit) {
+    List<String> words = SearchTokenizer.words(query);
+    if (words.isEmpty() || Character.isWhitespace(query.charAt(query.length() - 1))) {
+      return List.of();
+    }
+    String prefix = words.get(words.size() - 1);
+    String typed = String.join(" ", words.subList(0, words.size() - 1));
+
+    List<String> completions;
+    lock.readLock().lock();
+    try {
+      completions = suggester.complete(prefix, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+    return typed.isEmpty() ? completions : completions.stream().map(word -> typed + " " + word).toList();
+  }
+
+  /**
+   * Count matches per category, condition and price bucket in one pass over the text matches.
+   * Blank text counts every ACTIVE listing.
+   *
+   * @param priceBounds ascending bucket boundaries
+   */
+  public Facets facets(String text, Category category, Condition condition,
+                       BigDecimal minPrice, BigDecimal maxPrice, List<BigDecimal> priceBounds) {
+    lock.readLock().lock();
+    try {
+      BitSet matches = matchText(text);
+      BitSet inCategory = category != null ? byCategory.getOrDefault(category, new BitSet()) : null;
+      BitSet inCondition = condition != null ? byCondition.getOrDefault(condition, new BitSet()) : null;
+
+      int total = 0;
+      int[] categoryCounts = new int[Category.values().length];
+      int[] conditionCounts = new int[Condition.values().length];
+      int[] priceBuckets = new int[priceBounds.size() + 1];
+
+      for (int ord = matches.nextSetBit(0); ord >= 0; ord = matches.nextSetBit(ord + 1)) {
+        Doc doc = docs.get(ord);
+        boolean categoryOk = inCategory == null || inCategory.get(ord);
+        boolean conditionOk = inCondition == null || inCondition.get(ord);
+        boolean priceOk = (minPrice == null || doc.price().compareTo(minPrice) >= 0)
+            && (maxPrice == null || doc.price().compareTo(maxPrice) <= 0);
+
+        if (conditionOk && priceOk) {
+          categoryCounts[doc.category().ordinal()]++;
+        }
+        if (categoryOk && priceOk) {
+          conditionCounts[doc.condition().ordinal()]++;
+        }
+        if (categoryOk && conditionOk) {
+          priceBuckets[bucketOf(doc.price(), priceBounds)]++;
+          if (priceOk) {
+            total++;
+          }
+        }
+      }
+
+      Map<Category, Integer> categories = new EnumMap<>(Category.class);
+      for (Category c : Category.values()) {
+        categories.put(c, categoryCounts[c.ordinal()]);
+      }
+      Map<Condition, Integer> conditions = new EnumMap<>(Condition.class);
+      for (Condition c : Condition.values()) {
+        conditions.put(c, conditionCounts[c.ordinal()]);
+      }
+      return new Facets(total, categories, conditions, priceBuckets);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Live listings matching every term of the text (the last also as a prefix); caller holds the read lock
+   */
+  private BitSet matchText(String text) {
+    List<String> terms = SearchTokenizer.tokenize(text);
+    boolean prefixLast = text != null && !text.isEmpty()
+        && !Character.isWhitespace(text.charAt(text.length() - 1));
+
+    BitSet matches = (BitSet) live.clone();
+    for (int i = 0; i < terms.size() && !matches.isEmpty(); i++) {
+      boolean prefix = prefixLast && i == terms.size() - 1;
+      matches.and(prefix ? prefixPostings(terms.get(i)) : postings.getOrDefault(terms.get(i), new BitSet()));
+    }
+    return matches;
+  }
+
+  private static int bucketOf(BigDecimal price, List<BigDecimal> bounds) {
+    int bucket = 0;
+    while (bucket < bounds.size() && price.compareTo(bounds.get(bucket)) >= 0) {
+      bucket++;
+    }
+    return bucket;
+  }
+
+  private BitSet prefixPostings(String prefix) {
+    BitSet union = new BitSet();
+    postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+        .values()
+        .forEach(union::or);
+    return union;
+  }
+
+  private void apply(Doc doc) {
+    lock.writeLock().lock();
+    try {
+      markChanged(doc.id());
+      addDoc(doc);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void markChanged(Long listingId) {
+    if (changedDuringRebuild != null) {
+      changedDuringRebuild.add(listingId);
+    }
+  }
+
+  private void addDoc(Doc doc) {
+    removeDoc(doc.id());
+
+    int ord = freeOrdinals.isEmpty() ? docs.size() : freeOrdinals.pop();
+    if (ord == docs.size()) {
+      docs.add(doc);
+    } else {
+      docs.set(ord, doc);
+    }
+    ordinals.put(doc.id(), ord);
+    live.set(ord);
+
+    byCategory.computeIfAbsent(doc.category(), c -> new BitSet()).set(ord);
+    byCondition.computeIfAbsent(doc.condition(), c -> new BitSet()).set(ord);
+    for (String term : doc.terms()) {
+      postings.computeIfAbsent(term, t -> new BitSet()).set(ord);
+    }
+    suggester.add(doc.title(), doc.createdAt());
+  }
+
+  private void removeDoc(Long listingId) {
+    Integer ord = ordinals.remove(listingId);
+    if (ord == null) {
+      return;
+    }
+
+    Doc doc = docs.get(ord);
+    live.clear(ord);
+    byCategory.get(doc.category()).clear(ord);
+    byCondition.get(doc.condition()).clear(ord);
+    for (String term : doc.terms()) {
+      BitSet posting = postings.get(term);
+      posting.clear(ord);
+      if (posting.isEmpty()) {
+        postings.remove(term);
+      }
+    }
+    suggester.remove(doc.title(), doc.createdAt());
+
+    docs.set(ord, null);
+    freeOrdinals.push(ord);
+  }
+
+  private int termCount() {
+    lock.readLock().lock();
+    try {
+      return postings.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static Doc toDoc(Listing listing) {
+    Set<String> terms = new HashSet<>(SearchTokenizer.tokenize(listing.getTitle()));
+    terms.addAll(SearchTokenizer.tokenize(listing.getDescription()));
+
+    return new Doc(
+        listing.getId(),
+        listing.getTitle(),
+        listing.getCategory(),
+        listing.getCondition(),
+        listing.getPrice(),
+        listing.getCreatedAt(),
+        terms
+    );
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.neumarket.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits listing text and search queries into normalized index terms.
+ * Lowercases, drops stop-words and applies a light suffix-stripping stemmer
+ * so "chairs", "chair" and "chairing" all land on the same posting list.
+ */
+public final class SearchTokenizer {
+
+  private static final Set<String> STOP_WORDS = Set.of(
+      "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from",
+      "has", "have", "i", "in", "is", "it", "its", "my", "of", "on", "or",
+      "our", "so", "that", "the", "this", "to", "was", "were", "will", "with", "you"
+  );
+
+  private SearchTokenizer() {
+  }
+
+  /**
+   * Tokenize text into stemmed, stop-word-free terms (duplicates kept, order preserved)
+   */
+  public static List<String> tokenize(String text) {
+    List<String> terms = new ArrayList<>();
+    for (String word : words(text)) {
+      if (!STOP_WORDS.contains(word)) {
+        terms.add(stem(word));
+      }
+    }
+    return terms;
+  }
+
+  /**
+   * Split text into lowercase alphanumeric words without stemming
+   */
+  public static List<String> words(String text) {
+    List<String> words = new ArrayList<>();
+    if (text == null || text.isBlank()) {
+      return words;
+    }
+
+    String lower = text.toLowerCase(Locale.ROOT);
+    int start = -1;
+    for (int i = 0; i <= lower.length(); i++) {
+      boolean alnum = i < lower.length() && isTermChar(lower.charAt(i));
+      if (alnum && start < 0) {
+        start = i;
+      } else if (!alnum && start >= 0) {
+        words.add(lower.substring(start, i));
+        start = -1;
+      }
+    }
+    return words;
+  }
+
+  public static boolean isStopWord(String word) {
+    return STOP_WORDS.contains(word);
+  }
+
+  /**
+   * Reduce an already-lowercased word to its stem
+   */
+  public static String stem(String word) {
+    if (word.length() <= 3 || !Character.isLetter(word.charAt(word.length() - 1))) {
+      return word;
+    }
+
+    String w = word;
+    if (w.endsWith("ies") && w.length() > 4) {
+      w = w.substring(0, w.length() - 3) + "y";
+    } else if (w.endsWith("sses") || w.endsWith("xes") || w.endsWith("ches") || w.endsWith("shes")) {
+      w = w.substring(0, w.length() - 2);
+    } else if (w.endsWith("s") && !w.endsWith("ss") && !w.endsWith("us")) {
+      w = w.substring(0, w.length() - 1);
+    }
+
+    if (w.endsWith("ing") && w.length() > 5) {
+      w = undouble(w.substring(0, w.length() - 3));
+    } else if (w.endsWith("ed") && w.length() > 4) {
+      w = undouble(w.substring(0, w.length() - 2));
+    } else if (w.endsWith("ly") && w.length() > 4) {
+      w = w.substring(0, w.length() - 2);
+    }
+
+    return w;
+  }
+
+  private static String undouble(String w) {
+    int n = w.length();
+    if (n >= 2 && w.charAt(n - 1) == w.charAt(n - 2) && "lsz".indexOf(w.charAt(n - 1)) < 0) {
+      return w.substring(0, n - 1);
+    }
+    return w;
+  }
+
+  private static boolean isTermChar(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+  }
+}
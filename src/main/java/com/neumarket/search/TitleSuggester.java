@@ -0,0 +1,152 @@
+package com.neumarket.search;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefix trie of the words in listing titles, for search-box completion.
+ *
+ * A word's weight sums its listings, newer ones counting more: a listing created at t adds
+ * 2^((t - epoch) / halfLife), so one a half-life older counts half as much. Time passing would
+ * scale every weight by the same factor, so rankings never need to be re-decayed.
+ *
+ * Each node keeps the best completions of its subtree, recomputed along the word's path on every
+ * change; a lookup is a walk down the prefix and a copy of that list.
+ *
+ * Not thread-safe: ListingSearchIndex updates and reads it under its lock.
+ */
+final class TitleSuggester {
+
+  static final int MAX_SUGGESTIONS = 10;
+
+  private static final int MIN_WORD_LENGTH = 2;
+  private static final double HALF_LIFE_SECONDS = Duration.ofDays(14).toSeconds();
+
+  private static final Comparator<Node> BEST_FIRST = Comparator.comparingDouble((Node node) -> node.weight)
+      .reversed()
+      .thenComparing(node -> node.word);
+
+  private final LocalDateTime epoch;
+  private final Node root = new Node(null, '\0');
+
+  private static final class Node {
+    final Node parent;
+    final char c;
+    final Map<Character, Node> children = new HashMap<>(4);
+    String word;      // Set while some listing's title contains the word ending here
+    int listings;
+    double weight;
+    List<Node> best = List.of();
+
+    Node(Node parent, char c) {
+      this.parent = parent;
+      this.c = c;
+    }
+  }
+
+  TitleSuggester(LocalDateTime epoch) {
+    this.epoch = epoch;
+  }
+
+  void add(String title, LocalDateTime createdAt) {
+    double weight = weight(createdAt);
+    for (String word : words(title)) {
+      Node node = root;
+      for (int i = 0; i < word.length(); i++) {
+        Node parent = node;
+        node = parent.children.computeIfAbsent(word.charAt(i), c -> new Node(parent, c));
+      }
+      node.word = word;
+      node.listings++;
+      node.weight += weight;
+      refresh(node);
+    }
+  }
+
+  void remove(String title, LocalDateTime createdAt) {
+    double weight = weight(createdAt);
+    for (String word : words(title)) {
+      Node node = find(word);
+      if (node == null || node.word == null) {
+        continue;
+      }
+      if (--node.listings > 0) {
+        node.weight -= weight;
+      } else {
+        node.word = null;
+        node.weight = 0;
+        // Drop the branch so the trie only holds words still in use
+        while (node.parent != null && node.word == null && node.children.isEmpty()) {
+          node.parent.children.remove(node.c);
+          node = node.parent;
+        }
+      }
+      refresh(node);
+    }
+  }
+
+  /**
+   * Best words starting with the prefix, at most MAX_SUGGESTIONS
+   */
+  List<String> complete(String prefix, int limit) {
+    Node node = find(prefix);
+    if (node == null) {
+      return List.of();
+    }
+    return node.best.stream()
+        .limit(Math.min(limit, MAX_SUGGESTIONS))
+        .map(best -> best.word)
+        .toList();
+  }
+
+  private Node find(String prefix) {
+    Node node = root;
+    for (int i = 0; i < prefix.length() && node != null; i++) {
+      node = node.children.get(prefix.charAt(i));
+    }
+    return node;
+  }
+
+  /**
+   * A subtree's best words are among its own word and its children's best, so only the
+   * nodes on the changed word's path need recomputing
+   */
+  private void refresh(Node node) {
+    for (Node n = node; n != null; n = n.parent) {
+      List<Node> candidates = new ArrayList<>();
+      if (n.word != null) {
+        candidates.add(n);
+      }
+      for (Node child : n.children.values()) {
+        candidates.addAll(child.best);
+      }
+      candidates.sort(BEST_FIRST);
+      n.best = List.copyOf(candidates.subList(0, Math.min(candidates.size(), MAX_SUGGESTIONS)));
+    }
+  }
+
+  private double weight(LocalDateTime createdAt) {
+    if (createdAt == null) {
+      return 1;
+    }
+    return Math.pow(2, Duration.between(epoch, createdAt).toSeconds() / HALF_LIFE_SECONDS);
+  }
+
+  // Title words as typed (not stemmed), each counted once per listing
+  private static Set<String> words(String title) {
+    Set<String> words = new LinkedHashSet<>();
+    for (String word : SearchTokenizer.words(title)) {
+      if (word.length() >= MIN_WORD_LENGTH && !SearchTokenizer.isStopWord(word)) {
+        words.add(word);
+      }
+    }
+    return words;
+  }
+}
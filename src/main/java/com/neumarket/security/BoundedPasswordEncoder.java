@@ -0,0 +1,133 @@
+package com.neumarket.security;
+
+import com.neumarket.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt on a dedicated, bounded pool instead of Tomcat request threads.
+ *
+ * At most one hash per core runs at a time and only queue-capacity more may wait;
+ * anything beyond that is rejected straight away with a 503 + Retry-After, so a login
+ * spike ties up a bounded number of request threads and browse traffic keeps flowing.
+ * Used everywhere a PasswordEncoder is injected, including the AuthenticationManager.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+  private final MeterRegistry meterRegistry;
+
+  private final PasswordEncoder delegate = new BCryptPasswordEncoder();
+
+  @Value("${app.auth.hashing.threads:0}")
+  private int threads;
+
+  @Value("${app.auth.hashing.queue-capacity:64}")
+  private int queueCapacity;
+
+  @Value("${app.auth.hashing.retry-after-seconds:2}")
+  private long retryAfterSeconds;
+
+  private ThreadPoolExecutor executor;
+  private Timer hashTimer;
+  private Timer waitTimer;
+  private Counter rejectedCounter;
+
+  @PostConstruct
+  public void init() {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadNumber = new AtomicInteger();
+
+    executor = new ThreadPoolExecutor(
+        poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        runnable -> {
+          Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+
+    hashTimer = Timer.builder("auth.password.hash")
+        .description("Time spent in BCrypt encode/matches")
+        .register(meterRegistry);
+    waitTimer = Timer.builder("auth.password.wait")
+        .description("Time a hash request waited in the queue")
+        .register(meterRegistry);
+    rejectedCounter = Counter.builder("auth.password.rejected")
+        .description("Hash requests rejected because the queue was full")
+        .register(meterRegistry);
+    Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size())
+        .description("Hash requests waiting for a thread")
+        .register(meterRegistry);
+    Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Hashes currently running")
+        .register(meterRegistry);
+
+    log.info("Password hashing pool: {} threads, queue capacity {}", poolSize, queueCapacity);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return run(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return run(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  private <T> T run(Callable<T> hash) {
+    long submittedAt = System.nanoTime();
+    Future<T> future;
+    try {
+      future = executor.submit(() -> {
+        waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+        return hashTimer.recordCallable(hash);
+      });
+    } catch (RejectedExecutionException ex) {
+      rejectedCounter.increment();
+      log.warn("Password hashing queue full ({} waiting), rejecting request", executor.getQueue().size());
+      throw new ServiceUnavailableException("Too many sign-in requests right now. Please try again shortly.",
+          retryAfterSeconds);
+    }
+
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ServiceUnavailableException("Sign-in was interrupted. Please try again.", retryAfterSeconds);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException("Password hashing failed", ex.getCause());
+    }
+  }
+}
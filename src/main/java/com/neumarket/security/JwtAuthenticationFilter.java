@@ -26,10 +26,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                   FilterChain filterChain) throws ServletException, IOException {
     String jwt = getJwtFromRequest(request);
 
-    if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-      // Reconstruct UserPrincipal from claims - NO DATABASE HIT
-      UserPrincipal userPrincipal = tokenProvider.getUserPrincipalFromToken(jwt);
+    // Verify once and reconstruct UserPrincipal from claims - NO DATABASE HIT
+    UserPrincipal userPrincipal = StringUtils.hasText(jwt) ? tokenProvider.authenticate(jwt) : null;
 
+    if (userPrincipal != null) {
       UsernamePasswordAuthenticationToken authentication =
           new UsernamePasswordAuthenticationToken(userPrincipal, null, userPrincipal.getAuthorities());
 
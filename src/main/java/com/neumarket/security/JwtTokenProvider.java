@@ -14,6 +14,8 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @Slf4j
@@ -25,11 +27,24 @@ public class JwtTokenProvider {
   @Value("${jwt.expiration}")
   private long jwtExpiration;
 
+  @Value("${jwt.cache-max-entries:10000}")
+  private int cacheMaxEntries;
+
   private SecretKey key;
 
+  // Immutable and thread-safe once built, so one instance serves every request
+  private JwtParser parser;
+
+  // Verified token -> principal, dropped at the token's own expiry
+  private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+  private record VerifiedToken(UserPrincipal principal, long expiresAtMillis) {
+  }
+
   @PostConstruct
   public void init() {
     this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    this.parser = Jwts.parser().verifyWith(key).build();
   }
 
   /**
@@ -57,15 +72,51 @@ public class JwtTokenProvider {
   }
 
   /**
-   * Reconstructs UserPrincipal from token claims - NO DATABASE HIT
+   * Single verification path: returns the principal for a valid token, or null if the
+   * token is malformed, tampered with or expired - NO DATABASE HIT.
+   * A token verified earlier is served from memory until it expires.
+   */
+  public UserPrincipal authenticate(String token) {
+    long now = System.currentTimeMillis();
+
+    VerifiedToken cached = verifiedTokens.get(token);
+    if (cached != null) {
+      if (now < cached.expiresAtMillis()) {
+        return cached.principal();
+      }
+      verifiedTokens.remove(token);
+      return null;
+    }
+
+    Claims claims;
+    try {
+      claims = parser.parseSignedClaims(token).getPayload();
+    } catch (JwtException | IllegalArgumentException ex) {
+      log.error("JWT validation failed: {}", ex.getMessage());
+      return null;
+    }
+
+    UserPrincipal principal = toPrincipal(claims);
+    remember(token, principal, claims.getExpiration(), now);
+    return principal;
+  }
+
+  /**
+   * Reconstructs UserPrincipal from token claims; throws JwtException if the token is invalid
    */
   public UserPrincipal getUserPrincipalFromToken(String token) {
-    Claims claims = Jwts.parser()
-        .verifyWith(key)
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
+    UserPrincipal principal = authenticate(token);
+    if (principal == null) {
+      throw new JwtException("Invalid JWT token");
+    }
+    return principal;
+  }
+
+  public boolean validateToken(String token) {
+    return authenticate(token) != null;
+  }
 
+  private UserPrincipal toPrincipal(Claims claims) {
     Role role = Role.valueOf(claims.get("role", String.class));
 
     return UserPrincipal.builder()
@@ -79,14 +130,19 @@ public class JwtTokenProvider {
         .build();
   }
 
-  public boolean validateToken(String token) {
-    try {
-      Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
-      return true;
-    } catch (JwtException | IllegalArgumentException ex) {
-      log.error("JWT validation failed: {}", ex.getMessage());
-      return false;
+  private void remember(String token, UserPrincipal principal, Date expiration, long now) {
+    if (cacheMaxEntries <= 0 || expiration == null) {
+      return;
+    }
+
+    if (verifiedTokens.size() >= cacheMaxEntries) {
+      // Drop expired entries first; if every slot is still live, start over rather than grow
+      verifiedTokens.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+      if (verifiedTokens.size() >= cacheMaxEntries) {
+        verifiedTokens.clear();
+      }
     }
+    verifiedTokens.put(token, new VerifiedToken(principal, expiration.getTime()));
   }
 
   public long getExpirationInSeconds() {
@@ -1,16 +1,19 @@
 package com.neumarket.security.oauth2;
 
 import com.neumarket.enums.Role;
+import com.neumarket.event.UserChangedEvent;
 import com.neumarket.model.User;
 import com.neumarket.repository.UserRepository;
 import com.neumarket.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -18,6 +21,7 @@ import java.util.Optional;
 public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 
   private final UserRepository userRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Override
   public OAuth2User loadUser(OAuth2UserRequest oAuth2UserRequest) throws OAuth2AuthenticationException {
@@ -42,9 +46,14 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
         );
       }
 
+      boolean profileChanged = !Objects.equals(name, user.getName()) || !Objects.equals(picture, user.getProfilePicUrl());
+      UserChangedEvent.Snapshot before = UserChangedEvent.Snapshot.of(user);
       user.setName(name);
       user.setProfilePicUrl(picture);
       userRepository.save(user);
+      if (profileChanged) {
+        eventPublisher.publishEvent(UserChangedEvent.updated(before, user));
+      }
     } else {
       user = User.builder()
           .email(email)
@@ -56,6 +65,7 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
           .blocked(false)
           .build();
       userRepository.save(user);
+      eventPublisher.publishEvent(UserChangedEvent.created(user));
     }
 
     return UserPrincipal.create(user, oAuth2User.getAttributes());
@@ -0,0 +1,266 @@
+package com.neumarket.service;
+
+import com.neumarket.dto.response.MetricSeriesResponse;
+import com.neumarket.enums.MetricSeries;
+import com.neumarket.enums.MetricStep;
+import com.neumarket.event.ListingChangedEvent;
+import com.neumarket.event.ListingSearchedEvent;
+import com.neumarket.event.MessageSentEvent;
+import com.neumarket.event.ReportChangedEvent;
+import com.neumarket.event.UserChangedEvent;
+import com.neumarket.exception.BadRequestException;
+import com.neumarket.model.MetricRollup;
+import com.neumarket.repository.MetricRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Time-bucketed activity counts (signups, listings, messages, reports, searches) for the admin dashboard.
+ *
+ * Events are counted in memory per minute and flushed once a minute. Each flush adds the
+ * closed minutes to their minute, hour and day rows in metric_rollups, so every step is
+ * ready to read without summing finer rows. Minute rows are kept for a couple of days and
+ * hour rows for a few months; day rows are kept for good. Range queries read only these
+ * rollups, plus the counts not flushed yet, and never the source tables.
+ *
+ * Counts of a flush that fails are put back and retried on the next one. Counts still in
+ * memory when the process dies are lost; the dashboard totals are the source of truth.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityMetricsService {
+
+  private static final int MAX_POINTS = 1500;
+
+  private final MetricRollupRepository metricRollupRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${app.metrics.minute-retention-hours:48}")
+  private int minuteRetentionHours;
+
+  @Value("${app.metrics.hour-retention-days:90}")
+  private int hourRetentionDays;
+
+  private record Bucket(MetricSeries series, MetricStep step, LocalDateTime start) {
+  }
+
+  // Minute buckets not flushed yet; merge/remove are atomic per key, so no increment is lost
+  private final Map<Bucket, Long> pending = new ConcurrentHashMap<>();
+
+  public void record(MetricSeries series) {
+    record(series, LocalDateTime.now());
+  }
+
+  void record(MetricSeries series, LocalDateTime at) {
+    pending.merge(new Bucket(series, MetricStep.MINUTE, MetricStep.MINUTE.bucketStart(at)), 1L, Long::sum);
+  }
+
+  // ==================== EVENTS ====================
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onUserChanged(UserChangedEvent event) {
+    if (event.before() == null) {
+      record(MetricSeries.SIGNUPS);
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onListingChanged(ListingChangedEvent event) {
+    if (event.before() == null && event.after() != null) {
+      record(MetricSeries.LISTINGS_CREATED);
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onMessageSent(MessageSentEvent event) {
+    record(MetricSeries.MESSAGES_SENT);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onReportChanged(ReportChangedEvent event) {
+    if (event.previousStatus() == null) {
+      record(MetricSeries.REPORTS_FILED);
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onListingSearched(ListingSearchedEvent event) {
+    record(MetricSeries.SEARCHES);
+  }
+
+  // ==================== ROLLUPS ====================
+
+  /**
+   * Write closed minutes to the rollup table
+   */
+  @Scheduled(fixedDelayString = "${app.metrics.flush-interval-ms:60000}")
+  public void flush() {
+    flush(MetricStep.MINUTE.bucketStart(LocalDateTime.now()));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    // Include the current, partial minute
+    flush(LocalDateTime.MAX);
+  }
+
+  private void flush(LocalDateTime before) {
+    Map<Bucket, Long> batch = new HashMap<>();
+    for (Bucket bucket : pending.keySet()) {
+      if (bucket.start().isBefore(before)) {
+        Long count = pending.remove(bucket);
+        if (count != null) {
+          batch.put(bucket, count);
+        }
+      }
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    // Fold minutes into their hour and day so each row is written once per flush
+    Map<Bucket, Long> increments = new HashMap<>();
+    batch.forEach((minute, count) -> {
+      for (MetricStep step : MetricStep.values()) {
+        increments.merge(new Bucket(minute.series(), step, step.bucketStart(minute.start())), count, Long::sum);
+      }
+    });
+
+    try {
+      transactionTemplate.executeWithoutResult(status -> increments.forEach(this::addToBucket));
+    } catch (RuntimeException e) {
+      // Rolled back as a whole, so nothing was counted; retry with the next flush
+      log.warn("Failed to flush {} metric buckets, will retry: {}", batch.size(), e.getMessage());
+      batch.forEach((bucket, count) -> pending.merge(bucket, count, Long::sum));
+    }
+  }
+
+  private void addToBucket(Bucket bucket, long delta) {
+    if (metricRollupRepository.addToBucket(bucket.series(), bucket.step(), bucket.start(), delta) == 0) {
+      metricRollupRepository.save(MetricRollup.builder()
+          .series(bucket.series())
+          .step(bucket.step())
+          .bucketStart(bucket.start())
+          .eventCount(delta)
+          .build());
+    }
+  }
+
+  /**
+   * Drop minute and hour rows past their retention; the coarser rows already hold their counts
+   * Runs every hour
+   */
+  @Scheduled(cron = "0 5 * * * ?") // 5 minutes past every hour
+  @Transactional
+  public void compact() {
+    LocalDateTime now = LocalDateTime.now();
+    int minutes = metricRollupRepository.deleteOlderThan(MetricStep.MINUTE, now.minusHours(minuteRetentionHours));
+    int hours = metricRollupRepository.deleteOlderThan(MetricStep.HOUR, now.minusDays(hourRetentionDays));
+
+    if (minutes > 0 || hours > 0) {
+      log.info("Metrics: Dropped {} minute and {} hour rollups past retention", minutes, hours);
+    }
+  }
+
+  // ==================== QUERIES ====================
+
+  /**
+   * Counts per bucket for each series. Defaults: all series, step HOUR, ending now,
+   * covering the last hour / day / 30 days for MINUTE / HOUR / DAY steps.
+   */
+  @Transactional(readOnly = true)
+  public List<MetricSeriesResponse> query(List<MetricSeries> series, LocalDateTime from, LocalDateTime to, MetricStep step) {
+    MetricStep resolvedStep = step != null ? step : MetricStep.HOUR;
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime end = to != null ? to : now;
+    LocalDateTime start = from != null ? from : switch (resolvedStep) {
+      case MINUTE -> end.minusHours(1);
+      case HOUR -> end.minusDays(1);
+      case DAY -> end.minusDays(30);
+    };
+    if (!start.isBefore(end)) {
+      throw new BadRequestException("'from' must be before 'to'");
+    }
+
+    // Whole buckets covering [start, end)
+    LocalDateTime first = resolvedStep.bucketStart(start);
+    LocalDateTime last = resolvedStep.bucketStart(end);
+    LocalDateTime endExclusive = last.isBefore(end) ? resolvedStep.next(last) : last;
+
+    List<LocalDateTime> bucketStarts = new ArrayList<>();
+    for (LocalDateTime bucket = first; bucket.isBefore(endExclusive); bucket = resolvedStep.next(bucket)) {
+      if (bucketStarts.size() == MAX_POINTS) {
+        throw new BadRequestException("Range has more than " + MAX_POINTS + " points; use a larger step");
+      }
+      bucketStarts.add(bucket);
+    }
+
+    LocalDateTime retainedFrom = switch (resolvedStep) {
+      case MINUTE -> now.minusHours(minuteRetentionHours);
+      case HOUR -> now.minusDays(hourRetentionDays);
+      case DAY -> null;
+    };
+    if (retainedFrom != null && first.isBefore(resolvedStep.bucketStart(retainedFrom))) {
+      throw new BadRequestException("Step " + resolvedStep + " is only kept back to " + retainedFrom
+          + "; use a larger step");
+    }
+
+    List<MetricSeries> requested = series != null && !series.isEmpty() ? series : Arrays.asList(MetricSeries.values());
+    return requested.stream()
+        .distinct()
+        .map(s -> buildSeries(s, resolvedStep, bucketStarts, first, endExclusive))
+        .toList();
+  }
+
+  private MetricSeriesResponse buildSeries(MetricSeries series, MetricStep step, List<LocalDateTime> bucketStarts,
+                                           LocalDateTime from, LocalDateTime to) {
+    Map<LocalDateTime, Long> counts = new HashMap<>();
+    for (MetricRollup rollup : metricRollupRepository.findRange(series, step, from, to)) {
+      counts.put(rollup.getBucketStart(), rollup.getEventCount());
+    }
+
+    // Events from the last minute or so are still in memory
+    pending.forEach((bucket, count) -> {
+      if (bucket.series() == series) {
+        LocalDateTime start = step.bucketStart(bucket.start());
+        if (!start.isBefore(from) && start.isBefore(to)) {
+          counts.merge(start, count, Long::sum);
+        }
+      }
+    });
+
+    long total = 0;
+    List<MetricSeriesResponse.Point> points = new ArrayList<>(bucketStarts.size());
+    for (LocalDateTime bucketStart : bucketStarts) {
+      long count = counts.getOrDefault(bucketStart, 0L);
+      total += count;
+      points.add(new MetricSeriesResponse.Point(bucketStart, count));
+    }
+
+    return MetricSeriesResponse.builder()
+        .series(series)
+        .step(step)
+        .from(from)
+        .to(to)
+        .total(total)
+        .points(points)
+        .build();
+  }
+}
@@ -2,19 +2,28 @@ package com.neumarket.service;
 
 import com.neumarket.dto.request.BlockUserRequest;
 import com.neumarket.dto.request.ReviewReportRequest;
+import com.neumarket.dto.projection.ConversationSummaryView;
+import com.neumarket.dto.projection.ListingSummaryView;
 import com.neumarket.dto.response.*;
 import com.neumarket.enums.ListingStatus;
+import com.neumarket.enums.MetricSeries;
+import com.neumarket.enums.MetricStep;
 import com.neumarket.enums.ReportStatus;
 import com.neumarket.enums.ReportType;
 import com.neumarket.enums.Role;
+import com.neumarket.event.ListingChangedEvent;
+import com.neumarket.event.ReportChangedEvent;
+import com.neumarket.event.UserChangedEvent;
 import com.neumarket.exception.BadRequestException;
 import com.neumarket.exception.ResourceNotFoundException;
 import com.neumarket.model.Listing;
 import com.neumarket.model.Report;
 import com.neumarket.model.User;
 import com.neumarket.repository.*;
+import com.neumarket.search.ListingSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -22,11 +31,8 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -37,8 +43,12 @@ public class AdminService {
   private final ListingRepository listingRepository;
   private final ReportRepository reportRepository;
   private final ConversationRepository conversationRepository;
-  private final MessageRepository messageRepository;
   private final MessageService messageService;
+  private final ListingSearchIndex searchIndex;
+  private final BlobGarbageCollectionService blobGarbageCollectionService;
+  private final DashboardStatsService dashboardStatsService;
+  private final ActivityMetricsService activityMetricsService;
+  private final ApplicationEventPublisher eventPublisher;
 
   // ==================== USER MANAGEMENT ====================
 
@@ -67,7 +77,7 @@ public class AdminService {
         .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
     int listingsCount = listingRepository.findByUserIdAndStatusNot(userId, ListingStatus.DELETED).size();
-    int conversationsCount = conversationRepository.findByUserIdOrderByUpdatedAtDesc(userId).size();
+    int conversationsCount = (int) conversationRepository.countByParticipantId(userId);
 
     return AdminUserResponse.fromEntity(user, listingsCount, conversationsCount);
   }
@@ -85,11 +95,13 @@ public class AdminService {
       throw new BadRequestException("User is already blocked");
     }
 
+    UserChangedEvent.Snapshot before = UserChangedEvent.Snapshot.of(user);
     user.setBlocked(true);
     user.setBlockReason(request.getReason());
     user.setBlockedAt(LocalDateTime.now());
 
     User saved = userRepository.save(user);
+    eventPublisher.publishEvent(UserChangedEvent.updated(before, saved));
     log.info("User {} blocked by admin {} for: {}", userId, adminId, request.getReason());
 
     return AdminUserResponse.fromEntity(saved);
@@ -104,11 +116,13 @@ public class AdminService {
       throw new BadRequestException("User is not blocked");
     }
 
+    UserChangedEvent.Snapshot before = UserChangedEvent.Snapshot.of(user);
     user.setBlocked(false);
     user.setBlockReason(null);
     user.setBlockedAt(null);
 
     User saved = userRepository.save(user);
+    eventPublisher.publishEvent(UserChangedEvent.updated(before, saved));
     log.info("User {} unblocked by admin {}", userId, adminId);
 
     return AdminUserResponse.fromEntity(saved);
@@ -160,18 +174,17 @@ public class AdminService {
   public PagedResponse<ListingSummaryResponse> getAllListings(ListingStatus status, String search, int page, int size) {
     Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
 
-    Page<Listing> listingPage;
+    Page<ListingSummaryView> listingPage;
     if (search != null && !search.isBlank()) {
       listingPage = listingRepository.searchListings(search.trim(), pageable);
     } else if (status != null) {
       listingPage = listingRepository.findByStatus(status, pageable);
     } else {
-      // FIX: Use standard findAll(pageable) instead of findAllByOrderByCreatedAtDesc
-      listingPage = listingRepository.findAll(pageable);
+      listingPage = listingRepository.findAllSummaries(pageable);
     }
 
     List<ListingSummaryResponse> content = listingPage.getContent().stream()
-        .map(listing -> ListingSummaryResponse.fromEntity(listing, false))
+        .map(listing -> ListingSummaryResponse.fromView(listing, false))
         .toList();
 
     return PagedResponse.from(listingPage, content);
@@ -182,8 +195,11 @@ public class AdminService {
     Listing listing = listingRepository.findById(listingId)
         .orElseThrow(() -> new ResourceNotFoundException("Listing", "id", listingId));
 
+    ListingChangedEvent.Snapshot before = ListingChangedEvent.Snapshot.of(listing);
     listing.setStatus(ListingStatus.DELETED);
     listingRepository.save(listing);
+    searchIndex.remove(listingId);
+    eventPublisher.publishEvent(ListingChangedEvent.updated(before, listing));
     log.info("Listing {} deleted by admin {}", listingId, adminId);
   }
 
@@ -227,12 +243,15 @@ public class AdminService {
     User admin = userRepository.findById(adminId)
         .orElseThrow(() -> new ResourceNotFoundException("User", "id", adminId));
 
+    ReportStatus previousStatus = report.getStatus();
     report.setStatus(request.getStatus());
     report.setAdminNotes(request.getAdminNotes());
     report.setReviewedBy(admin);
     report.setReviewedAt(LocalDateTime.now());
 
     Report saved = reportRepository.save(report);
+    eventPublisher.publishEvent(new ReportChangedEvent(
+        saved.getId(), previousStatus, saved.getStatus(), saved.getCreatedAt()));
     log.info("Report {} reviewed by admin {} with status {}", reportId, adminId, request.getStatus());
 
     return ReportResponse.fromEntity(saved);
@@ -242,76 +261,38 @@ public class AdminService {
 
   @Transactional(readOnly = true)
   public PagedResponse<ConversationResponse> getAllConversations(int page, int size) {
-    Pageable pageable = PageRequest.of(page, size, Sort.by("updatedAt").descending());
-    Page<com.neumarket.model.Conversation> convPage = conversationRepository.findAll(pageable);
+    // Ordered by updatedAt in the query itself
+    Pageable pageable = PageRequest.of(page, size);
+    Page<ConversationSummaryView> convPage = conversationRepository.findAllInbox(pageable);
 
     List<ConversationResponse> content = convPage.getContent().stream()
-        .map(conv -> ConversationResponse.fromEntity(conv, conv.getSeller().getId(), 0))
+        .map(view -> ConversationResponse.fromView(view, view.getSellerId()))
         .toList();
 
     return PagedResponse.from(convPage, content);
   }
 
   @Transactional(readOnly = true)
-  public List<ChatMessageResponse> getConversationMessages(Long conversationId) {
-    return messageService.getMessagesForAdmin(conversationId);
+  public CursorPagedResponse<ChatMessageResponse> getConversationMessages(Long conversationId, Long beforeId, int limit) {
+    return messageService.getMessagesForAdmin(conversationId, beforeId, limit);
+  }
+
+  // ==================== STORAGE ====================
+
+  public BlobGcReport collectOrphanedBlobs(boolean dryRun) {
+    BlobGcReport report = blobGarbageCollectionService.collect(dryRun);
+    log.info("Admin blob GC (dryRun={}): {} orphaned, {} queued", dryRun, report.getOrphaned(), report.getQueued());
+    return report;
   }
 
   // ==================== DASHBOARD STATS ====================
 
-  @Transactional(readOnly = true)
   public DashboardStatsResponse getDashboardStats() {
-    LocalDateTime now = LocalDateTime.now();
-    LocalDateTime startOfToday = now.toLocalDate().atStartOfDay();
-    LocalDateTime startOfWeek = now.minusDays(7);
-    LocalDateTime startOfMonth = now.minusDays(30);
-
-    long totalUsers = userRepository.count();
-    long verifiedUsers = userRepository.countByEmailVerifiedTrue();
-    long blockedUsers = userRepository.countByBlockedTrue();
-    long newUsersToday = userRepository.countNewUsersSince(startOfToday);
-    long newUsersThisWeek = userRepository.countNewUsersSince(startOfWeek);
-    long newUsersThisMonth = userRepository.countNewUsersSince(startOfMonth);
-
-    long totalListings = listingRepository.count();
-    long activeListings = listingRepository.countByStatus(ListingStatus.ACTIVE);
-    long soldListings = listingRepository.countByStatus(ListingStatus.SOLD);
-    long newListingsToday = listingRepository.countNewListingsSince(startOfToday);
-    long newListingsThisWeek = listingRepository.countNewListingsSince(startOfWeek);
-    BigDecimal averagePrice = listingRepository.getAveragePrice();
-
-    Map<String, Long> listingsByCategory = new HashMap<>();
-    listingRepository.countByCategory().forEach(row -> {
-      listingsByCategory.put(row[0].toString(), (Long) row[1]);
-    });
-
-    long totalReports = reportRepository.count();
-    long pendingReports = reportRepository.countByStatus(ReportStatus.PENDING);
-    long resolvedReports = reportRepository.countByStatus(ReportStatus.ACTION_TAKEN)
-        + reportRepository.countByStatus(ReportStatus.DISMISSED);
-
-    long totalConversations = conversationRepository.count();
-    long totalMessages = messageRepository.count();
-
-    return DashboardStatsResponse.builder()
-        .totalUsers(totalUsers)
-        .verifiedUsers(verifiedUsers)
-        .blockedUsers(blockedUsers)
-        .newUsersToday(newUsersToday)
-        .newUsersThisWeek(newUsersThisWeek)
-        .newUsersThisMonth(newUsersThisMonth)
-        .totalListings(totalListings)
-        .activeListings(activeListings)
-        .soldListings(soldListings)
-        .newListingsToday(newListingsToday)
-        .newListingsThisWeek(newListingsThisWeek)
-        .averageListingPrice(averagePrice != null ? averagePrice : BigDecimal.ZERO)
-        .listingsByCategory(listingsByCategory)
-        .totalReports(totalReports)
-        .pendingReports(pendingReports)
-        .resolvedReports(resolvedReports)
-        .totalConversations(totalConversations)
-        .totalMessages(totalMessages)
-        .build();
+    return dashboardStatsService.getDashboardStats();
+  }
+
+  public List<MetricSeriesResponse> getActivityMetrics(List<MetricSeries> series, LocalDateTime from,
+                                                       LocalDateTime to, MetricStep step) {
+    return activityMetricsService.query(series, from, to, step);
   }
-}
\ No newline at end of file
+}
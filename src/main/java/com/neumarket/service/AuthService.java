@@ -3,6 +3,7 @@ package com.neumarket.service;
 import com.neumarket.enums.Role;
 import com.neumarket.dto.request.*;
 import com.neumarket.dto.response.AuthResponse;
+import com.neumarket.event.UserChangedEvent;
 import com.neumarket.exception.BadRequestException;
 import com.neumarket.exception.ResourceNotFoundException;
 import com.neumarket.exception.UnauthorizedException;
@@ -14,6 +15,7 @@ import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -35,6 +37,7 @@ public class AuthService {
   private final JwtTokenProvider tokenProvider;
   private final AuthenticationManager authenticationManager;
   private final EmailService emailService;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Value("${app.verification-code-expiry-minutes}")
   private int verificationCodeExpiryMinutes;
@@ -84,6 +87,7 @@ public class AuthService {
         .build();
 
     userRepository.save(user);
+    eventPublisher.publishEvent(UserChangedEvent.created(user));
     emailService.sendVerificationEmail(email, verificationCode);
     log.info("New user registered: {}", email);
   }
@@ -104,10 +108,12 @@ public class AuthService {
       throw new BadRequestException("Verification code expired");
     }
 
+    UserChangedEvent.Snapshot before = UserChangedEvent.Snapshot.of(user);
     user.setEmailVerified(true);
     user.setVerificationCode(null);
     user.setVerificationCodeExpiry(null);
     userRepository.save(user);
+    eventPublisher.publishEvent(UserChangedEvent.updated(before, user));
 
     String token = tokenProvider.generateToken(UserPrincipal.create(user));
     return buildAuthResponse(user, token);
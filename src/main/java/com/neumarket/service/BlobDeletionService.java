@@ -0,0 +1,130 @@
+package com.neumarket.service;
+
+import com.neumarket.model.BlobDeletion;
+import com.neumarket.repository.BlobDeletionRepository;
+import com.neumarket.storage.BlobStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Durable queue of blobs to delete from storage.
+ *
+ * Callers enqueue in their own transaction, so a delete is recorded exactly when the
+ * rows that referenced the blob are gone, and the request never waits on storage.
+ * A background worker drains due entries in batches; failures are retried with
+ * exponential backoff.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BlobDeletionService {
+
+  private static final int MAX_ERROR_LENGTH = 500;
+
+  private final BlobDeletionRepository blobDeletionRepository;
+  private final BlobStore blobStore;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${app.storage.deletion.batch-size:100}")
+  private int batchSize;
+
+  @Value("${app.storage.deletion.retry-base-seconds:60}")
+  private long retryBaseSeconds;
+
+  @Value("${app.storage.deletion.retry-max-seconds:21600}")
+  private long retryMaxSeconds;
+
+  /**
+   * Queue blobs for deletion; joins the caller's transaction
+   */
+  @Transactional
+  public void enqueue(Collection<String> blobNames) {
+    List<BlobDeletion> deletions = blobNames.stream()
+        .filter(Objects::nonNull)
+        .distinct()
+        .map(name -> BlobDeletion.builder().blobName(name).build())
+        .toList();
+    blobDeletionRepository.saveAll(deletions);
+  }
+
+  /**
+   * Queue the blobs behind public URLs; URLs this store doesn't serve are skipped
+   */
+  @Transactional
+  public void enqueueUrls(Collection<String> urls) {
+    enqueue(urls.stream()
+        .filter(Objects::nonNull)
+        .map(blobStore::nameFromUrl)
+        .toList());
+  }
+
+  /**
+   * Delete due blobs until the queue has nothing due.
+   * Storage calls run outside any transaction; only the bookkeeping is transactional.
+   */
+  @Scheduled(fixedDelayString = "${app.storage.deletion.poll-interval-ms:30000}")
+  public void drain() {
+    int deleted = 0;
+    int failed = 0;
+    List<BlobDeletion> batch;
+    do {
+      LocalDateTime now = LocalDateTime.now();
+      batch = blobDeletionRepository.findDue(now, PageRequest.of(0, batchSize));
+
+      List<Long> done = new ArrayList<>(batch.size());
+      List<BlobDeletion> failures = new ArrayList<>();
+      List<String> errors = new ArrayList<>();
+      for (BlobDeletion deletion : batch) {
+        try {
+          blobStore.delete(deletion.getBlobName());
+          done.add(deletion.getId());
+        } catch (Exception e) {
+          failures.add(deletion);
+          errors.add(String.valueOf(e.getMessage()));
+        }
+      }
+
+      transactionTemplate.executeWithoutResult(status -> {
+        blobDeletionRepository.deleteAllByIdInBatch(done);
+        for (int i = 0; i < failures.size(); i++) {
+          BlobDeletion deletion = failures.get(i);
+          blobDeletionRepository.recordFailure(deletion.getId(),
+              now.plus(backoff(deletion.getAttempts() + 1)), truncate(errors.get(i)));
+        }
+      });
+
+      deleted += done.size();
+      failed += failures.size();
+      // A batch with failures is retried later; don't spin on it now
+    } while (batch.size() == batchSize && failed == 0);
+
+    if (deleted > 0 || failed > 0) {
+      log.info("Blob deletion: {} deleted, {} failed and rescheduled", deleted, failed);
+    }
+  }
+
+  /**
+   * Delay before the given attempt: base * 2^(attempt - 1), capped
+   */
+  Duration backoff(int attempt) {
+    long seconds = retryBaseSeconds << Math.min(attempt - 1, 30);
+    return Duration.ofSeconds(Math.min(seconds, retryMaxSeconds));
+  }
+
+  private static String truncate(String error) {
+    return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+  }
+}
@@ -0,0 +1,198 @@
+package com.neumarket.service;
+
+import com.neumarket.dto.response.BlobGcReport;
+import com.neumarket.exception.ServiceUnavailableException;
+import com.neumarket.repository.BlobDeletionRepository;
+import com.neumarket.repository.ListingImageRepository;
+import com.neumarket.repository.StoredBlobRepository;
+import com.neumarket.storage.BlobStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mark-and-sweep collection of blobs no database row references.
+ *
+ * Uploads are written before their rows commit, so failed requests (and anything the
+ * purge missed) can leave blobs behind. This walks the storage listing page by page,
+ * checks each page's names against stored_blobs and listing_images in one query per
+ * table, and hands orphans to the deletion queue. Blobs younger than the grace period
+ * are left alone, as their rows may simply not have committed yet.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BlobGarbageCollectionService {
+
+  private static final int SAMPLE_SIZE = 100;
+
+  private final BlobStore blobStore;
+  private final StoredBlobRepository storedBlobRepository;
+  private final ListingImageRepository listingImageRepository;
+  private final BlobDeletionRepository blobDeletionRepository;
+  private final BlobDeletionService blobDeletionService;
+
+  @Value("${app.storage.gc.grace-hours:24}")
+  private long graceHours;
+
+  @Value("${app.storage.gc.page-size:500}")
+  private int pageSize;
+
+  // Pause between pages so a sweep doesn't compete with user traffic
+  @Value("${app.storage.gc.page-pause-ms:200}")
+  private long pagePauseMs;
+
+  @Value("${app.storage.gc.max-deletions-per-run:10000}")
+  private int maxDeletionsPerRun;
+
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  /**
+   * Nightly sweep
+   * Runs daily at 4 AM
+   */
+  @Scheduled(cron = "${app.storage.gc.cron:0 0 4 * * ?}")
+  public void scheduledCollect() {
+    if (running.get()) {
+      return;
+    }
+    BlobGcReport report = collect(false);
+    log.info("Blob GC: scanned {}, {} orphaned ({} bytes), {} queued for deletion",
+        report.getScanned(), report.getOrphaned(), report.getOrphanedBytes(), report.getQueued());
+  }
+
+  /**
+   * Sweep storage once; a dry run only reports what would be deleted
+   */
+  public BlobGcReport collect(boolean dryRun) {
+    if (!running.compareAndSet(false, true)) {
+      throw new ServiceUnavailableException("Blob garbage collection is already running", 60);
+    }
+    try {
+      return sweep(dryRun);
+    } finally {
+      running.set(false);
+    }
+  }
+
+  private BlobGcReport sweep(boolean dryRun) {
+    BlobGcReport report = BlobGcReport.builder()
+        .dryRun(dryRun)
+        .startedAt(LocalDateTime.now())
+        .sample(new ArrayList<>())
+        .build();
+    Instant cutoff = Instant.now().minus(Duration.ofHours(graceHours));
+
+    String continuationToken = null;
+    boolean completed = false;
+    try {
+      while (true) {
+        BlobStore.BlobPage page = blobStore.list(continuationToken, pageSize);
+        sweepPage(page.blobs(), cutoff, dryRun, report);
+
+        continuationToken = page.continuationToken();
+        if (continuationToken == null) {
+          completed = true;
+          break;
+        }
+        if (!dryRun && report.getQueued() >= maxDeletionsPerRun) {
+          log.warn("Blob GC stopped after queueing {} deletions; the rest waits for the next run", report.getQueued());
+          break;
+        }
+        Thread.sleep(pagePauseMs);
+      }
+    } catch (IOException e) {
+      log.error("Blob GC could not list storage", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    report.setCompleted(completed);
+    report.setFinishedAt(LocalDateTime.now());
+    return report;
+  }
+
+  private void sweepPage(List<BlobStore.BlobInfo> blobs, Instant cutoff, boolean dryRun, BlobGcReport report) {
+    report.setScanned(report.getScanned() + blobs.size());
+    if (blobs.isEmpty()) {
+      return;
+    }
+
+    Set<String> referenced = referencedNames(blobs);
+    List<BlobStore.BlobInfo> unreferenced = blobs.stream()
+        .filter(blob -> !referenced.contains(blob.name()))
+        .toList();
+    report.setReferenced(report.getReferenced() + blobs.size() - unreferenced.size());
+    if (unreferenced.isEmpty()) {
+      return;
+    }
+
+    Set<String> queued = new HashSet<>(blobDeletionRepository.findQueuedNames(
+        unreferenced.stream().map(BlobStore.BlobInfo::name).toList()));
+
+    List<String> orphans = new ArrayList<>();
+    for (BlobStore.BlobInfo blob : unreferenced) {
+      if (queued.contains(blob.name())) {
+        report.setAlreadyQueued(report.getAlreadyQueued() + 1);
+      } else if (blob.lastModified().isAfter(cutoff)) {
+        report.setTooRecent(report.getTooRecent() + 1);
+      } else {
+        orphans.add(blob.name());
+        report.setOrphaned(report.getOrphaned() + 1);
+        report.setOrphanedBytes(report.getOrphanedBytes() + blob.size());
+        if (report.getSample().size() < SAMPLE_SIZE) {
+          report.getSample().add(blob.name());
+        }
+      }
+    }
+
+    if (!dryRun && !orphans.isEmpty()) {
+      int room = (int) Math.max(0, maxDeletionsPerRun - report.getQueued());
+      List<String> toQueue = orphans.subList(0, Math.min(room, orphans.size()));
+      blobDeletionService.enqueue(toQueue);
+      report.setQueued(report.getQueued() + toQueue.size());
+    }
+  }
+
+  /**
+   * Names on this page that a stored blob or listing image still points at
+   */
+  private Set<String> referencedNames(List<BlobStore.BlobInfo> blobs) {
+    Map<String, String> nameByUrl = new HashMap<>();
+    for (BlobStore.BlobInfo blob : blobs) {
+      nameByUrl.put(blobStore.urlFor(blob.name()), blob.name());
+    }
+    Set<String> names = new HashSet<>(nameByUrl.values());
+
+    Set<String> referenced = new HashSet<>();
+    for (Object[] row : storedBlobRepository.findReferencing(names, nameByUrl.keySet())) {
+      if (names.contains((String) row[0])) {
+        referenced.add((String) row[0]);
+      }
+      addIfPresent(referenced, nameByUrl, row[1]);
+      addIfPresent(referenced, nameByUrl, row[2]);
+    }
+    for (Object[] row : listingImageRepository.findReferencing(nameByUrl.keySet())) {
+      for (Object url : row) {
+        addIfPresent(referenced, nameByUrl, url);
+      }
+    }
+    return referenced;
+  }
+
+  private static void addIfPresent(Set<String> referenced, Map<String, String> nameByUrl, Object url) {
+    String name = url == null ? null : nameByUrl.get((String) url);
+    if (name != null) {
+      referenced.add(name);
+    }
+  }
+}
@@ -0,0 +1,266 @@
+package com.neumarket.service;
+
+import com.neumarket.event.MessageSentEvent;
+import com.neumarket.event.MessagesReadEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes chat activity to connected clients over Server-Sent Events.
+ *
+ * Each open stream is an async-servlet SseEmitter, so an idle connection holds no
+ * request thread - just the emitter in this registry. Events are sent after the
+ * publishing transaction commits.
+ *
+ * Nothing writes to a client on the publishing thread: each stream has a small queue of
+ * pending events that a bounded pool of sender threads drains in order, one sender per stream
+ * at a time. A stream whose queue is full (the client is reading slower than events arrive),
+ * or that can't get a sender because the pool is saturated, is completed and dropped; the
+ * client reconnects and gets the current unread count.
+ *
+ * Event names: "message" (new message), "read" (the other side read your messages),
+ * "unread" (your total unread count changed).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatStreamService {
+
+  private static final long STREAM_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+  private static final int MAX_STREAMS_PER_USER = 5;
+
+  private final UnreadCounterService unreadCounterService;
+
+  @Value("${app.chat.send-threads:4}")
+  private int sendThreads;
+
+  @Value("${app.chat.send-queue-capacity:1000}")
+  private int sendQueueCapacity;
+
+  @Value("${app.chat.max-pending-events:32}")
+  private int maxPendingEvents;
+
+  private final Map<Long, Set<Stream>> subscribers = new ConcurrentHashMap<>();
+
+  private Executor sendExecutor;
+
+  @PostConstruct
+  public void init() {
+    sendExecutor = newSendExecutor();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (sendExecutor instanceof ThreadPoolExecutor pool) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Open a stream for a user; the client reconnects when it times out
+   */
+  public SseEmitter subscribe(Long userId) {
+    SseEmitter emitter = newEmitter();
+    Stream stream = new Stream(userId, emitter);
+
+    // Add inside compute so a concurrent unsubscribe cannot drop the set we are adding to
+    subscribers.compute(userId, (id, streams) -> {
+      Set<Stream> current = streams != null ? streams : new CopyOnWriteArraySet<>();
+      // Cap tabs per user so a reconnect loop cannot pile up emitters
+      if (current.size() >= MAX_STREAMS_PER_USER) {
+        Stream oldest = current.iterator().next();
+        current.remove(oldest);
+        oldest.close();
+      }
+      current.add(stream);
+      return current;
+    });
+
+    emitter.onCompletion(() -> unsubscribe(stream));
+    emitter.onTimeout(() -> unsubscribe(stream));
+    emitter.onError(e -> unsubscribe(stream));
+
+    // Initial state so the badge is correct without a separate poll
+    send(stream, SseEmitter.event().name("unread")
+        .data(Map.of("totalUnread", unreadCounterService.getTotalUnread(userId))));
+    return emitter;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onMessageSent(MessageSentEvent event) {
+    publish(event.senderId(), "message", event.senderView());
+
+    if (isConnected(event.recipientId())) {
+      publish(event.recipientId(), "message", event.recipientView());
+      publishUnreadCount(event.recipientId());
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onMessagesRead(MessagesReadEvent event) {
+    publish(event.senderId(), "read", Map.of(
+        "conversationId", event.conversationId(),
+        "readerId", event.readerId()));
+
+    if (isConnected(event.readerId())) {
+      publishUnreadCount(event.readerId());
+    }
+  }
+
+  /**
+   * Comment-only heartbeat keeps proxies from closing idle streams and flushes out dead ones
+   */
+  @Scheduled(fixedRate = 25000)
+  public void heartbeat() {
+    subscribers.values().forEach(streams ->
+        streams.forEach(stream -> send(stream, SseEmitter.event().comment("ping"))));
+  }
+
+  // Package-private so tests can watch what each stream is sent
+  SseEmitter newEmitter() {
+    return new SseEmitter(STREAM_TIMEOUT_MS);
+  }
+
+  // Package-private so tests can run sends inline or hold them back
+  Executor newSendExecutor() {
+    AtomicInteger threadNumber = new AtomicInteger();
+    return new ThreadPoolExecutor(
+        sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(sendQueueCapacity),
+        runnable -> {
+          Thread thread = new Thread(runnable, "chat-stream-send-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  private boolean isConnected(Long userId) {
+    return subscribers.containsKey(userId);
+  }
+
+  private void publishUnreadCount(Long userId) {
+    publish(userId, "unread", Map.of("totalUnread", unreadCounterService.getTotalUnread(userId)));
+  }
+
+  private void publish(Long userId, String eventName, Object payload) {
+    Set<Stream> streams = subscribers.get(userId);
+    if (streams == null) {
+      return;
+    }
+    streams.forEach(stream -> send(stream, SseEmitter.event().name(eventName).data(payload)));
+  }
+
+  /**
+   * Queue an event for the stream, dropping the stream if it has fallen behind
+   */
+  private void send(Stream stream, SseEmitter.SseEventBuilder event) {
+    if (!stream.offer(event)) {
+      log.debug("Dropping chat stream for user {}: too far behind", stream.userId);
+      unsubscribe(stream);
+      stream.close();
+    }
+  }
+
+  private void unsubscribe(Stream stream) {
+    subscribers.computeIfPresent(stream.userId, (id, streams) -> {
+      streams.remove(stream);
+      return streams.isEmpty() ? null : streams;
+    });
+  }
+
+  /**
+   * One open emitter and the events waiting to be written to it. At most one sender drains it
+   * at a time (draining is set while a drain is queued or running), so events keep their order.
+   */
+  private final class Stream {
+
+    private final Long userId;
+    private final SseEmitter emitter;
+    private final Queue<SseEmitter.SseEventBuilder> pending = new ArrayBlockingQueue<>(maxPendingEvents);
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+
+    private Stream(Long userId, SseEmitter emitter) {
+      this.userId = userId;
+      this.emitter = emitter;
+    }
+
+    /**
+     * False if the stream is closed, its queue is full or no sender would take it
+     */
+    boolean offer(SseEmitter.SseEventBuilder event) {
+      if (closed || !pending.offer(event)) {
+        return false;
+      }
+      if (draining.compareAndSet(false, true)) {
+        try {
+          sendExecutor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+          draining.set(false);
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Stop sending and complete the emitter; a running drain completes it once its current write returns
+     */
+    void close() {
+      closed = true;
+      pending.clear();
+      if (draining.compareAndSet(false, true)) {
+        emitter.complete();
+      }
+    }
+
+    private void drain() {
+      while (true) {
+        SseEmitter.SseEventBuilder event;
+        while (!closed && (event = pending.poll()) != null) {
+          try {
+            emitter.send(event);
+          } catch (IOException | IllegalStateException e) {
+            // The container reports the failure through onError; leave draining set so nothing more is sent
+            log.debug("Dropping chat stream for user {}: {}", userId, e.getMessage());
+            closed = true;
+            unsubscribe(this);
+            return;
+          }
+        }
+        if (closed) {
+          emitter.complete();
+          return;
+        }
+        draining.set(false);
+        // An event or close that arrived after the last poll found draining still set
+        if ((pending.isEmpty() && !closed) || !draining.compareAndSet(false, true)) {
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.neumarket.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Schedules for the CleanupService jobs. Every node ticks, but each job (or expiry shard)
+ * only runs on the node that holds its lease; see JobLeaseService.
+ *
+ * Each job keeps its lease for most of its interval (atLeastFor) so nodes on slightly
+ * different schedules skip the tick, and at most atMostFor if a node dies mid-run.
+ */
+@Component
+@RequiredArgsConstructor
+public class CleanupScheduler {
+
+  private final CleanupService cleanupService;
+  private final JobLeaseService jobLeaseService;
+
+  @Value("${app.cleanup.expiry-shards:1}")
+  private int expiryShards;
+
+  @Scheduled(fixedRate = 1800000) // 30 minutes in milliseconds
+  public void cleanupUnverifiedUsers() {
+    jobLeaseService.runExclusively("cleanupUnverifiedUsers",
+        Duration.ofMinutes(25), Duration.ofMinutes(20), cleanupService::cleanupUnverifiedUsers);
+  }
+
+  @Scheduled(fixedRate = 3600000) // 1 hour in milliseconds
+  public void cleanupExpiredCodes() {
+    jobLeaseService.runExclusively("cleanupExpiredCodes",
+        Duration.ofMinutes(50), Duration.ofMinutes(45), cleanupService::cleanupExpiredCodes);
+  }
+
+  @Scheduled(fixedDelayString = "${app.cleanup.expiry-interval-ms:60000}")
+  public void cleanupExpiredListings() {
+    jobLeaseService.runSharded("cleanupExpiredListings", expiryShards,
+        Duration.ofMinutes(5), Duration.ofSeconds(45),
+        shard -> cleanupService.cleanupExpiredListings(shard, expiryShards));
+  }
+
+  @Scheduled(cron = "0 0 0 1 * ?") // 3:00 AM every day
+  public void purgeDeletedListings() {
+    jobLeaseService.runExclusively("purgeDeletedListings",
+        Duration.ofHours(2), Duration.ofMinutes(30), cleanupService::purgeDeletedListings);
+  }
+}
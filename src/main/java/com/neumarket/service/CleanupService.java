@@ -1,16 +1,28 @@
 package com.neumarket.service;
 
+import com.neumarket.enums.Category;
 import com.neumarket.enums.ListingStatus;
+import com.neumarket.event.BulkDataChangedEvent;
+import com.neumarket.event.ListingChangedEvent;
+import com.neumarket.model.ListingImage;
+import com.neumarket.repository.ListingImageRepository;
 import com.neumarket.repository.ListingRepository;
 import com.neumarket.repository.UserRepository;
+import com.neumarket.search.ListingSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -19,15 +31,24 @@ public class CleanupService {
 
   private final UserRepository userRepository;
   private final ListingRepository listingRepository;
+  private final ListingImageRepository listingImageRepository;
+  private final StoredBlobService storedBlobService;
+  private final BlobDeletionService blobDeletionService;
+  private final ListingSearchIndex searchIndex;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transactionTemplate;
+
+  private static final int PURGE_BATCH_SIZE = 500;
 
   @Value("${app.cleanup.unverified-user-expiry-hours:24}")
   private int unverifiedUserExpiryHours;
 
+  @Value("${app.cleanup.expiry-batch-size:500}")
+  private int expiryBatchSize;
+
   /**
    * Delete unverified users who signed up more than 24 hours ago
-   * Runs every 30 minutes
    */
-  @Scheduled(fixedRate = 1800000) // 30 minutes in milliseconds
   @Transactional
   public void cleanupUnverifiedUsers() {
     LocalDateTime cutoffTime = LocalDateTime.now().minusHours(unverifiedUserExpiryHours);
@@ -35,6 +56,7 @@ public class CleanupService {
     int deletedCount = userRepository.deleteUnverifiedUsersOlderThan(cutoffTime);
 
     if (deletedCount > 0) {
+      eventPublisher.publishEvent(new BulkDataChangedEvent("cleanupUnverifiedUsers", deletedCount));
       log.info("Cleanup: Deleted {} unverified users older than {} hours",
           deletedCount, unverifiedUserExpiryHours);
     }
@@ -42,9 +64,7 @@ public class CleanupService {
 
   /**
    * Clear expired verification codes (keep user, just clear the code)
-   * Runs every hour
    */
-  @Scheduled(fixedRate = 3600000) // 1 hour in milliseconds
   @Transactional
   public void cleanupExpiredCodes() {
     LocalDateTime now = LocalDateTime.now();
@@ -59,34 +79,98 @@ public class CleanupService {
   }
 
   /**
-   * Mark expired listings as EXPIRED
-   * Runs daily at 2 AM
+   * Mark expired listings as EXPIRED in small id-ordered batches, one transaction each,
+   * so no run holds locks on more than a batch of rows
    */
-  @Scheduled(cron = "0 0 2 * * ?") // 2:00 AM every day
-  @Transactional
   public void cleanupExpiredListings() {
+    cleanupExpiredListings(0, 1);
+  }
+
+  /**
+   * Expire only listings whose id mod shards = shard, so nodes can split the work
+   */
+  public void cleanupExpiredListings(int shard, int shards) {
     LocalDateTime now = LocalDateTime.now();
 
-    int expiredCount = listingRepository.markExpiredListings(now);
+    long lastId = 0;
+    int expiredCount = 0;
+    while (true) {
+      long afterId = lastId;
+      List<Object[]> batch = listingRepository.findExpiredBatch(
+          now, afterId, shard, shards, PageRequest.of(0, expiryBatchSize));
+      if (batch.isEmpty()) {
+        break;
+      }
+      Integer expired = transactionTemplate.execute(status -> expireBatch(batch, now));
+      expiredCount += expired != null ? expired : 0;
+      lastId = (Long) batch.get(batch.size() - 1)[0];
+    }
 
     if (expiredCount > 0) {
       log.info("Cleanup: Marked {} listings as expired", expiredCount);
     }
   }
 
+  private int expireBatch(List<Object[]> batch, LocalDateTime now) {
+    List<Long> ids = batch.stream().map(row -> (Long) row[0]).toList();
+    int expired = listingRepository.markExpired(ids, now);
+
+    // Index updates apply after this batch commits, so readers stop seeing the listings right away
+    if (expired == ids.size()) {
+      searchIndex.removeAll(ids);
+      for (Object[] row : batch) {
+        Category category = (Category) row[1];
+        BigDecimal price = (BigDecimal) row[2];
+        LocalDateTime createdAt = (LocalDateTime) row[3];
+        eventPublisher.publishEvent(new ListingChangedEvent((Long) row[0],
+            new ListingChangedEvent.Snapshot(ListingStatus.ACTIVE, category, price, createdAt),
+            new ListingChangedEvent.Snapshot(ListingStatus.EXPIRED, category, price, createdAt)));
+      }
+    } else if (expired > 0) {
+      // Some listings were bumped since the batch was read; only drop the ones that expired
+      searchIndex.removeAll(listingRepository.findIdsWithStatus(ids, ListingStatus.EXPIRED));
+      eventPublisher.publishEvent(new BulkDataChangedEvent("cleanupExpiredListings", expired));
+    }
+    return expired;
+  }
+
   /**
-   * Permanently delete listings that have been in DELETED status for more than 30 days
-   * Runs daily at 3 AM
+   * Permanently delete listings that have been in DELETED status for more than 30 days,
+   * queueing their images for deletion from storage (shared content once no other listing uses it).
+   * Each batch commits on its own, so a large backlog never holds one long transaction and a
+   * failure keeps the batches already purged.
    */
-  @Scheduled(cron = "0 0 0 1 * ?") // 3:00 AM every day
-  @Transactional
   public void purgeDeletedListings() {
     LocalDateTime cutoffTime = LocalDateTime.now().minusDays(30);
 
-    int purgedCount = listingRepository.purgeOldDeletedListings(cutoffTime);
+    List<Long> listingIds = listingRepository.findOldDeletedListingIds(cutoffTime);
+    int purgedCount = 0;
+    for (int from = 0; from < listingIds.size(); from += PURGE_BATCH_SIZE) {
+      List<Long> batch = listingIds.subList(from, Math.min(from + PURGE_BATCH_SIZE, listingIds.size()));
+      Integer purged = transactionTemplate.execute(status -> purgeBatch(batch));
+      purgedCount += purged != null ? purged : 0;
+    }
 
     if (purgedCount > 0) {
       log.info("Cleanup: Permanently deleted {} old listings", purgedCount);
     }
   }
+
+  private int purgeBatch(List<Long> batch) {
+    List<Long> storedBlobIds = listingImageRepository.findStoredBlobIdsByListingIds(batch);
+    List<String> unsharedUrls = new ArrayList<>();
+    for (ListingImage image : listingImageRepository.findUnsharedByListingIds(batch)) {
+      unsharedUrls.addAll(Arrays.asList(image.getImageUrl(), image.getThumbnailUrl(), image.getMediumUrl()));
+    }
+
+    listingImageRepository.deleteByListingIds(batch);
+    storedBlobService.release(storedBlobIds);
+    blobDeletionService.enqueueUrls(unsharedUrls);
+    int purged = listingRepository.purgeDeletedListings(batch);
+
+    if (purged > 0) {
+      eventPublisher.publishEvent(new BulkDataChangedEvent("purgeDeletedListings", purged));
+    }
+    return purged;
+  }
 }
\ No newline at end of file
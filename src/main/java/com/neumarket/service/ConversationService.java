@@ -1,6 +1,7 @@
 package com.neumarket.service;
 
 import com.neumarket.dto.response.ConversationResponse;
+import com.neumarket.event.ConversationStartedEvent;
 import com.neumarket.exception.BadRequestException;
 import com.neumarket.exception.ForbiddenException;
 import com.neumarket.exception.ResourceNotFoundException;
@@ -9,13 +10,16 @@ import com.neumarket.model.Listing;
 import com.neumarket.model.User;
 import com.neumarket.repository.ConversationRepository;
 import com.neumarket.repository.ListingRepository;
-import com.neumarket.repository.MessageRepository;
 import com.neumarket.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,23 +31,27 @@ public class ConversationService {
   private final ConversationRepository conversationRepository;
   private final ListingRepository listingRepository;
   private final UserRepository userRepository;
-  private final MessageRepository messageRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * Get all conversations for current user (inbox)
    */
   @Transactional(readOnly = true)
   public List<ConversationResponse> getUserConversations(Long userId) {
-    List<Conversation> conversations = conversationRepository.findByUserIdOrderByUpdatedAtDesc(userId);
-
-    return conversations.stream()
-        .map(conv -> {
-          int unreadCount = messageRepository.countUnreadMessages(conv.getId(), userId);
-          return ConversationResponse.fromEntity(conv, userId, unreadCount);
-        })
+    return conversationRepository.findInboxByUserId(userId).stream()
+        .map(view -> ConversationResponse.fromView(view, userId))
         .toList();
   }
 
+  /**
+   * Version of a user's inbox for conditional GET: conversation, listing and participant
+   * updatedAt stamps plus the unread total, in one aggregate query
+   */
+  @Transactional(readOnly = true)
+  public String getUserConversationsVersion(Long userId) {
+    return "inbox:" + userId + ":" + Arrays.toString(conversationRepository.findInboxVersion(userId).get(0));
+  }
+
   /**
    * Get or create a conversation for a listing
    * - If buyer already has conversation about this listing, return it
@@ -72,8 +80,7 @@ public class ConversationService {
 
     if (existing.isPresent()) {
       Conversation conv = existing.get();
-      int unreadCount = messageRepository.countUnreadMessages(conv.getId(), buyerId);
-      return ConversationResponse.fromEntity(conv, buyerId, unreadCount);
+      return ConversationResponse.fromEntity(conv, buyerId, conv.getUnreadCountFor(buyerId));
     }
 
     Conversation conversation = Conversation.builder()
@@ -83,6 +90,7 @@ public class ConversationService {
         .build();
 
     Conversation saved = conversationRepository.save(conversation);
+    eventPublisher.publishEvent(new ConversationStartedEvent(saved.getId(), listingId, buyerId));
     log.info("Conversation created: {} between buyer {} and seller {} for listing {}",
         saved.getId(), buyerId, listing.getUser().getId(), listingId);
 
@@ -95,8 +103,7 @@ public class ConversationService {
   @Transactional(readOnly = true)
   public ConversationResponse getConversation(Long conversationId, Long userId) {
     Conversation conversation = getConversationWithAccessCheck(conversationId, userId);
-    int unreadCount = messageRepository.countUnreadMessages(conversationId, userId);
-    return ConversationResponse.fromEntity(conversation, userId, unreadCount);
+    return ConversationResponse.fromEntity(conversation, userId, conversation.getUnreadCountFor(userId));
   }
 
   /**
@@ -128,13 +135,20 @@ public class ConversationService {
       throw new ForbiddenException("You can only view conversations for your own listings");
     }
 
-    List<Conversation> conversations = conversationRepository.findByListingId(listingId);
-
-    return conversations.stream()
-        .map(conv -> {
-          int unreadCount = messageRepository.countUnreadMessages(conv.getId(), sellerId);
-          return ConversationResponse.fromEntity(conv, sellerId, unreadCount);
-        })
+    return conversationRepository.findInboxByListingId(listingId, sellerId).stream()
+        .map(view -> ConversationResponse.fromView(view, sellerId))
         .toList();
   }
+
+  /**
+   * Fill last-message columns for conversations that predate them (no-op once backfilled)
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void backfillLastMessages() {
+    int updated = conversationRepository.backfillLastMessages();
+    if (updated > 0) {
+      log.info("Backfilled last message for {} conversations", updated);
+    }
+  }
 }
\ No newline at end of file
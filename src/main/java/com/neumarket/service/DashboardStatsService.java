@@ -0,0 +1,363 @@
+package com.neumarket.service;
+
+import com.neumarket.dto.response.DashboardStatsResponse;
+import com.neumarket.enums.Category;
+import com.neumarket.enums.ListingStatus;
+import com.neumarket.enums.ReportStatus;
+import com.neumarket.event.BulkDataChangedEvent;
+import com.neumarket.event.ConversationStartedEvent;
+import com.neumarket.event.ListingChangedEvent;
+import com.neumarket.event.MessageSentEvent;
+import com.neumarket.event.ReportChangedEvent;
+import com.neumarket.event.UserChangedEvent;
+import com.neumarket.repository.ConversationRepository;
+import com.neumarket.repository.ListingRepository;
+import com.neumarket.repository.MessageRepository;
+import com.neumarket.repository.ReportRepository;
+import com.neumarket.repository.UserRepository;
+import com.neumarket.stats.HourlyCounter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the admin dashboard numbers in memory so reading them never touches the database.
+ *
+ * Counters are seeded from grouped queries at startup and then moved by domain events
+ * after each commit. Snapshot events carry the before/after state, so a listener only
+ * subtracts the old row and adds the new one. Bulk jobs that change rows without events
+ * drop the counters and the next read reloads them. A periodic reconcile rebuilds
+ * everything from the database to correct drift (cascades, manual fixes, lost events).
+ *
+ * A load reads one snapshot; events applied while it runs are replayed onto the counters it
+ * returns, since the snapshot may predate their commit. An event whose commit lands just before
+ * the snapshot can be counted twice until the next reconcile.
+ *
+ * Counters live on each node and only see events from transactions committed on that node, so
+ * with several instances the numbers are per node and only eventually consistent: another
+ * node's changes show up after this node's next reconcile.
+ *
+ * "New this week/month" windows are counted per hour, so they start at the top of the hour.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardStatsService {
+
+  // 31 days plus the current, partial hour
+  private static final int WINDOW_HOURS = 31 * 24 + 1;
+
+  private final UserRepository userRepository;
+  private final ListingRepository listingRepository;
+  private final ReportRepository reportRepository;
+  private final ConversationRepository conversationRepository;
+  private final MessageRepository messageRepository;
+  private final PlatformTransactionManager transactionManager;
+
+  // Replaced wholesale on reconcile; null until loaded or after a bulk change
+  private Counters counters;
+  // Loads in progress, each collecting the events to replay onto its result; guarded by this
+  private final List<PendingLoad> pendingLoads = new ArrayList<>();
+
+  private TransactionTemplate snapshotRead;
+
+  @PostConstruct
+  public void init() {
+    // Every count in one load must come from the same snapshot for the replay to line up
+    snapshotRead = new TransactionTemplate(transactionManager);
+    snapshotRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    snapshotRead.setReadOnly(true);
+  }
+
+  /**
+   * Current dashboard numbers; only the first read after startup or a bulk change queries the database
+   */
+  public DashboardStatsResponse getDashboardStats() {
+    Counters current;
+    synchronized (this) {
+      current = counters;
+    }
+    if (current == null) {
+      current = reload();
+    }
+    synchronized (current) {
+      return current.toResponse(LocalDateTime.now());
+    }
+  }
+
+  /**
+   * Rebuild the counters from the database. Runs at startup and every 15 minutes by default.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(fixedDelayString = "${app.stats.reconcile-interval-ms:900000}",
+      initialDelayString = "${app.stats.reconcile-interval-ms:900000}")
+  public void reconcile() {
+    Counters previous;
+    synchronized (this) {
+      previous = counters;
+    }
+    Counters fresh = reload();
+
+    if (previous != null) {
+      long userDrift;
+      long listingDrift;
+      synchronized (previous) {
+        userDrift = fresh.totalUsers - previous.totalUsers;
+        listingDrift = fresh.totalListings - previous.totalListings;
+      }
+      if (userDrift != 0 || listingDrift != 0) {
+        log.warn("Dashboard stats drift corrected: users {}, listings {}", userDrift, listingDrift);
+      }
+    }
+  }
+
+  private Counters reload() {
+    PendingLoad pending = new PendingLoad();
+    synchronized (this) {
+      pendingLoads.add(pending);
+    }
+
+    Counters fresh;
+    try {
+      fresh = snapshotRead.execute(status -> load());
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        pendingLoads.remove(pending);
+      }
+      throw e;
+    }
+
+    synchronized (this) {
+      pendingLoads.remove(pending);
+      pending.missed.forEach(change -> change.accept(fresh));
+      // A bulk change during the load may have landed after the snapshot; leave it to the next read
+      if (!pending.invalidated) {
+        counters = fresh;
+      }
+    }
+    return fresh;
+  }
+
+  private Counters load() {
+    LocalDateTime windowStart = LocalDateTime.now().minusHours(WINDOW_HOURS);
+    Counters fresh = new Counters();
+
+    fresh.totalUsers = userRepository.count();
+    fresh.verifiedUsers = userRepository.countByEmailVerifiedTrue();
+    fresh.blockedUsers = userRepository.countByBlockedTrue();
+    for (Object[] row : userRepository.countCreatedPerHourSince(windowStart)) {
+      fresh.signups.add((LocalDateTime) row[0], (Long) row[1]);
+    }
+
+    for (Object[] row : listingRepository.countGroupedByStatus()) {
+      long count = (Long) row[1];
+      fresh.listingsByStatus.put((ListingStatus) row[0], count);
+      fresh.totalListings += count;
+    }
+    for (Object[] row : listingRepository.summarizeActiveByCategory()) {
+      fresh.activeByCategory.put((Category) row[0], (Long) row[1]);
+      if (row[2] != null) {
+        fresh.activePriceSum = fresh.activePriceSum.add((BigDecimal) row[2]);
+      }
+    }
+    for (Object[] row : listingRepository.countCreatedPerHourSince(windowStart)) {
+      fresh.listingCreations.add((LocalDateTime) row[0], (Long) row[1]);
+    }
+
+    for (Object[] row : reportRepository.countGroupedByStatus()) {
+      long count = (Long) row[1];
+      fresh.reportsByStatus.put((ReportStatus) row[0], count);
+      fresh.totalReports += count;
+    }
+
+    fresh.totalConversations = conversationRepository.count();
+    fresh.totalMessages = messageRepository.count();
+    return fresh;
+  }
+
+  // ==================== EVENTS ====================
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onUserChanged(UserChangedEvent event) {
+    apply(c -> {
+      if (event.before() != null) {
+        c.addUser(event.before(), -1);
+      }
+      if (event.after() != null) {
+        c.addUser(event.after(), 1);
+      }
+    });
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onListingChanged(ListingChangedEvent event) {
+    apply(c -> {
+      if (event.before() != null) {
+        c.addListing(event.before(), -1);
+      }
+      if (event.after() != null) {
+        c.addListing(event.after(), 1);
+      }
+    });
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onReportChanged(ReportChangedEvent event) {
+    apply(c -> {
+      if (event.previousStatus() != null) {
+        c.reportsByStatus.merge(event.previousStatus(), -1L, Long::sum);
+      } else {
+        c.totalReports++;
+      }
+      c.reportsByStatus.merge(event.status(), 1L, Long::sum);
+    });
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onConversationStarted(ConversationStartedEvent event) {
+    apply(c -> c.totalConversations++);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onMessageSent(MessageSentEvent event) {
+    apply(c -> c.totalMessages++);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onBulkDataChanged(BulkDataChangedEvent event) {
+    // Rows changed without per-row events; the next read reloads from the database
+    synchronized (this) {
+      counters = null;
+      pendingLoads.forEach(pending -> pending.invalidated = true);
+    }
+    log.debug("Dashboard stats invalidated by {} ({} rows)", event.operation(), event.rows());
+  }
+
+  private void apply(Consumer<Counters> change) {
+    Counters current;
+    synchronized (this) {
+      current = counters;
+      pendingLoads.forEach(pending -> pending.missed.add(change));
+    }
+    // Nothing loaded yet: the first read will see the committed change anyway
+    if (current == null) {
+      return;
+    }
+    synchronized (current) {
+      change.accept(current);
+    }
+  }
+
+  /**
+   * Events applied while a load runs, and whether a bulk change made its result stale
+   */
+  private static class PendingLoad {
+    final List<Consumer<Counters>> missed = new ArrayList<>();
+    boolean invalidated;
+  }
+
+  /**
+   * One consistent set of counters; guarded by its own monitor
+   */
+  private static class Counters {
+
+    long totalUsers;
+    long verifiedUsers;
+    long blockedUsers;
+    final HourlyCounter signups = new HourlyCounter(WINDOW_HOURS);
+
+    long totalListings;
+    final Map<ListingStatus, Long> listingsByStatus = new EnumMap<>(ListingStatus.class);
+    final Map<Category, Long> activeByCategory = new EnumMap<>(Category.class);
+    BigDecimal activePriceSum = BigDecimal.ZERO;
+    final HourlyCounter listingCreations = new HourlyCounter(WINDOW_HOURS);
+
+    long totalReports;
+    final Map<ReportStatus, Long> reportsByStatus = new EnumMap<>(ReportStatus.class);
+
+    long totalConversations;
+    long totalMessages;
+
+    void addUser(UserChangedEvent.Snapshot user, int sign) {
+      // A signup has no "before"; later changes remove and re-add the same row
+      totalUsers += sign;
+      if (user.emailVerified()) {
+        verifiedUsers += sign;
+      }
+      if (user.blocked()) {
+        blockedUsers += sign;
+      }
+      signups.add(user.createdAt(), sign);
+    }
+
+    void addListing(ListingChangedEvent.Snapshot listing, int sign) {
+      totalListings += sign;
+      listingsByStatus.merge(listing.status(), (long) sign, Long::sum);
+      if (listing.status() == ListingStatus.ACTIVE) {
+        activeByCategory.merge(listing.category(), (long) sign, Long::sum);
+        if (listing.price() != null) {
+          BigDecimal price = listing.price();
+          activePriceSum = sign > 0 ? activePriceSum.add(price) : activePriceSum.subtract(price);
+        }
+      }
+      listingCreations.add(listing.createdAt(), sign);
+    }
+
+    DashboardStatsResponse toResponse(LocalDateTime now) {
+      LocalDateTime startOfToday = now.toLocalDate().atStartOfDay();
+
+      long activeListings = listingsByStatus.getOrDefault(ListingStatus.ACTIVE, 0L);
+      BigDecimal averagePrice = activeListings > 0
+          ? activePriceSum.divide(BigDecimal.valueOf(activeListings), 2, RoundingMode.HALF_UP)
+          : BigDecimal.ZERO;
+
+      Map<String, Long> listingsByCategory = new HashMap<>();
+      activeByCategory.forEach((category, count) -> {
+        if (count > 0) {
+          listingsByCategory.put(category.name(), count);
+        }
+      });
+
+      return DashboardStatsResponse.builder()
+          .totalUsers(totalUsers)
+          .verifiedUsers(verifiedUsers)
+          .blockedUsers(blockedUsers)
+          .newUsersToday(signups.sumSince(startOfToday))
+          .newUsersThisWeek(signups.sumSince(now.minusDays(7)))
+          .newUsersThisMonth(signups.sumSince(now.minusDays(30)))
+          .totalListings(totalListings)
+          .activeListings(activeListings)
+          .soldListings(listingsByStatus.getOrDefault(ListingStatus.SOLD, 0L))
+          .newListingsToday(listingCreations.sumSince(startOfToday))
+          .newListingsThisWeek(listingCreations.sumSince(now.minusDays(7)))
+          .averageListingPrice(averagePrice)
+          .listingsByCategory(listingsByCategory)
+          .totalReports(totalReports)
+          .pendingReports(reportsByStatus.getOrDefault(ReportStatus.PENDING, 0L))
+          .resolvedReports(reportsByStatus.getOrDefault(ReportStatus.ACTION_TAKEN, 0L)
+              + reportsByStatus.getOrDefault(ReportStatus.DISMISSED, 0L))
+          .totalConversations(totalConversations)
+          .totalMessages(totalMessages)
+          .build();
+    }
+  }
+}
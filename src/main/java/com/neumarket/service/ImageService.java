@@ -1,28 +1,38 @@
 package com.neumarket.service;
 
-import com.azure.storage.blob.BlobClient;
-import com.azure.storage.blob.BlobContainerClient;
+import com.neumarket.cache.ListingDetailCache;
 import com.neumarket.dto.response.ListingResponse;
 import com.neumarket.exception.BadRequestException;
 import com.neumarket.exception.ForbiddenException;
 import com.neumarket.exception.ResourceNotFoundException;
+import com.neumarket.exception.ServiceUnavailableException;
 import com.neumarket.model.Listing;
 import com.neumarket.model.ListingImage;
+import com.neumarket.model.StoredBlob;
 import com.neumarket.repository.ListingImageRepository;
 import com.neumarket.repository.ListingRepository;
+import com.neumarket.repository.StoredBlobRepository;
+import com.neumarket.storage.BlobStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.UUID;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
@@ -31,21 +41,59 @@ public class ImageService {
 
   private final ListingRepository listingRepository;
   private final ListingImageRepository listingImageRepository;
-
-  @Autowired(required = false)
-  private BlobContainerClient blobContainerClient;
-
-  @Value("${azure.storage.container-name:listings-images}")
-  private String containerName;
+  private final TransactionTemplate transactionTemplate;
+  private final StoredBlobRepository storedBlobRepository;
+  private final StoredBlobService storedBlobService;
+  private final BlobDeletionService blobDeletionService;
+  private final ImageVariantService imageVariantService;
+  private final BlobStore blobStore;
+  private final ListingDetailCache detailCache;
 
   @Value("${app.images.max-file-size-mb:5}")
   private int maxFileSizeMb;
 
+  @Value("${app.images.upload-concurrency:8}")
+  private int uploadConcurrency;
+
+  @Value("${app.images.upload-queue-capacity:64}")
+  private int uploadQueueCapacity;
+
+  private ThreadPoolExecutor uploadExecutor;
+
+  // Store attempts per file when identical content is being released concurrently
+  private static final int MAX_STORE_ATTEMPTS = 3;
+
   private static final List<String> ALLOWED_CONTENT_TYPES = Arrays.asList(
       "image/jpeg", "image/jpg", "image/png", "image/webp"
   );
 
-  @Transactional
+  @PostConstruct
+  public void init() {
+    AtomicInteger threadNumber = new AtomicInteger();
+    uploadExecutor = new ThreadPoolExecutor(
+        uploadConcurrency, uploadConcurrency, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(uploadQueueCapacity),
+        runnable -> {
+          Thread thread = new Thread(runnable, "image-upload-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    uploadExecutor.shutdown();
+  }
+
+  /**
+   * Upload images for a listing.
+   * Files stream from the multipart parts to storage in parallel (bounded by the upload pool),
+   * and a transaction is opened only afterwards to insert the rows together - so no DB
+   * connection is held across network uploads. Content we already store (same SHA-256)
+   * is referenced instead of uploaded again. If anything fails, the references taken
+   * are released again.
+   */
   public List<ListingResponse.ImageResponse> uploadImages(Long listingId, List<MultipartFile> files, Long userId) {
     Listing listing = listingRepository.findById(listingId)
         .orElseThrow(() -> new ResourceNotFoundException("Listing", "id", listingId));
@@ -54,29 +102,120 @@ public class ImageService {
       throw new ForbiddenException("You can only upload images to your own listings");
     }
 
-    List<ListingResponse.ImageResponse> uploadedImages = new ArrayList<>();
-    int displayOrder = listingImageRepository.findMaxDisplayOrderByListingId(listingId);
+    // Reject the whole batch before any bytes leave the server
+    files.forEach(this::validateFile);
+
+    List<StoredFile> stored = uploadAll(files, listingId);
 
-    for (MultipartFile file : files) {
-      validateFile(file);
-      String imageUrl = uploadToStorage(file, listingId);
-      displayOrder++;
+    List<ListingResponse.ImageResponse> images;
+    try {
+      images = transactionTemplate.execute(status -> saveImages(listingId, stored));
+    } catch (RuntimeException e) {
+      log.error("Failed to save images for listing {}, releasing uploaded blobs", listingId, e);
+      release(stored);
+      throw e;
+    }
 
-      ListingImage image = ListingImage.builder()
+    // Rows are committed; thumbnails of new content follow in the background
+    for (StoredFile file : stored) {
+      if (file.uploaded()) {
+        imageVariantService.generateAsync(file.storedBlobId(), file.blobName());
+      }
+    }
+    return images;
+  }
+
+  /**
+   * A reference to stored content; uploaded is false when existing content was reused
+   */
+  private record StoredFile(Long storedBlobId, String blobName, String url,
+                            String thumbnailUrl, String mediumUrl, boolean uploaded) {
+
+    static StoredFile of(StoredBlob blob, boolean uploaded) {
+      return new StoredFile(blob.getId(), blob.getBlobName(), blob.getUrl(),
+          blob.getThumbnailUrl(), blob.getMediumUrl(), uploaded);
+    }
+  }
+
+  private List<StoredFile> uploadAll(List<MultipartFile> files, Long listingId) {
+    List<Future<StoredFile>> uploads = new ArrayList<>(files.size());
+    try {
+      for (MultipartFile file : files) {
+        uploads.add(uploadExecutor.submit(() -> uploadToStorage(file, listingId)));
+      }
+    } catch (RejectedExecutionException e) {
+      uploads.forEach(upload -> upload.cancel(true));
+      discardCompleted(uploads);
+      throw new ServiceUnavailableException("Image uploads are busy right now. Please try again shortly.", 5);
+    }
+
+    List<StoredFile> stored = new ArrayList<>(files.size());
+    RuntimeException failure = null;
+    for (Future<StoredFile> upload : uploads) {
+      try {
+        stored.add(upload.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failure = new BadRequestException("Failed to upload image");
+      } catch (ExecutionException e) {
+        failure = e.getCause() instanceof RuntimeException runtime
+            ? runtime
+            : new BadRequestException("Failed to upload image");
+      }
+    }
+
+    if (failure != null) {
+      // Keep all-or-nothing semantics: don't leave the successful half of a batch behind
+      release(stored);
+      throw failure;
+    }
+    return stored;
+  }
+
+  private void discardCompleted(List<Future<StoredFile>> uploads) {
+    List<StoredFile> completed = new ArrayList<>();
+    for (Future<StoredFile> upload : uploads) {
+      if (upload.isDone() && !upload.isCancelled()) {
+        try {
+          completed.add(upload.get());
+        } catch (InterruptedException | ExecutionException ignored) {
+          // Nothing was stored for this one
+        }
+      }
+    }
+    release(completed);
+  }
+
+  private void release(List<StoredFile> stored) {
+    try {
+      storedBlobService.release(stored.stream().map(StoredFile::storedBlobId).toList());
+    } catch (Exception e) {
+      log.error("Failed to release {} stored blobs", stored.size(), e);
+    }
+  }
+
+  private List<ListingResponse.ImageResponse> saveImages(Long listingId, List<StoredFile> stored) {
+    Listing listing = listingRepository.getReferenceById(listingId);
+    int displayOrder = listingImageRepository.findMaxDisplayOrderByListingId(listingId);
+
+    List<ListingImage> images = new ArrayList<>(stored.size());
+    for (StoredFile file : stored) {
+      images.add(ListingImage.builder()
           .listing(listing)
-          .imageUrl(imageUrl)
-          .displayOrder(displayOrder)
-          .build();
-
-      ListingImage saved = listingImageRepository.save(image);
-      uploadedImages.add(ListingResponse.ImageResponse.builder()
-          .id(saved.getId())
-          .imageUrl(saved.getImageUrl())
-          .displayOrder(saved.getDisplayOrder())
+          .storedBlob(storedBlobRepository.getReferenceById(file.storedBlobId()))
+          .imageUrl(file.url())
+          .thumbnailUrl(file.thumbnailUrl())
+          .mediumUrl(file.mediumUrl())
+          .displayOrder(++displayOrder)
           .build());
     }
 
-    return uploadedImages;
+    List<ListingResponse.ImageResponse> saved = listingImageRepository.saveAll(images).stream()
+        .map(ListingResponse.ImageResponse::fromEntity)
+        .toList();
+    listingRepository.touch(List.of(listingId), LocalDateTime.now());
+    detailCache.evict(listingId);
+    return saved;
   }
 
   @Transactional
@@ -88,8 +227,18 @@ public class ImageService {
       throw new ForbiddenException("You can only delete images from your own listings");
     }
 
-    deleteFromStorage(image.getImageUrl());
     listingImageRepository.delete(image);
+    listingRepository.touch(List.of(image.getListing().getId()), LocalDateTime.now());
+    detailCache.evict(image.getListing().getId());
+
+    // Storage is cleaned up in the background once this commits
+    if (image.getStoredBlob() != null) {
+      // The row must be gone before its content can be, unless another image still uses it
+      listingImageRepository.flush();
+      storedBlobService.release(List.of(image.getStoredBlob().getId()));
+    } else {
+      blobDeletionService.enqueueUrls(Arrays.asList(image.getImageUrl(), image.getThumbnailUrl(), image.getMediumUrl()));
+    }
     log.info("Image deleted: {}", imageId);
   }
 
@@ -109,34 +258,53 @@ public class ImageService {
     }
   }
 
-  private String uploadToStorage(MultipartFile file, Long listingId) {
-    String filename = generateFilename(file, listingId);
+  private StoredFile uploadToStorage(MultipartFile file, Long listingId) {
+    String sha256 = sha256(file);
+    String contentType = file.getContentType().toLowerCase();
 
-    if (blobContainerClient != null) {
-      try {
-        BlobClient blobClient = blobContainerClient.getBlobClient(filename);
-        blobClient.upload(file.getInputStream(), file.getSize(), true);
-        return blobClient.getBlobUrl();
+    for (int attempt = 0; attempt < MAX_STORE_ATTEMPTS; attempt++) {
+      Optional<StoredBlob> existing = storedBlobService.reserve(sha256);
+      if (existing.isPresent()) {
+        return StoredFile.of(existing.get(), false);
+      }
+
+      String filename = generateFilename(file, listingId);
+      String url;
+      // Stream straight from the multipart part
+      try (InputStream in = file.getInputStream()) {
+        url = blobStore.put(filename, in, file.getSize(), contentType);
       } catch (IOException e) {
-        log.error("Failed to upload image to Azure", e);
+        log.error("Failed to store image {}", filename, e);
         throw new BadRequestException("Failed to upload image");
       }
-    }
 
-    log.warn("Azure Blob Storage not configured. Using placeholder URL.");
-    return "https://placeholder.com/images/" + filename;
+      Optional<StoredBlob> registered = storedBlobService.register(sha256, filename, url, file.getSize(), contentType);
+      if (registered.isPresent()) {
+        return StoredFile.of(registered.get(), registered.get().getBlobName().equals(filename));
+      }
+    }
+    throw new BadRequestException("Failed to upload image");
   }
 
-  private void deleteFromStorage(String imageUrl) {
-    if (blobContainerClient != null && imageUrl.contains(containerName)) {
-      try {
-        String blobName = imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
-        BlobClient blobClient = blobContainerClient.getBlobClient(blobName);
-        blobClient.deleteIfExists();
-      } catch (Exception e) {
-        log.error("Failed to delete image from Azure: {}", imageUrl, e);
-      }
+  /**
+   * SHA-256 of an uploaded part, read from the servlet container's local copy
+   * so duplicates are found before anything is sent to storage
+   */
+  private static String sha256(MultipartFile file) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+      in.transferTo(OutputStream.nullOutputStream());
+    } catch (IOException e) {
+      log.error("Failed to read uploaded image {}", file.getOriginalFilename(), e);
+      throw new BadRequestException("Failed to upload image");
     }
+    return HexFormat.of().formatHex(digest.digest());
   }
 
   private String generateFilename(MultipartFile file, Long listingId) {
@@ -0,0 +1,261 @@
+package com.neumarket.service;
+
+import com.neumarket.cache.ListingDetailCache;
+import com.neumarket.repository.ListingImageRepository;
+import com.neumarket.repository.ListingRepository;
+import com.neumarket.repository.StoredBlobRepository;
+import com.neumarket.storage.BlobStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates thumbnail and medium renditions of uploaded listing images with JDK ImageIO.
+ *
+ * Runs on its own bounded pool after the upload request has returned. Variants are stored
+ * next to the original ("<name>-thumb.jpg", "<name>-medium.jpg") and their URLs written to
+ * the StoredBlob and every ListingImage sharing it; until then, or if an image can't be
+ * processed (no ImageIO reader, e.g. WebP, or the pool is full), readers fall back to the original.
+ *
+ * Dimensions are read from the header before anything is decoded: images over max-source-pixels
+ * are skipped, and large ones are decoded subsampled down to about twice the medium size, so a
+ * small file that declares a huge canvas can't fill the heap.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageVariantService {
+
+  private final StoredBlobRepository storedBlobRepository;
+  private final ListingImageRepository listingImageRepository;
+  private final ListingRepository listingRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final BlobStore blobStore;
+  private final BlobDeletionService blobDeletionService;
+  private final ListingDetailCache detailCache;
+
+  @Value("${app.images.thumbnail-size:320}")
+  private int thumbnailSize;
+
+  @Value("${app.images.medium-size:1024}")
+  private int mediumSize;
+
+  @Value("${app.images.jpeg-quality:0.82}")
+  private float jpegQuality;
+
+  @Value("${app.images.max-source-pixels:50000000}")
+  private long maxSourcePixels;
+
+  @Value("${app.images.variant-threads:2}")
+  private int variantThreads;
+
+  @Value("${app.images.variant-queue-capacity:200}")
+  private int variantQueueCapacity;
+
+  private ThreadPoolExecutor variantExecutor;
+
+  @PostConstruct
+  public void init() {
+    AtomicInteger threadNumber = new AtomicInteger();
+    variantExecutor = new ThreadPoolExecutor(
+        variantThreads, variantThreads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(variantQueueCapacity),
+        runnable -> {
+          Thread thread = new Thread(runnable, "image-variant-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          thread.setPriority(Thread.NORM_PRIORITY - 1);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    variantExecutor.shutdown();
+  }
+
+  /**
+   * Queue variant generation for a stored original; never blocks the caller
+   */
+  public void generateAsync(Long storedBlobId, String blobName) {
+    try {
+      variantExecutor.execute(() -> {
+        try {
+          generate(storedBlobId, blobName);
+        } catch (Exception e) {
+          log.error("Failed to generate variants for {}", blobName, e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      log.warn("Variant queue full, {} will be served at original size", blobName);
+    }
+  }
+
+  void generate(Long storedBlobId, String blobName) throws IOException {
+    BufferedImage original = read(blobName);
+    if (original == null) {
+      return;
+    }
+
+    String thumbnailUrl = storeVariant(original, blobName, "thumb", thumbnailSize);
+    String mediumUrl = storeVariant(original, blobName, "medium", mediumSize);
+    if (thumbnailUrl == null && mediumUrl == null) {
+      return;
+    }
+
+    Integer updated = transactionTemplate.execute(status -> {
+      int blobs = storedBlobRepository.setVariantUrls(storedBlobId, thumbnailUrl, mediumUrl);
+      if (blobs > 0) {
+        listingImageRepository.setVariantUrlsByStoredBlobId(storedBlobId, thumbnailUrl, mediumUrl);
+        List<Long> listingIds = listingImageRepository.findListingIdsByStoredBlobId(storedBlobId);
+        if (!listingIds.isEmpty()) {
+          listingRepository.touch(listingIds, LocalDateTime.now());
+          detailCache.evictAll(listingIds);
+        }
+      }
+      return blobs;
+    });
+
+    if (updated == null || updated == 0) {
+      // Content was released while we worked on it
+      blobDeletionService.enqueue(List.of(variantName(blobName, "thumb"), variantName(blobName, "medium")));
+    }
+  }
+
+  /**
+   * Decode the original, subsampled if it is much larger than the medium variant; null if there
+   * is no ImageIO reader for it or it has more pixels than the cap
+   */
+  BufferedImage read(String blobName) throws IOException {
+    try (InputStream raw = blobStore.open(blobName);
+         ImageInputStream in = ImageIO.createImageInputStream(raw)) {
+      Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : Collections.emptyIterator();
+      if (!readers.hasNext()) {
+        log.info("No ImageIO reader for {}, skipping variants", blobName);
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(in, true, true);
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        if ((long) width * height > maxSourcePixels) {
+          log.warn("{} is {}x{}, over the {} pixel limit, skipping variants", blobName, width, height, maxSourcePixels);
+          return null;
+        }
+
+        // Keep at least twice the medium size so resize still has a halving step to smooth with
+        ImageReadParam param = reader.getDefaultReadParam();
+        int subsampling = Math.max(1, Math.max(width, height) / (2 * mediumSize));
+        if (subsampling > 1) {
+          param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+        return reader.read(0, param);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * Blob name of a variant: same path as the original, suffix before a .jpg extension
+   */
+  public static String variantName(String blobName, String suffix) {
+    int slash = blobName.lastIndexOf('/');
+    int dot = blobName.lastIndexOf('.');
+    String base = dot > slash ? blobName.substring(0, dot) : blobName;
+    return base + "-" + suffix + ".jpg";
+  }
+
+  /**
+   * Returns the variant URL, or null if the original already fits (readers use the original)
+   */
+  private String storeVariant(BufferedImage original, String blobName, String suffix, int maxDimension) throws IOException {
+    if (Math.max(original.getWidth(), original.getHeight()) <= maxDimension) {
+      return null;
+    }
+
+    byte[] jpeg = encodeJpeg(resize(original, maxDimension));
+    return blobStore.put(variantName(blobName, suffix), new ByteArrayInputStream(jpeg), jpeg.length, "image/jpeg");
+  }
+
+  /**
+   * Scale so the longer side is maxDimension. Halves in steps first so a single
+   * bilinear pass never shrinks by more than 2x, which keeps downscales sharp.
+   */
+  static BufferedImage resize(BufferedImage source, int maxDimension) {
+    double scale = (double) maxDimension / Math.max(source.getWidth(), source.getHeight());
+    int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+    int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+    BufferedImage current = source;
+    int width = source.getWidth();
+    int height = source.getHeight();
+    do {
+      width = Math.max(targetWidth, width / 2);
+      height = Math.max(targetHeight, height / 2);
+      current = draw(current, width, height);
+    } while (width != targetWidth || height != targetHeight);
+
+    return current;
+  }
+
+  private static BufferedImage draw(BufferedImage source, int width, int height) {
+    // RGB with a white background: JPEG has no alpha channel
+    BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = target.createGraphics();
+    try {
+      g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      g.setColor(Color.WHITE);
+      g.fillRect(0, 0, width, height);
+      g.drawImage(source, 0, 0, width, height, null);
+    } finally {
+      g.dispose();
+    }
+    return target;
+  }
+
+  private byte[] encodeJpeg(BufferedImage image) throws IOException {
+    ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+      writer.setOutput(ios);
+      ImageWriteParam param = writer.getDefaultWriteParam();
+      param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      param.setCompressionQuality(jpegQuality);
+      writer.write(null, new IIOImage(image, null, null), param);
+    } finally {
+      writer.dispose();
+    }
+    return out.toByteArray();
+  }
+}
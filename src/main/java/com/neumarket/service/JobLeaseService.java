@@ -0,0 +1,160 @@
+package com.neumarket.service;
+
+import com.neumarket.model.JobLease;
+import com.neumarket.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * Lets each scheduled job run on one node per tick when several instances share the database.
+ *
+ * A node runs a job only after claiming its row in job_leases with a conditional UPDATE
+ * (the row is created on first use). Claims commit in their own transaction, so the lease is
+ * visible to other nodes before the job starts and is never held open by the job's work.
+ *
+ * atMostFor bounds how long a crashed node can keep a job from running; atLeastFor keeps the
+ * lease after a quick run so nodes whose schedules are slightly offset skip the same tick.
+ * Both are measured on each node's clock, so clocks must agree to well within atLeastFor.
+ *
+ * Sharded jobs lease "job#0" .. "job#n-1" separately; each node takes the shards nobody holds.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JobLeaseService {
+
+  private final JobLeaseRepository jobLeaseRepository;
+  private final PlatformTransactionManager transactionManager;
+  private final MeterRegistry meterRegistry;
+
+  private final String owner = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+  private TransactionTemplate requiresNew;
+
+  @PostConstruct
+  public void init() {
+    requiresNew = new TransactionTemplate(transactionManager);
+    requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  /**
+   * Run the job here if no other node holds its lease
+   *
+   * @return whether this node ran it
+   */
+  public boolean runExclusively(String job, Duration atMostFor, Duration atLeastFor, Runnable work) {
+    return runLeased(job, job, atMostFor, atLeastFor, work);
+  }
+
+  /**
+   * Run every shard of the job that no other node holds, starting at a random shard so
+   * nodes ticking together spread out instead of racing for shard 0
+   *
+   * @return number of shards this node ran
+   */
+  public int runSharded(String job, int shards, Duration atMostFor, Duration atLeastFor, IntConsumer work) {
+    int start = ThreadLocalRandom.current().nextInt(shards);
+    int ran = 0;
+    for (int i = 0; i < shards; i++) {
+      int shard = (start + i) % shards;
+      if (runLeased(job, job + "#" + shard, atMostFor, atLeastFor, () -> work.accept(shard))) {
+        ran++;
+      }
+    }
+    return ran;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
+  private boolean runLeased(String job, String lease, Duration atMostFor, Duration atLeastFor, Runnable work) {
+    LocalDateTime acquiredAt = LocalDateTime.now();
+    if (!tryAcquire(lease, acquiredAt, atMostFor)) {
+      meterRegistry.counter("jobs.lease.skipped", "job", job).increment();
+      log.debug("Skipping {}: lease held by another node", lease);
+      return false;
+    }
+    meterRegistry.counter("jobs.lease.acquired", "job", job).increment();
+
+    long started = System.nanoTime();
+    try {
+      work.run();
+    } finally {
+      Duration took = Duration.ofNanos(System.nanoTime() - started);
+      Timer.builder("jobs.run")
+          .description("Time spent running a leased scheduled job")
+          .tag("job", job)
+          .register(meterRegistry)
+          .record(took);
+      if (took.compareTo(atMostFor) > 0) {
+        log.warn("{} ran for {} which is longer than its {} lease; another node may have started it",
+            lease, took, atMostFor);
+      }
+      release(lease, acquiredAt, atLeastFor);
+    }
+    return true;
+  }
+
+  private boolean tryAcquire(String lease, LocalDateTime now, Duration atMostFor) {
+    LocalDateTime leasedUntil = now.plus(atMostFor);
+    try {
+      Boolean acquired = requiresNew.execute(status -> {
+        if (jobLeaseRepository.claim(lease, owner, now, leasedUntil) > 0) {
+          return true;
+        }
+        if (jobLeaseRepository.existsById(lease)) {
+          return false;
+        }
+        jobLeaseRepository.saveAndFlush(JobLease.builder()
+            .name(lease)
+            .owner(owner)
+            .acquiredAt(now)
+            .leasedUntil(leasedUntil)
+            .build());
+        return true;
+      });
+      return Boolean.TRUE.equals(acquired);
+    } catch (DataIntegrityViolationException e) {
+      // Another node created the row first and holds it
+      return false;
+    }
+  }
+
+  private void release(String lease, LocalDateTime acquiredAt, Duration atLeastFor) {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime earliest = acquiredAt.plus(atLeastFor);
+    LocalDateTime leasedUntil = earliest.isAfter(now) ? earliest : now;
+    try {
+      requiresNew.executeWithoutResult(status -> jobLeaseRepository.release(lease, owner, leasedUntil));
+    } catch (RuntimeException e) {
+      // The lease runs out on its own after atMostFor
+      log.warn("Failed to release lease {}: {}", lease, e.getMessage());
+    }
+  }
+
+  private static String hostName() {
+    try {
+      String host = InetAddress.getLocalHost().getHostName();
+      return host.length() > 80 ? host.substring(0, 80) : host;
+    } catch (UnknownHostException e) {
+      return "unknown";
+    }
+  }
+}
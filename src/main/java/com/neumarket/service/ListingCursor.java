@@ -0,0 +1,55 @@
+package com.neumarket.service;
+
+import com.neumarket.exception.BadRequestException;
+import com.neumarket.dto.projection.ListingSummaryView;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque browse cursor: the sort order plus the sort key and id of the last listing on a page.
+ * Encoded as URL-safe base64 of "sort|key|id".
+ */
+public record ListingCursor(String sort, LocalDateTime createdAt, BigDecimal price, Long id) {
+
+  public static ListingCursor after(String sort, ListingSummaryView last) {
+    return new ListingCursor(sort, last.getCreatedAt(), last.getPrice(), last.getId());
+  }
+
+  public boolean isPriceSort() {
+    return sort.startsWith("price");
+  }
+
+  public String encode() {
+    String key = isPriceSort() ? price.toPlainString() : createdAt.toString();
+    String raw = sort + "|" + key + "|" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decode a cursor; a blank cursor means "first page"
+   */
+  public static ListingCursor decode(String cursor, String expectedSort) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\\|");
+      if (parts.length != 3 || !parts[0].equals(expectedSort)) {
+        throw new BadRequestException("Cursor does not match the requested sort");
+      }
+
+      Long id = Long.parseLong(parts[2]);
+      return parts[0].startsWith("price")
+          ? new ListingCursor(parts[0], null, new BigDecimal(parts[1]), id)
+          : new ListingCursor(parts[0], LocalDateTime.parse(parts[1]), null, id);
+    } catch (IllegalArgumentException | DateTimeException e) {
+      throw new BadRequestException("Invalid cursor");
+    }
+  }
+}
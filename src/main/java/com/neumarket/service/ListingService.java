@@ -1,33 +1,54 @@
 package com.neumarket.service;
 
+import com.neumarket.cache.ListingBrowseCache;
+import com.neumarket.cache.ListingDetailCache;
+import com.neumarket.dto.projection.ListingSummaryView;
 import com.neumarket.dto.request.ListingRequest;
+import com.neumarket.dto.response.CursorPagedResponse;
+import com.neumarket.dto.response.ListingFacetsResponse;
 import com.neumarket.dto.response.ListingResponse;
 import com.neumarket.dto.response.ListingSummaryResponse;
 import com.neumarket.dto.response.PagedResponse;
 import com.neumarket.enums.Category;
 import com.neumarket.enums.Condition;
 import com.neumarket.enums.ListingStatus;
+import com.neumarket.event.ListingChangedEvent;
+import com.neumarket.event.ListingSearchedEvent;
+import com.neumarket.exception.BadRequestException;
 import com.neumarket.exception.ForbiddenException;
 import com.neumarket.exception.ResourceNotFoundException;
+import com.neumarket.exception.ServiceUnavailableException;
 import com.neumarket.model.Listing;
 import com.neumarket.model.User;
 import com.neumarket.repository.ListingRepository;
-import com.neumarket.repository.SavedItemRepository;
 import com.neumarket.repository.UserRepository;
+import com.neumarket.search.ListingSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -36,7 +57,19 @@ public class ListingService {
 
   private final ListingRepository listingRepository;
   private final UserRepository userRepository;
-  private final SavedItemRepository savedItemRepository;
+  private final SavedItemService savedItemService;
+  private final ListingSearchIndex searchIndex;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ListingDetailCache detailCache;
+  private final ListingBrowseCache browseCache;
+  private final TransactionTemplate transactionTemplate;
+
+  private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+  // Lower bounds of the facet price buckets after the first
+  private static final List<BigDecimal> FACET_PRICE_BOUNDS = List.of(
+      BigDecimal.valueOf(10), BigDecimal.valueOf(25), BigDecimal.valueOf(50),
+      BigDecimal.valueOf(100), BigDecimal.valueOf(250), BigDecimal.valueOf(500));
 
   @Value("${app.listings.expiry-days:30}")
   private int expiryDays;
@@ -62,23 +95,72 @@ public class ListingService {
         .build();
 
     Listing saved = listingRepository.save(listing);
+    searchIndex.index(saved);
+    eventPublisher.publishEvent(ListingChangedEvent.created(saved));
     log.info("Listing created: {} by user {}", saved.getSlug(), userId);
 
     return ListingResponse.fromEntity(saved, false);
   }
 
   /**
-   * Get listing by slug (public)
+   * Get listing by slug (public). The listing itself comes from the detail cache; only the
+   * viewer's saved flag is looked up per request.
    */
-  @Transactional(readOnly = true)
   public ListingResponse getListingBySlug(String slug, Long currentUserId) {
-    Listing listing = listingRepository.findBySlug(slug)
-        .orElseThrow(() -> new ResourceNotFoundException("Listing", "slug", slug));
+    return getListingBySlug(slug, currentUserId, null);
+  }
+
+  /**
+   * Get listing by slug at a version already read for its ETag, so the body never lags the tag:
+   * a cached copy stamped with another version is reloaded
+   */
+  public ListingResponse getListingBySlug(String slug, Long currentUserId, ListingVersion version) {
+    ListingResponse listing = detailCache.get(slug, version != null ? version.stamp() : null,
+        key -> transactionTemplate.execute(status -> listingRepository.findBySlug(key)
+            .map(found -> new ListingDetailCache.Entry(ListingResponse.fromEntity(found, null), stamp(
+                found.getId(), found.getUpdatedAt(), found.getUser().getUpdatedAt())))
+            .orElse(null)));
+    if (listing == null) {
+      throw new ResourceNotFoundException("Listing", "slug", slug);
+    }
 
     Boolean isSaved = currentUserId != null
-        && savedItemRepository.existsByUserIdAndListingId(currentUserId, listing.getId());
+        && savedItemService.isListingSaved(listing.getId(), currentUserId);
 
-    return ListingResponse.fromEntity(listing, isSaved);
+    return listing.toBuilder().isSaved(isSaved).build();
+  }
+
+  /**
+   * Version of a listing page for conditional GET, from updatedAt stamps and the viewer's saved
+   * flag; null if there is no such listing
+   */
+  @Transactional(readOnly = true)
+  public ListingVersion getListingVersion(String slug, Long currentUserId) {
+    List<Object[]> rows = listingRepository.findVersionBySlug(slug);
+    if (rows.isEmpty()) {
+      return null;
+    }
+    Object[] version = rows.get(0);
+    boolean isSaved = currentUserId != null
+        && savedItemService.isListingSaved((Long) version[0], currentUserId);
+    return new ListingVersion(stamp(version), isSaved);
+  }
+
+  /**
+   * [id, updatedAt, seller updatedAt] as one string, in the shape findVersionBySlug returns
+   */
+  private static String stamp(Object... version) {
+    return Arrays.toString(version);
+  }
+
+  /**
+   * A listing page's version: the updatedAt stamp (shared by every viewer) and the viewer's saved flag
+   */
+  public record ListingVersion(String stamp, boolean saved) {
+
+    public String etag() {
+      return "listing:" + stamp + ":" + saved;
+    }
   }
 
   /**
@@ -91,9 +173,9 @@ public class ListingService {
   }
 
   /**
-   * Browse listings with filters
+   * Browse listings with filters. Anonymous pages without search text are served from the
+   * browse cache, so concurrent requests for the same filters share one query.
    */
-  @Transactional(readOnly = true)
   public PagedResponse<ListingSummaryResponse> getListings(
       Category category,
       Condition condition,
@@ -105,6 +187,32 @@ public class ListingService {
       int size,
       Long currentUserId) {
 
+    if (search != null && !search.isBlank() && page == 0) {
+      eventPublisher.publishEvent(new ListingSearchedEvent(search.trim()));
+    }
+
+    if (currentUserId == null && (search == null || search.isBlank())) {
+      ListingBrowseCache.Key key = new ListingBrowseCache.Key(
+          category, condition, minPrice, maxPrice, normalizeSort(sortBy), page, size);
+      return browseCache.get(key, k -> transactionTemplate.execute(status ->
+          browse(category, condition, minPrice, maxPrice, null, k.sort(), page, size, null)));
+    }
+
+    return transactionTemplate.execute(status ->
+        browse(category, condition, minPrice, maxPrice, search, sortBy, page, size, currentUserId));
+  }
+
+  private PagedResponse<ListingSummaryResponse> browse(
+      Category category,
+      Condition condition,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      String search,
+      String sortBy,
+      int page,
+      int size,
+      Long currentUserId) {
+
     Sort sort = switch (sortBy != null ? sortBy.toLowerCase() : "newest") {
       case "price_asc" -> Sort.by("price").ascending();
       case "price_desc" -> Sort.by("price").descending();
@@ -114,27 +222,235 @@ public class ListingService {
 
     Pageable pageable = PageRequest.of(page, size, sort);
 
-    Page<Listing> listingsPage = listingRepository.findWithFilters(
-        ListingStatus.ACTIVE,
-        category,
-        condition,
-        minPrice,
-        maxPrice,
-        search,
-        pageable
-    );
-
-    List<ListingSummaryResponse> content = listingsPage.getContent().stream()
-        .map(listing -> {
-          Boolean isSaved = currentUserId != null
-              && savedItemRepository.existsByUserIdAndListingId(currentUserId, listing.getId());
-          return ListingSummaryResponse.fromEntity(listing, isSaved);
-        })
-        .toList();
+    Page<ListingSummaryView> listingsPage;
+    if (search != null && !search.isBlank() && searchIndex.isReady()) {
+      listingsPage = searchFromIndex(category, condition, minPrice, maxPrice, search, sortBy, pageable);
+    } else {
+      listingsPage = listingRepository.findWithFilters(
+          ListingStatus.ACTIVE,
+          category,
+          condition,
+          minPrice,
+          maxPrice,
+          search,
+          pageable
+      );
+    }
+
+    List<ListingSummaryResponse> content = toSummaries(listingsPage.getContent(), currentUserId);
 
     return PagedResponse.from(listingsPage, content);
   }
 
+  /**
+   * Text search served by the in-memory index; only the requested page is loaded from the database
+   */
+  private Page<ListingSummaryView> searchFromIndex(
+      Category category,
+      Condition condition,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      String search,
+      String sortBy,
+      Pageable pageable) {
+
+    List<ListingSearchIndex.Hit> hits = searchIndex.search(search, category, condition, minPrice, maxPrice);
+
+    List<Long> ids = hits.stream()
+        .sorted(hitOrder(sortBy))
+        .skip(pageable.getOffset())
+        .limit(pageable.getPageSize())
+        .map(ListingSearchIndex.Hit::id)
+        .toList();
+
+    return new PageImpl<>(loadInOrder(ids), pageable, hits.size());
+  }
+
+  /**
+   * Load listings by id keeping index order; skip rows whose status changed since the index was read
+   */
+  private List<ListingSummaryView> loadInOrder(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+
+    Map<Long, ListingSummaryView> byId = listingRepository.findSummariesByIdIn(ids).stream()
+        .collect(Collectors.toMap(ListingSummaryView::getId, Function.identity()));
+
+    return ids.stream()
+        .map(byId::get)
+        .filter(Objects::nonNull)
+        .filter(listing -> listing.getStatus() == ListingStatus.ACTIVE)
+        .toList();
+  }
+
+  /**
+   * Browse listings with keyset (cursor) pagination - no OFFSET scan and no count query
+   */
+  @Transactional(readOnly = true)
+  public CursorPagedResponse<ListingSummaryResponse> getListingsByCursor(
+      Category category,
+      Condition condition,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      String search,
+      String sortBy,
+      String cursor,
+      int size,
+      Long currentUserId) {
+
+    if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+      throw new BadRequestException("size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+    }
+
+    String sortKey = normalizeSort(sortBy);
+    ListingCursor after = ListingCursor.decode(cursor, sortKey);
+    if (search != null && !search.isBlank() && after == null) {
+      eventPublisher.publishEvent(new ListingSearchedEvent(search.trim()));
+    }
+
+    // Fetch one extra row to know whether another page exists
+    List<ListingSummaryView> rows;
+    if (search != null && !search.isBlank() && searchIndex.isReady()) {
+      rows = searchFromIndexAfter(category, condition, minPrice, maxPrice, search, sortKey, after, size + 1);
+    } else {
+      Pageable limit = PageRequest.of(0, size + 1);
+      LocalDateTime afterCreatedAt = after != null ? after.createdAt() : null;
+      BigDecimal afterPrice = after != null ? after.price() : null;
+      Long afterId = after != null ? after.id() : null;
+
+      rows = switch (sortKey) {
+        case "price_asc" -> listingRepository.findCheapestAfter(ListingStatus.ACTIVE, category, condition,
+            minPrice, maxPrice, search, afterPrice, afterId, limit);
+        case "price_desc" -> listingRepository.findPriciestAfter(ListingStatus.ACTIVE, category, condition,
+            minPrice, maxPrice, search, afterPrice, afterId, limit);
+        case "oldest" -> listingRepository.findOldestAfter(ListingStatus.ACTIVE, category, condition,
+            minPrice, maxPrice, search, afterCreatedAt, afterId, limit);
+        default -> listingRepository.findNewestAfter(ListingStatus.ACTIVE, category, condition,
+            minPrice, maxPrice, search, afterCreatedAt, afterId, limit);
+      };
+    }
+
+    boolean hasNext = rows.size() > size;
+    List<ListingSummaryView> pageRows = hasNext ? rows.subList(0, size) : rows;
+    String nextCursor = hasNext
+        ? ListingCursor.after(sortKey, pageRows.get(pageRows.size() - 1)).encode()
+        : null;
+
+    return CursorPagedResponse.of(toSummaries(pageRows, currentUserId), size, nextCursor);
+  }
+
+  private List<ListingSummaryView> searchFromIndexAfter(
+      Category category,
+      Condition condition,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      String search,
+      String sortKey,
+      ListingCursor after,
+      int limit) {
+
+    Comparator<ListingSearchIndex.Hit> order = hitOrder(sortKey);
+    ListingSearchIndex.Hit afterHit = after != null
+        ? new ListingSearchIndex.Hit(after.id(), after.price(), after.createdAt())
+        : null;
+
+    List<Long> ids = searchIndex.search(search, category, condition, minPrice, maxPrice).stream()
+        .filter(hit -> afterHit == null || order.compare(hit, afterHit) > 0)
+        .sorted(order)
+        .map(ListingSearchIndex.Hit::id)
+        .toList();
+
+    // loadInOrder drops hits that are no longer ACTIVE in the DB (e.g. changed on another node),
+    // so keep loading further hits until there are limit rows or none left
+    List<ListingSummaryView> rows = new ArrayList<>();
+    int from = 0;
+    while (rows.size() < limit && from < ids.size()) {
+      int to = Math.min(ids.size(), from + limit - rows.size());
+      rows.addAll(loadInOrder(ids.subList(from, to)));
+      from = to;
+    }
+    return rows;
+  }
+
+  /**
+   * Category, condition and price bucket counts for a browse/search, served from the search index
+   * in a single pass. Uses the same filters as getListings.
+   */
+  public ListingFacetsResponse getFacets(
+      Category category,
+      Condition condition,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      String search) {
+
+    if (!searchIndex.isReady()) {
+      throw new ServiceUnavailableException("Search is starting up. Please try again shortly.", 5);
+    }
+
+    ListingSearchIndex.Facets facets = searchIndex.facets(
+        search, category, condition, minPrice, maxPrice, FACET_PRICE_BOUNDS);
+
+    List<ListingFacetsResponse.PriceBucket> priceBuckets = new ArrayList<>();
+    for (int i = 0; i < facets.priceBuckets().length; i++) {
+      priceBuckets.add(ListingFacetsResponse.PriceBucket.builder()
+          .min(i > 0 ? FACET_PRICE_BOUNDS.get(i - 1) : null)
+          .max(i < FACET_PRICE_BOUNDS.size() ? FACET_PRICE_BOUNDS.get(i) : null)
+          .count(facets.priceBuckets()[i])
+          .build());
+    }
+
+    return ListingFacetsResponse.builder()
+        .total(facets.total())
+        .categories(facets.categories().entrySet().stream()
+            .map(entry -> ListingFacetsResponse.ValueCount.<Category>builder()
+                .value(entry.getKey())
+                .displayName(entry.getKey().getDisplayName())
+                .count(entry.getValue())
+                .build())
+            .toList())
+        .conditions(facets.conditions().entrySet().stream()
+            .map(entry -> ListingFacetsResponse.ValueCount.<Condition>builder()
+                .value(entry.getKey())
+                .displayName(entry.getKey().getDisplayName())
+                .count(entry.getValue())
+                .build())
+            .toList())
+        .priceBuckets(priceBuckets)
+        .build();
+  }
+
+  /**
+   * Search-box completions from the in-memory title index; empty until the index is built
+   */
+  public List<String> getSuggestions(String query, int limit) {
+    if (!searchIndex.isReady() || query == null || query.isBlank()) {
+      return List.of();
+    }
+    return searchIndex.suggest(query, Math.max(1, limit));
+  }
+
+  private static String normalizeSort(String sortBy) {
+    String sortKey = sortBy != null ? sortBy.toLowerCase() : "newest";
+    return switch (sortKey) {
+      case "price_asc", "price_desc", "oldest" -> sortKey;
+      default -> "newest";
+    };
+  }
+
+  private static Comparator<ListingSearchIndex.Hit> hitOrder(String sortBy) {
+    return switch (sortBy != null ? sortBy.toLowerCase() : "newest") {
+      case "price_asc" -> Comparator.comparing(ListingSearchIndex.Hit::price)
+          .thenComparing(ListingSearchIndex.Hit::id);
+      case "price_desc" -> Comparator.comparing(ListingSearchIndex.Hit::price).reversed()
+          .thenComparing(ListingSearchIndex.Hit::id, Comparator.reverseOrder());
+      case "oldest" -> Comparator.comparing(ListingSearchIndex.Hit::createdAt)
+          .thenComparing(ListingSearchIndex.Hit::id);
+      default -> Comparator.comparing(ListingSearchIndex.Hit::createdAt).reversed()
+          .thenComparing(ListingSearchIndex.Hit::id, Comparator.reverseOrder());
+    };
+  }
+
   /**
    * Get listings by user
    */
@@ -144,14 +460,32 @@ public class ListingService {
       throw new ResourceNotFoundException("User", "id", userId);
     }
 
-    List<Listing> listings = listingRepository.findByUserIdAndStatusNot(userId, ListingStatus.DELETED);
+    List<ListingSummaryView> listings =
+        listingRepository.findSummariesByUserIdAndStatusNot(userId, ListingStatus.DELETED);
+
+    return toSummaries(listings, currentUserId);
+  }
+
+  /**
+   * Version of a user's listings for conditional GET; null if there is no such user
+   */
+  @Transactional(readOnly = true)
+  public String getListingsByUserVersion(Long userId, Long currentUserId) {
+    Optional<LocalDateTime> sellerUpdatedAt = userRepository.findUpdatedAtById(userId);
+    if (sellerUpdatedAt.isEmpty()) {
+      return null;
+    }
+    Object[] listings = listingRepository.findVersionByUserIdAndStatusNot(userId, ListingStatus.DELETED).get(0);
+    String saved = currentUserId != null ? savedItemService.getSavedVersion(currentUserId, userId) : "-";
+    return "user-listings:" + userId + ":" + sellerUpdatedAt.get() + ":" + Arrays.toString(listings) + ":" + saved;
+  }
+
+  private List<ListingSummaryResponse> toSummaries(List<ListingSummaryView> listings, Long currentUserId) {
+    Set<Long> savedIds = savedItemService.getSavedListingIds(
+        currentUserId, listings.stream().map(ListingSummaryView::getId).toList());
 
     return listings.stream()
-        .map(listing -> {
-          Boolean isSaved = currentUserId != null
-              && savedItemRepository.existsByUserIdAndListingId(currentUserId, listing.getId());
-          return ListingSummaryResponse.fromEntity(listing, isSaved);
-        })
+        .map(listing -> ListingSummaryResponse.fromView(listing, savedIds.contains(listing.getId())))
         .toList();
   }
 
@@ -166,6 +500,7 @@ public class ListingService {
       throw new ForbiddenException("You can only edit your own listings");
     }
 
+    ListingChangedEvent.Snapshot before = ListingChangedEvent.Snapshot.of(listing);
     listing.setTitle(request.getTitle().trim());
     listing.setDescription(request.getDescription() != null ? request.getDescription().trim() : null);
     listing.setPrice(request.getPrice());
@@ -173,9 +508,11 @@ public class ListingService {
     listing.setCondition(request.getCondition());
 
     Listing updated = listingRepository.save(listing);
+    searchIndex.index(updated);
+    eventPublisher.publishEvent(ListingChangedEvent.updated(before, updated));
     log.info("Listing updated: {} by user {}", updated.getSlug(), userId);
 
-    Boolean isSaved = savedItemRepository.existsByUserIdAndListingId(userId, listing.getId());
+    Boolean isSaved = savedItemService.isListingSaved(listing.getId(), userId);
     return ListingResponse.fromEntity(updated, isSaved);
   }
 
@@ -190,8 +527,11 @@ public class ListingService {
       throw new ForbiddenException("You can only delete your own listings");
     }
 
+    ListingChangedEvent.Snapshot before = ListingChangedEvent.Snapshot.of(listing);
     listing.setStatus(ListingStatus.DELETED);
     listingRepository.save(listing);
+    searchIndex.remove(listing.getId());
+    eventPublisher.publishEvent(ListingChangedEvent.updated(before, listing));
     log.info("Listing deleted: {} by user {}", listing.getSlug(), userId);
   }
 
@@ -206,11 +546,14 @@ public class ListingService {
       throw new ForbiddenException("You can only update your own listings");
     }
 
+    ListingChangedEvent.Snapshot before = ListingChangedEvent.Snapshot.of(listing);
     listing.setStatus(ListingStatus.SOLD);
     Listing updated = listingRepository.save(listing);
+    searchIndex.remove(listing.getId());
+    eventPublisher.publishEvent(ListingChangedEvent.updated(before, updated));
     log.info("Listing marked as sold: {} by user {}", listing.getSlug(), userId);
 
-    Boolean isSaved = savedItemRepository.existsByUserIdAndListingId(userId, listing.getId());
+    Boolean isSaved = savedItemService.isListingSaved(listing.getId(), userId);
     return ListingResponse.fromEntity(updated, isSaved);
   }
 
@@ -225,14 +568,17 @@ public class ListingService {
       throw new ForbiddenException("You can only bump your own listings");
     }
 
+    ListingChangedEvent.Snapshot before = ListingChangedEvent.Snapshot.of(listing);
     listing.setCreatedAt(LocalDateTime.now());
     listing.setExpiresAt(LocalDateTime.now().plusDays(expiryDays));
     listing.setStatus(ListingStatus.ACTIVE);
 
     Listing updated = listingRepository.save(listing);
+    searchIndex.index(updated);
+    eventPublisher.publishEvent(ListingChangedEvent.updated(before, updated));
     log.info("Listing bumped: {} by user {}", listing.getSlug(), userId);
 
-    Boolean isSaved = savedItemRepository.existsByUserIdAndListingId(userId, listing.getId());
+    Boolean isSaved = savedItemService.isListingSaved(listing.getId(), userId);
     return ListingResponse.fromEntity(updated, isSaved);
   }
 
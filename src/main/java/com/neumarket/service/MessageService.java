@@ -2,6 +2,9 @@ package com.neumarket.service;
 
 import com.neumarket.dto.request.MessageRequest;
 import com.neumarket.dto.response.ChatMessageResponse;
+import com.neumarket.dto.response.CursorPagedResponse;
+import com.neumarket.event.MessageSentEvent;
+import com.neumarket.event.MessagesReadEvent;
 import com.neumarket.exception.BadRequestException;
 import com.neumarket.exception.ForbiddenException;
 import com.neumarket.exception.ResourceNotFoundException;
@@ -13,9 +16,13 @@ import com.neumarket.repository.MessageRepository;
 import com.neumarket.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -26,23 +33,23 @@ public class MessageService {
   private final MessageRepository messageRepository;
   private final ConversationRepository conversationRepository;
   private final UserRepository userRepository;
+  private final UnreadCounterService unreadCounterService;
+  private final ApplicationEventPublisher eventPublisher;
+
+  private static final int MAX_PAGE_LIMIT = 100;
 
   /**
-   * Get all messages in a conversation
+   * Get the newest page of messages in a conversation, or the page older than beforeId.
+   * Content is oldest-first; nextCursor is the id to pass as ?before= for older history.
    */
   @Transactional
-  public List<ChatMessageResponse> getMessages(Long conversationId, Long userId) {
+  public CursorPagedResponse<ChatMessageResponse> getMessages(Long conversationId, Long beforeId, int limit, Long userId) {
     Conversation conversation = getConversationWithAccessCheck(conversationId, userId);
 
     // Mark messages as read (messages sent by the OTHER person)
-    messageRepository.markMessagesAsRead(conversationId, userId);
-
-    // Get all messages
-    List<Message> messages = messageRepository.findByConversationIdOrderByCreatedAtAsc(conversationId);
+    markReadAndPublish(conversation, userId);
 
-    return messages.stream()
-        .map(msg -> ChatMessageResponse.fromEntity(msg, userId))
-        .toList();
+    return loadPage(conversationId, beforeId, limit, userId);
   }
 
   /**
@@ -70,13 +77,20 @@ public class MessageService {
 
     Message saved = messageRepository.save(message);
 
-    // Update conversation's updatedAt timestamp
+    // Update conversation's updatedAt timestamp and inbox preview
     conversation.setUpdatedAt(java.time.LocalDateTime.now());
+    conversation.recordLastMessage(saved);
     conversationRepository.save(conversation);
 
     log.info("Message sent in conversation {} by user {}", conversationId, senderId);
 
-    return ChatMessageResponse.fromEntity(saved, senderId);
+    ChatMessageResponse response = ChatMessageResponse.fromEntity(saved, senderId);
+    Long recipientId = conversation.getOtherParticipant(senderId).getId();
+    unreadCounterService.messageSent(conversationId, recipientId);
+    eventPublisher.publishEvent(new MessageSentEvent(
+        conversationId, senderId, recipientId, response, ChatMessageResponse.fromEntity(saved, recipientId)));
+
+    return response;
   }
 
   /**
@@ -85,21 +99,32 @@ public class MessageService {
   @Transactional
   public void markAsRead(Long conversationId, Long userId) {
     // Verify access
-    getConversationWithAccessCheck(conversationId, userId);
+    Conversation conversation = getConversationWithAccessCheck(conversationId, userId);
 
     // Mark messages as read
-    messageRepository.markMessagesAsRead(conversationId, userId);
+    markReadAndPublish(conversation, userId);
     log.info("Messages marked as read in conversation {} for user {}", conversationId, userId);
   }
 
+  /**
+   * Helper: Mark the other participant's messages as read and announce it if anything changed
+   */
+  private void markReadAndPublish(Conversation conversation, Long userId) {
+    int marked = messageRepository.markMessagesAsRead(conversation.getId(), userId);
+    if (marked > 0) {
+      unreadCounterService.messagesRead(conversation.getId(), userId, marked);
+      Long senderId = conversation.getOtherParticipant(userId).getId();
+      eventPublisher.publishEvent(new MessagesReadEvent(conversation.getId(), userId, senderId, marked));
+    }
+  }
+
   /**
    * Get unread message count for a conversation
    */
   @Transactional(readOnly = true)
   public int getUnreadCount(Long conversationId, Long userId) {
-    // Verify access
-    getConversationWithAccessCheck(conversationId, userId);
-    return messageRepository.countUnreadMessages(conversationId, userId);
+    // Verify access; the counter comes with the row
+    return getConversationWithAccessCheck(conversationId, userId).getUnreadCountFor(userId);
   }
 
   /**
@@ -117,28 +142,44 @@ public class MessageService {
   }
 
   /**
-   * Get all messages in a conversation for admin oversight (bypasses participant checks)
+   * Get a page of messages in a conversation for admin oversight (bypasses participant checks)
    */
   @Transactional(readOnly = true)
-  public List<ChatMessageResponse> getMessagesForAdmin(Long conversationId) {
+  public CursorPagedResponse<ChatMessageResponse> getMessagesForAdmin(Long conversationId, Long beforeId, int limit) {
     // Check if conversation exists
     if (!conversationRepository.existsById(conversationId)) {
       throw new ResourceNotFoundException("Conversation", "id", conversationId);
     }
 
-    // Get all messages ordered by creation date
-    List<Message> messages = messageRepository.findByConversationIdOrderByCreatedAtAsc(conversationId);
+    // Pass null for userId so that 'isOwnMessage' is false for all
+    return loadPage(conversationId, beforeId, limit, null);
+  }
+
+  /**
+   * Helper: Seek one page below beforeId (newest first), then flip it to chronological order
+   */
+  private CursorPagedResponse<ChatMessageResponse> loadPage(Long conversationId, Long beforeId, int limit, Long userId) {
+    if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+      throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_LIMIT);
+    }
+
+    // One extra row tells us whether older history exists without a count query
+    List<Message> rows = messageRepository.findPageBefore(conversationId, beforeId, PageRequest.of(0, limit + 1));
+    boolean hasOlder = rows.size() > limit;
+    List<Message> page = new ArrayList<>(hasOlder ? rows.subList(0, limit) : rows);
+    Collections.reverse(page);
 
-    // Map to response DTOs. Pass null for userId so that 'isOwnMessage' is false for all
-    return messages.stream()
-        .map(msg -> ChatMessageResponse.fromEntity(msg, null))
+    String nextCursor = hasOlder ? String.valueOf(page.get(0).getId()) : null;
+    List<ChatMessageResponse> content = page.stream()
+        .map(msg -> ChatMessageResponse.fromEntity(msg, userId))
         .toList();
+
+    return CursorPagedResponse.of(content, limit, nextCursor);
   }
 
 
-  @Transactional(readOnly = true)
   public int getTotalUnreadCount(Long userId) {
-    return messageRepository.countTotalUnreadMessages(userId); //
+    return unreadCounterService.getTotalUnread(userId);
   }
 
 }
\ No newline at end of file
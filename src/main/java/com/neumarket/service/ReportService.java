@@ -5,6 +5,7 @@ import com.neumarket.dto.response.ApiResponse;
 import com.neumarket.dto.response.ReportResponse;
 import com.neumarket.enums.ReportStatus;
 import com.neumarket.enums.ReportType;
+import com.neumarket.event.ReportChangedEvent;
 import com.neumarket.exception.BadRequestException;
 import com.neumarket.exception.ResourceNotFoundException;
 import com.neumarket.model.Report;
@@ -12,6 +13,7 @@ import com.neumarket.model.User;
 import com.neumarket.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,7 @@ public class ReportService {
   private final UserRepository userRepository;
   private final ListingRepository listingRepository;
   private final MessageRepository messageRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * Create a new report (user action)
@@ -57,6 +60,7 @@ public class ReportService {
         .build();
 
     Report saved = reportRepository.save(report);
+    eventPublisher.publishEvent(new ReportChangedEvent(saved.getId(), null, saved.getStatus(), saved.getCreatedAt()));
     log.info("Report created: {} reported {} #{} for {}",
         reporterId, request.getReportType(), request.getTargetId(), request.getReason());
 
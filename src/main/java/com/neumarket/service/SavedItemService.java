@@ -1,5 +1,6 @@
 package com.neumarket.service;
 
+import com.neumarket.dto.projection.ListingSummaryView;
 import com.neumarket.dto.response.SavedItemResponse;
 import com.neumarket.enums.ListingStatus;
 import com.neumarket.exception.BadRequestException;
@@ -15,7 +16,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -32,10 +39,22 @@ public class SavedItemService {
   @Transactional(readOnly = true)
   public List<SavedItemResponse> getSavedItems(Long userId) {
     List<SavedItem> savedItems = savedItemRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    if (savedItems.isEmpty()) {
+      return List.of();
+    }
+
+    // Listing cards for the whole list in one query (getListing().getId() does not initialize the proxy)
+    Map<Long, ListingSummaryView> listings = listingRepository.findSummariesByIdIn(
+            savedItems.stream().map(saved -> saved.getListing().getId()).toList())
+        .stream()
+        .collect(Collectors.toMap(ListingSummaryView::getId, Function.identity()));
 
     return savedItems.stream()
-        .filter(saved -> saved.getListing().getStatus() != ListingStatus.DELETED) // Filter out deleted items
-        .map(SavedItemResponse::fromEntity)
+        .filter(saved -> {
+          ListingSummaryView listing = listings.get(saved.getListing().getId());
+          return listing != null && listing.getStatus() != ListingStatus.DELETED; // Filter out deleted items
+        })
+        .map(saved -> SavedItemResponse.fromView(saved, listings.get(saved.getListing().getId())))
         .toList();
   }
 
@@ -91,4 +110,23 @@ public class SavedItemService {
   public boolean isListingSaved(Long listingId, Long userId) {
     return savedItemRepository.existsByUserIdAndListingId(userId, listingId);
   }
-}
\ No newline at end of file
+
+  /**
+   * Changes whenever the user saves or unsaves one of the seller's listings
+   */
+  @Transactional(readOnly = true)
+  public String getSavedVersion(Long userId, Long sellerId) {
+    return Arrays.toString(savedItemRepository.findVersionByUserIdAndSellerId(userId, sellerId).get(0));
+  }
+
+  /**
+   * Resolve saved flags for a whole page of listings in one query
+   */
+  @Transactional(readOnly = true)
+  public Set<Long> getSavedListingIds(Long userId, Collection<Long> listingIds) {
+    if (userId == null || listingIds.isEmpty()) {
+      return Set.of();
+    }
+    return savedItemRepository.findSavedListingIds(userId, listingIds);
+  }
+}
@@ -0,0 +1,97 @@
+package com.neumarket.service;
+
+import com.neumarket.model.StoredBlob;
+import com.neumarket.repository.StoredBlobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Content-addressed index of uploaded images with reference counting.
+ *
+ * Identical uploads (same SHA-256) share one stored blob. Each ListingImage holds a
+ * reference, and an upload takes its reference before it writes anything, so content
+ * that is being re-used can't be deleted underneath it. Content is queued for deletion
+ * from storage only when its last reference is released.
+ *
+ * Stored blobs keep their own unique names rather than being named by hash: a re-upload
+ * racing with the deletion of the same content then writes a new name and can't be
+ * removed by the older delete.
+ */
+@Service
+@RequiredArgsConstructor
+public class StoredBlobService {
+
+  private final StoredBlobRepository storedBlobRepository;
+  private final BlobDeletionService blobDeletionService;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Take a reference to already stored content; empty if we don't have it
+   */
+  public Optional<StoredBlob> reserve(String sha256) {
+    return transactionTemplate.execute(status -> {
+      if (storedBlobRepository.incrementRefCount(sha256) == 0) {
+        return Optional.<StoredBlob>empty();
+      }
+      return storedBlobRepository.findBySha256(sha256);
+    });
+  }
+
+  /**
+   * Record content the caller just stored, holding one reference to it.
+   * If an identical upload registered first, the caller's copy is deleted and a reference
+   * to the other one taken instead. Empty means that one was released meanwhile too,
+   * and the caller should store the content again.
+   */
+  public Optional<StoredBlob> register(String sha256, String blobName, String url, long size, String contentType) {
+    try {
+      return Optional.of(transactionTemplate.execute(status -> storedBlobRepository.saveAndFlush(StoredBlob.builder()
+          .sha256(sha256)
+          .blobName(blobName)
+          .url(url)
+          .size(size)
+          .contentType(contentType)
+          .build())));
+    } catch (DataIntegrityViolationException e) {
+      blobDeletionService.enqueue(List.of(blobName));
+      return reserve(sha256);
+    }
+  }
+
+  /**
+   * Drop one reference per id (ids may repeat). Content whose last reference goes
+   * is queued for deletion from storage in the same transaction.
+   */
+  @Transactional
+  public void release(Collection<Long> storedBlobIds) {
+    if (storedBlobIds.isEmpty()) {
+      return;
+    }
+
+    Map<Long, Long> counts = storedBlobIds.stream()
+        .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    // Fixed order so concurrent releases lock rows the same way round
+    new TreeMap<>(counts).forEach((id, count) -> storedBlobRepository.decrementRefCount(id, count.intValue()));
+
+    List<StoredBlob> unreferenced = storedBlobRepository.findUnreferenced(counts.keySet());
+    if (unreferenced.isEmpty()) {
+      return;
+    }
+    storedBlobRepository.deleteUnreferenced(counts.keySet());
+
+    List<String> blobNames = new ArrayList<>();
+    for (StoredBlob blob : unreferenced) {
+      blobNames.add(blob.getBlobName());
+      blobNames.add(ImageVariantService.variantName(blob.getBlobName(), "thumb"));
+      blobNames.add(ImageVariantService.variantName(blob.getBlobName(), "medium"));
+    }
+    blobDeletionService.enqueue(blobNames);
+  }
+}
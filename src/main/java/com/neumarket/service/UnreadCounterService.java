@@ -0,0 +1,130 @@
+package com.neumarket.service;
+
+import com.neumarket.event.MessageSentEvent;
+import com.neumarket.event.MessagesReadEvent;
+import com.neumarket.repository.ConversationRepository;
+import com.neumarket.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Maintains unread message counters so badge reads never scan the messages table.
+ *
+ * Durable counters live on Conversation (per participant) and User (total) and are
+ * adjusted with atomic single-row updates in the sending / reading transaction.
+ * Totals are cached in memory; a user's entry is evicted after any commit that changes
+ * it and reloaded by primary key on the next read. Evicting rather than applying the
+ * delta means a reload that already saw the committed value can't be counted twice.
+ *
+ * The cache is per node and only evicted by commits on this node, so entries also expire
+ * after a short TTL: a change made through another node shows up within that window.
+ * It is size-bounded so idle users don't accumulate.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UnreadCounterService {
+
+  private final ConversationRepository conversationRepository;
+  private final UserRepository userRepository;
+
+  @Value("${app.cache.unread-totals.max-entries:50000}")
+  private long maxEntries;
+
+  @Value("${app.cache.unread-totals.ttl-seconds:30}")
+  private long ttlSeconds;
+
+  private Cache<Long, Integer> totals;
+
+  @PostConstruct
+  public void init() {
+    totals = Caffeine.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+        .build();
+  }
+
+  /**
+   * Total unread messages for a user - served from memory after the first read
+   */
+  public int getTotalUnread(Long userId) {
+    // The load holds the key's entry, so a concurrent eviction waits and then removes
+    // what was loaded instead of being overwritten by it
+    return totals.get(userId, id -> userRepository.findUnreadMessageCount(id).orElse(0));
+  }
+
+  /**
+   * Count a new message against its recipient; must run in the sending transaction
+   */
+  public void messageSent(Long conversationId, Long recipientId) {
+    conversationRepository.incrementUnread(conversationId, recipientId);
+    userRepository.incrementUnreadMessageCount(recipientId);
+  }
+
+  /**
+   * Release messages the reader just marked read; must run in the reading transaction
+   */
+  public void messagesRead(Long conversationId, Long readerId, int markedRead) {
+    if (markedRead <= 0) {
+      return;
+    }
+    conversationRepository.decrementUnread(conversationId, readerId, markedRead);
+    userRepository.decrementUnreadMessageCount(readerId, markedRead);
+  }
+
+  // Run ahead of other after-commit listeners (e.g. the chat stream) so they read fresh totals
+
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onMessageSent(MessageSentEvent event) {
+    totals.invalidate(event.recipientId());
+  }
+
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onMessagesRead(MessagesReadEvent event) {
+    totals.invalidate(event.readerId());
+  }
+
+  /**
+   * Recompute counters from the messages table to correct any drift
+   * (cascade deletes, manual fixes, crashes between commit and eviction).
+   * Runs at startup to seed counters for existing data, then every night.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "0 30 3 * * ?") // 3:30 AM every day
+  @Transactional
+  public void reconcile() {
+    int conversations = conversationRepository.reconcileUnreadCounts();
+    int users = userRepository.reconcileUnreadMessageCounts();
+
+    // Clearing before commit would let a read re-cache the pre-reconcile totals
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        totals.invalidateAll();
+      }
+    });
+
+    if (conversations > 0 || users > 0) {
+      log.warn("Unread counter drift corrected: {} conversations, {} users", conversations, users);
+    }
+  }
+}
@@ -2,11 +2,13 @@ package com.neumarket.service;
 
 import com.neumarket.dto.request.UpdateUserRequest;
 import com.neumarket.dto.response.UserResponse;
+import com.neumarket.event.UserChangedEvent;
 import com.neumarket.exception.ResourceNotFoundException;
 import com.neumarket.model.User;
 import com.neumarket.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserService {
 
   private final UserRepository userRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * Get current user's profile
@@ -35,12 +38,23 @@ public class UserService {
     return UserResponse.publicFromEntity(user);
   }
 
+  /**
+   * Version of a public profile for conditional GET; null if there is no such user
+   */
+  @Transactional(readOnly = true)
+  public String getPublicProfileVersion(Long userId) {
+    return userRepository.findUpdatedAtById(userId)
+        .map(updatedAt -> "user:" + userId + ":" + updatedAt)
+        .orElse(null);
+  }
+
   /**
    * Update current user's profile
    */
   @Transactional
   public UserResponse updateProfile(Long userId, UpdateUserRequest request) {
     User user = getUserById(userId);
+    UserChangedEvent.Snapshot before = UserChangedEvent.Snapshot.of(user);
 
     if (request.getName() != null) {
       user.setName(request.getName().trim());
@@ -51,6 +65,7 @@ public class UserService {
     }
 
     User updated = userRepository.save(user);
+    eventPublisher.publishEvent(UserChangedEvent.updated(before, updated));
     log.info("User profile updated: {}", userId);
 
     return UserResponse.fromEntity(updated);
@@ -62,8 +77,10 @@ public class UserService {
   @Transactional
   public UserResponse updateProfilePicture(Long userId, String profilePicUrl) {
     User user = getUserById(userId);
+    UserChangedEvent.Snapshot before = UserChangedEvent.Snapshot.of(user);
     user.setProfilePicUrl(profilePicUrl);
     User updated = userRepository.save(user);
+    eventPublisher.publishEvent(UserChangedEvent.updated(before, updated));
     log.info("User profile picture updated: {}", userId);
     return UserResponse.fromEntity(updated);
   }
@@ -0,0 +1,64 @@
+package com.neumarket.stats;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Counts per hour over a sliding window, kept in a ring of hour slots.
+ * Not thread-safe; callers synchronize.
+ */
+public class HourlyCounter {
+
+  private final long[] counts;
+  // Epoch hour each slot currently holds; a slot holding an older hour is treated as empty
+  private final long[] hours;
+
+  public HourlyCounter(int windowHours) {
+    counts = new long[windowHours];
+    hours = new long[windowHours];
+    Arrays.fill(hours, Long.MIN_VALUE);
+  }
+
+  /**
+   * Add to the hour containing the given time; times outside the window are ignored
+   */
+  public void add(LocalDateTime at, long delta) {
+    if (at == null) {
+      return;
+    }
+    long hour = epochHour(at);
+    long now = epochHour(LocalDateTime.now());
+    if (hour > now || hour <= now - counts.length) {
+      return;
+    }
+
+    int slot = (int) Math.floorMod(hour, (long) counts.length);
+    if (hours[slot] != hour) {
+      hours[slot] = hour;
+      counts[slot] = 0;
+    }
+    counts[slot] += delta;
+  }
+
+  /**
+   * Total from the start of the hour containing "from" up to now
+   */
+  public long sumSince(LocalDateTime from) {
+    long now = epochHour(LocalDateTime.now());
+    long start = Math.max(epochHour(from), now - counts.length + 1);
+
+    long sum = 0;
+    for (long hour = start; hour <= now; hour++) {
+      int slot = (int) Math.floorMod(hour, (long) counts.length);
+      if (hours[slot] == hour) {
+        sum += counts[slot];
+      }
+    }
+    return sum;
+  }
+
+  private static long epochHour(LocalDateTime time) {
+    return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+  }
+}
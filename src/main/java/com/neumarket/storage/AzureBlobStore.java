@@ -0,0 +1,80 @@
+package com.neumarket.storage;
+
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
+import com.azure.storage.blob.BlobClient;
+import com.azure.core.http.rest.PagedResponse;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.models.BlobHttpHeaders;
+import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.ListBlobsOptions;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import lombok.RequiredArgsConstructor;
+
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Azure Blob Storage container; blobs are served directly by Azure
+ */
+@RequiredArgsConstructor
+public class AzureBlobStore implements BlobStore {
+
+  private final BlobContainerClient containerClient;
+
+  @Override
+  public String put(String name, InputStream content, long length, String contentType) {
+    // The SDK streams the body, splitting large ones into blocks
+    BlobClient blobClient = containerClient.getBlobClient(name);
+    blobClient.uploadWithResponse(
+        new BlobParallelUploadOptions(BinaryData.fromStream(content, length))
+            .setHeaders(new BlobHttpHeaders()
+                .setContentType(contentType)
+                .setCacheControl("public, max-age=31536000, immutable")),
+        null, Context.NONE);
+    return blobClient.getBlobUrl();
+  }
+
+  @Override
+  public InputStream open(String name) {
+    return containerClient.getBlobClient(name).openInputStream();
+  }
+
+  @Override
+  public void delete(String name) {
+    containerClient.getBlobClient(name).deleteIfExists();
+  }
+
+  @Override
+  public String urlFor(String name) {
+    return containerClient.getBlobClient(name).getBlobUrl();
+  }
+
+  @Override
+  public String nameFromUrl(String url) {
+    String containerPath = "/" + containerClient.getBlobContainerName() + "/";
+    int at = url == null ? -1 : url.indexOf(containerPath);
+    return at < 0 ? null : url.substring(at + containerPath.length());
+  }
+
+  @Override
+  public BlobPage list(String continuationToken, int maxResults) {
+    Iterator<PagedResponse<BlobItem>> pages = containerClient
+        .listBlobs(new ListBlobsOptions().setMaxResultsPerPage(maxResults), continuationToken, null)
+        .iterableByPage(continuationToken, maxResults)
+        .iterator();
+    if (!pages.hasNext()) {
+      return new BlobPage(List.of(), null);
+    }
+
+    PagedResponse<BlobItem> page = pages.next();
+    List<BlobInfo> blobs = page.getValue().stream()
+        .map(item -> new BlobInfo(
+            item.getName(),
+            item.getProperties().getContentLength(),
+            item.getProperties().getLastModified().toInstant()))
+        .toList();
+    return new BlobPage(blobs, page.getContinuationToken());
+  }
+}
@@ -0,0 +1,52 @@
+package com.neumarket.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Where uploaded files live. Names are storage-relative paths like "listing-12/uuid.jpg";
+ * URLs are what clients fetch.
+ */
+public interface BlobStore {
+
+  /**
+   * Store (or overwrite) a blob, streaming from the given input, and return its public URL
+   */
+  String put(String name, InputStream content, long length, String contentType) throws IOException;
+
+  /**
+   * Open a stored blob for reading
+   */
+  InputStream open(String name) throws IOException;
+
+  /**
+   * Delete a blob if it exists
+   */
+  void delete(String name) throws IOException;
+
+  /**
+   * Public URL of a blob
+   */
+  String urlFor(String name);
+
+  /**
+   * Blob name behind a public URL, or null if the URL is not served by this store
+   */
+  String nameFromUrl(String url);
+
+  /**
+   * One page of stored blobs in name order; pass the previous page's token for the next
+   */
+  BlobPage list(String continuationToken, int maxResults) throws IOException;
+
+  record BlobInfo(String name, long size, Instant lastModified) {
+  }
+
+  /**
+   * continuationToken is null on the last page
+   */
+  record BlobPage(List<BlobInfo> blobs, String continuationToken) {
+  }
+}
@@ -0,0 +1,126 @@
+package com.neumarket.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Blobs as files under a root directory, served by BlobFileController.
+ *
+ * Writes stream into a temp file through a FileChannel and are moved into place
+ * atomically, so readers never see a half-written blob.
+ */
+@Slf4j
+public class LocalBlobStore implements BlobStore {
+
+  private final Path root;
+  private final String publicBaseUrl;
+
+  public LocalBlobStore(Path root, String publicBaseUrl) throws IOException {
+    this.root = root.toAbsolutePath().normalize();
+    this.publicBaseUrl = publicBaseUrl.endsWith("/") ? publicBaseUrl : publicBaseUrl + "/";
+    Files.createDirectories(this.root);
+    log.info("Local blob storage at {}, served from {}", this.root, this.publicBaseUrl);
+  }
+
+  @Override
+  public String put(String name, InputStream content, long length, String contentType) throws IOException {
+    Path target = resolve(name);
+    Files.createDirectories(target.getParent());
+    Path temp = target.resolveSibling(target.getFileName() + "." + System.nanoTime() + ".part");
+
+    try (FileChannel out = FileChannel.open(temp, CREATE_NEW, WRITE);
+         ReadableByteChannel in = Channels.newChannel(content)) {
+      long written = 0;
+      while (written < length) {
+        long n = out.transferFrom(in, written, length - written);
+        if (n <= 0) {
+          break;
+        }
+        written += n;
+      }
+      if (written != length) {
+        throw new IOException("Expected " + length + " bytes for " + name + " but got " + written);
+      }
+      out.force(false);
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    return urlFor(name);
+  }
+
+  @Override
+  public InputStream open(String name) throws IOException {
+    return Files.newInputStream(resolve(name));
+  }
+
+  @Override
+  public void delete(String name) throws IOException {
+    Files.deleteIfExists(resolve(name));
+  }
+
+  @Override
+  public String urlFor(String name) {
+    return publicBaseUrl + name;
+  }
+
+  @Override
+  public String nameFromUrl(String url) {
+    return url != null && url.startsWith(publicBaseUrl) ? url.substring(publicBaseUrl.length()) : null;
+  }
+
+  /**
+   * Walks the whole tree per page, which is fine for the single-box setups this store is for.
+   * The continuation token is the last name returned.
+   */
+  @Override
+  public BlobPage list(String continuationToken, int maxResults) throws IOException {
+    List<String> names;
+    try (Stream<Path> files = Files.walk(root)) {
+      names = files
+          .filter(Files::isRegularFile)
+          .map(path -> root.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/"))
+          .filter(name -> !name.endsWith(".part"))
+          .filter(name -> continuationToken == null || name.compareTo(continuationToken) > 0)
+          .sorted()
+          .limit(maxResults + 1L)
+          .toList();
+    }
+
+    boolean more = names.size() > maxResults;
+    List<BlobInfo> blobs = new ArrayList<>(Math.min(names.size(), maxResults));
+    for (String name : more ? names.subList(0, maxResults) : names) {
+      try {
+        BasicFileAttributes attributes = Files.readAttributes(resolve(name), BasicFileAttributes.class);
+        blobs.add(new BlobInfo(name, attributes.size(), attributes.lastModifiedTime().toInstant()));
+      } catch (NoSuchFileException e) {
+        // Deleted since the walk
+      }
+    }
+    return new BlobPage(blobs, more ? names.get(maxResults - 1) : null);
+  }
+
+  /**
+   * Path of a blob on disk; rejects names that would escape the root
+   */
+  public Path resolve(String name) {
+    Path path = root.resolve(name).normalize();
+    if (!path.startsWith(root) || path.equals(root)) {
+      throw new InvalidPathException(name, "Blob name outside storage root");
+    }
+    return path;
+  }
+}
@@ -0,0 +1,122 @@
+package com.neumarket.cache;
+
+import com.neumarket.dto.response.ListingSummaryResponse;
+import com.neumarket.dto.response.PagedResponse;
+import com.neumarket.enums.Category;
+import com.neumarket.enums.ListingStatus;
+import com.neumarket.event.ListingChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListingBrowseCacheTests {
+
+  private ListingBrowseCache cache;
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    cache = new ListingBrowseCache(new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(cache, "maxEntries", 100L);
+    ReflectionTestUtils.setField(cache, "ttlSeconds", 30L);
+    cache.init();
+  }
+
+  @Test
+  void concurrentMissesShareOneLoad() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<PagedResponse<ListingSummaryResponse>>> pages = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        pages.add(pool.submit(() -> cache.get(key(null), key -> {
+          loads.incrementAndGet();
+          await(release);
+          return page();
+        })));
+      }
+      Thread.sleep(100);
+      release.countDown();
+
+      for (Future<PagedResponse<ListingSummaryResponse>> page : pages) {
+        assertThat(page.get(5, TimeUnit.SECONDS)).isNotNull();
+      }
+      assertThat(loads).hasValue(1);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void priceFiltersAreNormalized() {
+    cache.get(new ListingBrowseCache.Key(null, null, new BigDecimal("50.00"), null, "newest", 0, 20), this::load);
+    cache.get(new ListingBrowseCache.Key(null, null, new BigDecimal("50"), null, "newest", 0, 20), this::load);
+
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void statusChangeDropsPagesOfItsCategoryAndTheUnfilteredPages() {
+    cache.get(key(null), this::load);
+    cache.get(key(Category.FURNITURE), this::load);
+    cache.get(key(Category.ELECTRONICS), this::load);
+
+    cache.onListingChanged(new ListingChangedEvent(1L,
+        snapshot(ListingStatus.ACTIVE, Category.FURNITURE), snapshot(ListingStatus.SOLD, Category.FURNITURE)));
+
+    cache.get(key(null), this::load);
+    cache.get(key(Category.FURNITURE), this::load);
+    cache.get(key(Category.ELECTRONICS), this::load);
+    assertThat(loads).hasValue(5);
+  }
+
+  @Test
+  void changesToInactiveListingsKeepPages() {
+    cache.get(key(null), this::load);
+
+    cache.onListingChanged(new ListingChangedEvent(1L,
+        snapshot(ListingStatus.SOLD, Category.FURNITURE), snapshot(ListingStatus.EXPIRED, Category.FURNITURE)));
+
+    cache.get(key(null), this::load);
+    assertThat(loads).hasValue(1);
+  }
+
+  private PagedResponse<ListingSummaryResponse> load(ListingBrowseCache.Key key) {
+    loads.incrementAndGet();
+    return page();
+  }
+
+  private static ListingBrowseCache.Key key(Category category) {
+    return new ListingBrowseCache.Key(category, null, null, null, "newest", 0, 20);
+  }
+
+  private static ListingChangedEvent.Snapshot snapshot(ListingStatus status, Category category) {
+    return new ListingChangedEvent.Snapshot(status, category, BigDecimal.TEN, LocalDateTime.now());
+  }
+
+  private static PagedResponse<ListingSummaryResponse> page() {
+    return PagedResponse.<ListingSummaryResponse>builder().content(List.of()).build();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.neumarket.controller;
+
+import com.neumarket.storage.BlobStore;
+import com.neumarket.storage.LocalBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class BlobFileControllerTests {
+
+  private static final String BODY = "0123456789abcdefghij";
+
+  @TempDir
+  Path root;
+
+  private LocalBlobStore blobStore;
+  private MockMvc mockMvc;
+  private String url;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    blobStore = new LocalBlobStore(root, "http://localhost/api/images/files/");
+    mockMvc = MockMvcBuilders.standaloneSetup(new BlobFileController(blobStore)).build();
+
+    byte[] bytes = BODY.getBytes(StandardCharsets.US_ASCII);
+    url = blobStore.put("listing-1/photo.jpg", new ByteArrayInputStream(bytes), bytes.length, "image/jpeg");
+  }
+
+  @Test
+  void storedFileIsServedAtItsUrl() throws Exception {
+    assertThat(url).isEqualTo("http://localhost/api/images/files/listing-1/photo.jpg");
+    assertThat(blobStore.nameFromUrl(url)).isEqualTo("listing-1/photo.jpg");
+
+    mockMvc.perform(get("/api/images/files/listing-1/photo.jpg"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("image/jpeg"))
+        .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, BODY.length()))
+        .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+        .andExpect(header().exists(HttpHeaders.ETAG))
+        .andExpect(content().string(BODY));
+  }
+
+  @Test
+  void matchingETagIsNotModified() throws Exception {
+    String etag = mockMvc.perform(get("/api/images/files/listing-1/photo.jpg"))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/api/images/files/listing-1/photo.jpg").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  void singleRangeIsPartialContent() throws Exception {
+    mockMvc.perform(get("/api/images/files/listing-1/photo.jpg").header(HttpHeaders.RANGE, "bytes=5-9"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/20"))
+        .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 5))
+        .andExpect(content().string("56789"));
+
+    mockMvc.perform(get("/api/images/files/listing-1/photo.jpg").header(HttpHeaders.RANGE, "bytes=-4"))
+        .andExpect(status().isPartialContent())
+        .andExpect(content().string("ghij"));
+  }
+
+  @Test
+  void staleIfRangeGetsTheWholeFile() throws Exception {
+    mockMvc.perform(get("/api/images/files/listing-1/photo.jpg")
+            .header(HttpHeaders.RANGE, "bytes=5-9")
+            .header(HttpHeaders.IF_RANGE, "\"stale\""))
+        .andExpect(status().isOk())
+        .andExpect(content().string(BODY));
+  }
+
+  @Test
+  void rangePastTheEndIsNotSatisfiable() throws Exception {
+    mockMvc.perform(get("/api/images/files/listing-1/photo.jpg").header(HttpHeaders.RANGE, "bytes=50-60"))
+        .andExpect(status().isRequestedRangeNotSatisfiable())
+        .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+  }
+
+  @Test
+  void listingPagesThroughBlobsInNameOrder() throws IOException {
+    for (String name : List.of("listing-2/b.jpg", "listing-2/a.jpg", "listing-3/c.jpg")) {
+      blobStore.put(name, new ByteArrayInputStream(new byte[] {1}), 1, "image/jpeg");
+    }
+
+    BlobStore.BlobPage first = blobStore.list(null, 2);
+    BlobStore.BlobPage second = blobStore.list(first.continuationToken(), 2);
+
+    assertThat(first.blobs()).extracting(BlobStore.BlobInfo::name).containsExactly("listing-1/photo.jpg", "listing-2/a.jpg");
+    assertThat(second.blobs()).extracting(BlobStore.BlobInfo::name).containsExactly("listing-2/b.jpg", "listing-3/c.jpg");
+    assertThat(second.continuationToken()).isNull();
+  }
+
+  @Test
+  void missingFilesAndNamesOutsideTheRootAreNotFound() throws Exception {
+    mockMvc.perform(get("/api/images/files/listing-1/missing.jpg"))
+        .andExpect(status().isNotFound());
+    mockMvc.perform(get("/api/images/files/listing-1/%2E%2E/%2E%2E/etc/passwd"))
+        .andExpect(status().isNotFound());
+  }
+}
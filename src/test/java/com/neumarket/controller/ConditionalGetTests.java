@@ -0,0 +1,57 @@
+package com.neumarket.controller;
+
+import com.neumarket.dto.response.UserResponse;
+import com.neumarket.service.ListingService;
+import com.neumarket.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ConditionalGetTests {
+
+  private final UserService userService = mock(UserService.class);
+  private final ListingService listingService = mock(ListingService.class);
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.standaloneSetup(new UserController(userService, listingService)).build();
+    when(userService.getPublicProfileVersion(7L)).thenReturn("user:7:2026-01-01T10:00");
+    when(userService.getPublicProfile(7L)).thenReturn(UserResponse.builder().id(7L).name("seller").build());
+  }
+
+  @Test
+  void currentETagIsAnsweredWithoutLoadingTheProfile() throws Exception {
+    String etag = mockMvc.perform(get("/api/users/7"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+        .andExpect(jsonPath("$.name").value("seller"))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/api/users/7").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag))
+        .andExpect(content().string(""));
+
+    verify(userService, times(1)).getPublicProfile(7L);
+  }
+
+  @Test
+  void changedVersionSendsTheProfileAgain() throws Exception {
+    String etag = mockMvc.perform(get("/api/users/7"))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    when(userService.getPublicProfileVersion(7L)).thenReturn("user:7:2026-01-02T09:30");
+
+    mockMvc.perform(get("/api/users/7").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, ConditionalGet.etag("user:7:2026-01-02T09:30")));
+
+    verify(userService, times(2)).getPublicProfile(7L);
+  }
+}
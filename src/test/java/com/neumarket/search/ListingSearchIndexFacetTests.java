@@ -0,0 +1,81 @@
+package com.neumarket.search;
+
+import com.neumarket.enums.Category;
+import com.neumarket.enums.Condition;
+import com.neumarket.model.Listing;
+import com.neumarket.repository.ListingRepository;
+import com.neumarket.service.TestListings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ListingSearchIndexFacetTests {
+
+  private static final List<BigDecimal> BOUNDS = List.of(BigDecimal.valueOf(20), BigDecimal.valueOf(100));
+
+  private ListingSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    // No transaction here, so index() applies right away
+    index = new ListingSearchIndex(mock(ListingRepository.class));
+    index.index(listing(1L, "Oak desk", Category.FURNITURE, Condition.GOOD, 80));
+    index.index(listing(2L, "Standing desk", Category.FURNITURE, Condition.LIKE_NEW, 150));
+    index.index(listing(3L, "Desk lamp", Category.ELECTRONICS, Condition.GOOD, 15));
+    index.index(listing(4L, "Calculus textbook", Category.TEXTBOOKS, Condition.FAIR, 30));
+  }
+
+  @Test
+  void countsFollowTheSearchText() {
+    ListingSearchIndex.Facets facets = index.facets("desk", null, null, null, null, BOUNDS);
+
+    assertThat(facets.total()).isEqualTo(3);
+    assertThat(facets.categories())
+        .containsEntry(Category.FURNITURE, 2)
+        .containsEntry(Category.ELECTRONICS, 1)
+        .containsEntry(Category.TEXTBOOKS, 0);
+    assertThat(facets.conditions())
+        .containsEntry(Condition.GOOD, 2)
+        .containsEntry(Condition.LIKE_NEW, 1);
+    assertThat(facets.priceBuckets()).containsExactly(1, 1, 1);
+  }
+
+  @Test
+  void eachFacetIgnoresItsOwnFilter() {
+    ListingSearchIndex.Facets facets = index.facets("desk", Category.FURNITURE, null, null, BigDecimal.valueOf(100), BOUNDS);
+
+    assertThat(facets.total()).isEqualTo(1);
+    // Other categories under the same price filter
+    assertThat(facets.categories())
+        .containsEntry(Category.FURNITURE, 1)
+        .containsEntry(Category.ELECTRONICS, 1);
+    assertThat(facets.conditions()).containsEntry(Condition.GOOD, 1).containsEntry(Condition.LIKE_NEW, 0);
+    // Furniture desks at every price
+    assertThat(facets.priceBuckets()).containsExactly(0, 1, 1);
+  }
+
+  @Test
+  void blankTextCountsEveryActiveListingAndRemovalsDropOut() {
+    index.remove(2L);
+
+    ListingSearchIndex.Facets facets = index.facets(null, null, null, null, null, BOUNDS);
+
+    assertThat(facets.total()).isEqualTo(3);
+    assertThat(facets.categories()).containsEntry(Category.FURNITURE, 1);
+    assertThat(facets.priceBuckets()).containsExactly(1, 2, 0);
+  }
+
+  private static Listing listing(Long id, String title, Category category, Condition condition, int price) {
+    return TestListings.listing(title)
+        .id(id)
+        .category(category)
+        .condition(condition)
+        .price(BigDecimal.valueOf(price))
+        .build();
+  }
+}
@@ -0,0 +1,125 @@
+package com.neumarket.search;
+
+import com.neumarket.enums.ListingStatus;
+import com.neumarket.model.Listing;
+import com.neumarket.repository.ListingRepository;
+import com.neumarket.service.TestListings;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ListingSearchIndexTests {
+
+  private final ListingRepository listingRepository = mock(ListingRepository.class);
+  private final ListingSearchIndex index = new ListingSearchIndex(listingRepository);
+
+  @Test
+  void everyTermMustMatchAndOnlyTheLastIsAPrefix() {
+    index.index(listing(1L, "Standing desk"));
+    index.index(listing(2L, "Desk chairs"));
+    index.index(listing(3L, "Rolling chair"));
+
+    // Stemmed both ways, stop-words ignored
+    assertThat(ids(index.search("the chairs", null, null, null, null))).containsExactly(2L, 3L);
+    assertThat(ids(index.search("desk cha", null, null, null, null))).containsExactly(2L);
+    assertThat(ids(index.search("des", null, null, null, null))).containsExactly(1L, 2L);
+    // A trailing space finishes the word
+    assertThat(ids(index.search("des ", null, null, null, null))).isEmpty();
+    assertThat(ids(index.search("sta chair", null, null, null, null))).isEmpty();
+    // Nothing but stop-words matches everything
+    assertThat(ids(index.search("for the", null, null, null, null))).containsExactly(1L, 2L, 3L);
+  }
+
+  @Test
+  void changesApplyOnlyOnceTheTransactionCommits() {
+    index.index(listing(1L, "Desk lamp"));
+
+    inTransaction(true, () -> {
+      index.index(listing(2L, "Floor lamp"));
+      index.remove(1L);
+      // Not visible until commit
+      assertThat(ids(index.search("lamp", null, null, null, null))).containsExactly(1L);
+    });
+    assertThat(ids(index.search("lamp", null, null, null, null))).containsExactly(2L);
+
+    inTransaction(false, () -> {
+      index.index(listing(3L, "Reading lamp"));
+      index.removeAll(List.of(2L));
+    });
+    assertThat(ids(index.search("lamp", null, null, null, null))).containsExactly(2L);
+  }
+
+  @Test
+  void rebuildKeepsChangesCommittedWhileItRuns() {
+    // The batch is read, then a rename of 1 and a removal of 2 commit before the rebuild applies it
+    when(listingRepository.findByStatusAndIdGreaterThanOrderByIdAsc(eq(ListingStatus.ACTIVE), eq(0L), any()))
+        .thenAnswer(invocation -> {
+          List<Listing> stale = List.of(listing(1L, "Desk lamp"), listing(2L, "Oak desk"), listing(3L, "Desk chair"));
+          index.index(listing(1L, "Bike helmet"));
+          index.remove(2L);
+          return stale;
+        });
+
+    index.rebuild();
+
+    assertThat(index.isReady()).isTrue();
+    assertThat(ids(index.search("helmet", null, null, null, null))).containsExactly(1L);
+    assertThat(ids(index.search("desk", null, null, null, null))).containsExactly(3L);
+  }
+
+  @Test
+  void resyncAppliesListingsChangedElsewhere() {
+    index.rebuild();
+    index.index(listing(1L, "Desk lamp"));
+    index.index(listing(2L, "Oak desk"));
+
+    // Another node sold 1 and added 3; 2 is renamed here while the resync runs
+    Listing sold = listing(1L, "Desk lamp");
+    sold.setStatus(ListingStatus.SOLD);
+    when(listingRepository.findByUpdatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(any(), eq(0L), any()))
+        .thenAnswer(invocation -> {
+          List<Listing> updated = List.of(sold, listing(2L, "Oak desk"), listing(3L, "Standing desk"));
+          index.index(listing(2L, "Oak table"));
+          return updated;
+        });
+
+    index.resync();
+
+    assertThat(ids(index.search("desk", null, null, null, null))).containsExactly(3L);
+    assertThat(ids(index.search("table", null, null, null, null))).containsExactly(2L);
+  }
+
+  /**
+   * Run the action with transaction synchronization on, then complete it as committed or rolled back
+   */
+  private static void inTransaction(boolean commit, Runnable action) {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      action.run();
+      List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+      if (commit) {
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+      }
+      int status = commit ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK;
+      synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private static List<Long> ids(List<ListingSearchIndex.Hit> hits) {
+    return hits.stream().map(ListingSearchIndex.Hit::id).sorted().toList();
+  }
+
+  private static Listing listing(Long id, String title) {
+    return TestListings.listing(title).id(id).build();
+  }
+}
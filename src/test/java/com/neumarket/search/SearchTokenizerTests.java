@@ -0,0 +1,39 @@
+package com.neumarket.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchTokenizerTests {
+
+  @Test
+  void dropsStopWordsAndPunctuation() {
+    assertThat(SearchTokenizer.tokenize("The desk, for a dorm!")).containsExactly("desk", "dorm");
+    assertThat(SearchTokenizer.tokenize("it is the")).isEmpty();
+    assertThat(SearchTokenizer.tokenize(null)).isEmpty();
+  }
+
+  @Test
+  void keepsDuplicatesInOrder() {
+    assertThat(SearchTokenizer.tokenize("Lamp lamps LAMP")).containsExactly("lamp", "lamp", "lamp");
+  }
+
+  @Test
+  void stemsPluralsAndVerbForms() {
+    assertThat(SearchTokenizer.tokenize("chairs chair chairing")).containsExactly("chair", "chair", "chair");
+    assertThat(SearchTokenizer.stem("batteries")).isEqualTo("battery");
+    assertThat(SearchTokenizer.stem("boxes")).isEqualTo("box");
+    assertThat(SearchTokenizer.stem("benches")).isEqualTo("bench");
+    assertThat(SearchTokenizer.stem("used")).isEqualTo("used");
+    assertThat(SearchTokenizer.stem("shipped")).isEqualTo("ship");
+    assertThat(SearchTokenizer.stem("quickly")).isEqualTo("quick");
+  }
+
+  @Test
+  void leavesShortWordsNumbersAndLatinPluralsAlone() {
+    assertThat(SearchTokenizer.stem("bus")).isEqualTo("bus");
+    assertThat(SearchTokenizer.stem("glass")).isEqualTo("glass");
+    assertThat(SearchTokenizer.stem("cactus")).isEqualTo("cactus");
+    assertThat(SearchTokenizer.tokenize("iPhone 13s")).containsExactly("iphone", "13s");
+  }
+}
@@ -0,0 +1,78 @@
+package com.neumarket.search;
+
+import com.neumarket.enums.ListingStatus;
+import com.neumarket.model.Listing;
+import com.neumarket.repository.ListingRepository;
+import com.neumarket.service.TestListings;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TitleSuggesterTests {
+
+  private static final LocalDateTime NOW = LocalDateTime.now();
+
+  private final TitleSuggester suggester = new TitleSuggester(NOW);
+
+  @Test
+  void wordsInMoreTitlesRankFirst() {
+    suggester.add("Desk lamp", NOW);
+    suggester.add("Standing desk", NOW);
+    suggester.add("Desert boots", NOW);
+
+    assertThat(suggester.complete("de", 10)).containsExactly("desk", "desert");
+    assertThat(suggester.complete("desk", 10)).containsExactly("desk");
+    assertThat(suggester.complete("x", 10)).isEmpty();
+    // Stop words and single letters are never suggested
+    suggester.add("A table for the dorm", NOW);
+    assertThat(suggester.complete("t", 10)).containsExactly("table");
+  }
+
+  @Test
+  void newerListingsOutweighOlderOnes() {
+    // Two listings a month old weigh less than one from today with a 14-day half-life
+    suggester.add("Mini fridge", NOW.minusDays(30));
+    suggester.add("Mini fridge", NOW.minusDays(30));
+    suggester.add("Microwave", NOW);
+
+    assertThat(suggester.complete("mi", 10)).containsExactly("microwave", "mini");
+  }
+
+  @Test
+  void removedTitlesStopBeingSuggested() {
+    suggester.add("Bike lock", NOW);
+    suggester.add("Bike helmet", NOW.minusDays(1));
+    suggester.remove("Bike lock", NOW);
+
+    assertThat(suggester.complete("b", 10)).containsExactly("bike");
+    assertThat(suggester.complete("l", 10)).isEmpty();
+
+    suggester.remove("Bike helmet", NOW.minusDays(1));
+    assertThat(suggester.complete("", 10)).isEmpty();
+  }
+
+  @Test
+  void indexCompletesTheLastWordOfTheQuery() {
+    ListingSearchIndex index = new ListingSearchIndex(mock(ListingRepository.class));
+    index.index(listing(1L, "Standing desk"));
+    index.index(listing(2L, "Desk chair"));
+    index.index(listing(3L, "Rolling chair"));
+
+    assertThat(index.suggest("standing DE", 5)).containsExactly("standing desk");
+    assertThat(index.suggest("ch", 5)).containsExactly("chair");
+    assertThat(index.suggest("chair ", 5)).isEmpty();
+
+    // A listing leaving ACTIVE takes its words with it
+    Listing sold = listing(1L, "Standing desk");
+    sold.setStatus(ListingStatus.SOLD);
+    index.index(sold);
+    assertThat(index.suggest("st", 5)).isEmpty();
+  }
+
+  private static Listing listing(Long id, String title) {
+    return TestListings.listing(title).id(id).createdAt(NOW).build();
+  }
+}
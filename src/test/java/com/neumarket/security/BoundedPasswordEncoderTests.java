@@ -0,0 +1,78 @@
+package com.neumarket.security;
+
+import com.neumarket.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedPasswordEncoderTests {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ExecutorService callers = Executors.newFixedThreadPool(12);
+  private BoundedPasswordEncoder encoder;
+
+  @AfterEach
+  void tearDown() {
+    callers.shutdownNow();
+    encoder.shutdown();
+  }
+
+  @Test
+  void hashesAndVerifiesThroughThePool() {
+    encoder = encoder(2, 4);
+
+    String hash = encoder.encode("correct horse");
+
+    assertThat(encoder.matches("correct horse", hash)).isTrue();
+    assertThat(encoder.matches("wrong horse", hash)).isFalse();
+    assertThat(meterRegistry.get("auth.password.hash").timer().count()).isEqualTo(3);
+  }
+
+  @Test
+  void burstBeyondTheQueueIsRejectedWithRetryAfter() throws Exception {
+    encoder = encoder(1, 1);
+    CountDownLatch start = new CountDownLatch(1);
+
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      results.add(callers.submit(() -> {
+        start.await();
+        return encoder.encode("password");
+      }));
+    }
+    start.countDown();
+
+    int succeeded = 0;
+    int rejected = 0;
+    for (Future<String> result : results) {
+      try {
+        result.get(30, TimeUnit.SECONDS);
+        succeeded++;
+      } catch (ExecutionException ex) {
+        assertThat(ex.getCause()).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(((ServiceUnavailableException) ex.getCause()).getRetryAfterSeconds()).isEqualTo(3);
+        rejected++;
+      }
+    }
+
+    assertThat(succeeded).isGreaterThanOrEqualTo(1);
+    assertThat(rejected).isGreaterThanOrEqualTo(1);
+    assertThat(meterRegistry.get("auth.password.rejected").counter().count()).isEqualTo(rejected);
+  }
+
+  private BoundedPasswordEncoder encoder(int threads, int queueCapacity) {
+    BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(meterRegistry);
+    ReflectionTestUtils.setField(encoder, "threads", threads);
+    ReflectionTestUtils.setField(encoder, "queueCapacity", queueCapacity);
+    ReflectionTestUtils.setField(encoder, "retryAfterSeconds", 3L);
+    encoder.init();
+    return encoder;
+  }
+}
@@ -0,0 +1,109 @@
+package com.neumarket.security;
+
+import com.neumarket.enums.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication in JwtAuthenticationFilter.
+ *
+ * legacyDoubleParse: the old filter path - validateToken then getUserPrincipalFromToken,
+ * each building a new parser and verifying the signature.
+ * filterSingleParse: the filter with the verified-token cache disabled (one parse per request).
+ * filterCached: the filter with the cache on (repeat requests from the same session).
+ *
+ * Run from the IDE, or: mvn test-compile and then
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)
+ * com.neumarket.security.JwtAuthenticationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+  private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+  private SecretKey key;
+  private String token;
+  private JwtAuthenticationFilter uncachedFilter;
+  private JwtAuthenticationFilter cachedFilter;
+
+  @Setup
+  public void setUp() {
+    key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+
+    JwtTokenProvider uncached = provider(0);
+    JwtTokenProvider cached = provider(10000);
+    uncachedFilter = new JwtAuthenticationFilter(uncached);
+    cachedFilter = new JwtAuthenticationFilter(cached);
+
+    token = cached.generateToken(UserPrincipal.builder()
+        .id(42L)
+        .email("student@northeastern.edu")
+        .name("Student")
+        .role(Role.USER)
+        .emailVerified(true)
+        .build());
+  }
+
+  @Benchmark
+  public Object legacyDoubleParse() {
+    // validateToken
+    Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+    // getUserPrincipalFromToken
+    Claims claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    return claims.getSubject();
+  }
+
+  @Benchmark
+  public Object filterSingleParse() throws Exception {
+    return runFilter(uncachedFilter);
+  }
+
+  @Benchmark
+  public Object filterCached() throws Exception {
+    return runFilter(cachedFilter);
+  }
+
+  private Object runFilter(JwtAuthenticationFilter filter) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/conversations");
+    request.addHeader("Authorization", "Bearer " + token);
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+    Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    SecurityContextHolder.clearContext();
+    return principal;
+  }
+
+  private static JwtTokenProvider provider(int cacheMaxEntries) {
+    JwtTokenProvider provider = new JwtTokenProvider();
+    ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+    ReflectionTestUtils.setField(provider, "jwtExpiration", TimeUnit.HOURS.toMillis(1));
+    ReflectionTestUtils.setField(provider, "cacheMaxEntries", cacheMaxEntries);
+    provider.init();
+    return provider;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(JwtAuthenticationBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,67 @@
+package com.neumarket.security;
+
+import com.neumarket.enums.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTests {
+
+  private static final String SECRET = "test-secret-test-secret-test-secret-test-secret-0123456789";
+
+  private static final UserPrincipal STUDENT = UserPrincipal.builder()
+      .id(7L)
+      .email("student@northeastern.edu")
+      .name("Student")
+      .role(Role.USER)
+      .emailVerified(true)
+      .build();
+
+  @Test
+  void repeatedAuthenticationReturnsTheCachedPrincipal() {
+    JwtTokenProvider provider = provider(TimeUnit.HOURS.toMillis(1));
+    String token = provider.generateToken(STUDENT);
+
+    UserPrincipal first = provider.authenticate(token);
+    UserPrincipal second = provider.authenticate(token);
+
+    assertThat(first.getId()).isEqualTo(7L);
+    assertThat(first.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+    assertThat(second).isSameAs(first);
+  }
+
+  @Test
+  void tamperedTokenIsRejectedEvenAfterTheOriginalWasCached() {
+    JwtTokenProvider provider = provider(TimeUnit.HOURS.toMillis(1));
+    String token = provider.generateToken(STUDENT);
+    provider.authenticate(token);
+
+    String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+    assertThat(provider.authenticate(tampered)).isNull();
+    assertThat(provider.validateToken(tampered)).isFalse();
+  }
+
+  @Test
+  void cachedTokenStopsWorkingAtItsExpiry() throws InterruptedException {
+    JwtTokenProvider provider = provider(1500);
+    String token = provider.generateToken(STUDENT);
+    assertThat(provider.authenticate(token)).isNotNull();
+
+    Thread.sleep(1600);
+
+    assertThat(provider.authenticate(token)).isNull();
+  }
+
+  private static JwtTokenProvider provider(long expirationMillis) {
+    JwtTokenProvider provider = new JwtTokenProvider();
+    ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+    ReflectionTestUtils.setField(provider, "jwtExpiration", expirationMillis);
+    ReflectionTestUtils.setField(provider, "cacheMaxEntries", 100);
+    provider.init();
+    return provider;
+  }
+}
@@ -0,0 +1,93 @@
+package com.neumarket.service;
+
+import com.neumarket.dto.response.MetricSeriesResponse;
+import com.neumarket.enums.MetricSeries;
+import com.neumarket.enums.MetricStep;
+import com.neumarket.exception.BadRequestException;
+import com.neumarket.model.MetricRollup;
+import com.neumarket.repository.MetricRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import(ActivityMetricsService.class)
+class ActivityMetricsServiceTests {
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private ActivityMetricsService metricsService;
+
+  @Autowired
+  private MetricRollupRepository metricRollupRepository;
+
+  @Test
+  void flushRollsMinutesUpIntoHoursAndDays() {
+    LocalDateTime hour = LocalDateTime.now().minusHours(3).truncatedTo(ChronoUnit.HOURS);
+    metricsService.record(MetricSeries.SIGNUPS, hour.plusMinutes(1));
+    metricsService.record(MetricSeries.SIGNUPS, hour.plusMinutes(1));
+    metricsService.record(MetricSeries.SIGNUPS, hour.plusMinutes(40));
+    metricsService.record(MetricSeries.SEARCHES, hour.plusMinutes(5));
+
+    metricsService.flush();
+
+    List<MetricRollup> signups = metricRollupRepository.findAll().stream()
+        .filter(rollup -> rollup.getSeries() == MetricSeries.SIGNUPS)
+        .toList();
+    assertThat(signups).extracting(MetricRollup::getStep)
+        .containsExactlyInAnyOrder(MetricStep.MINUTE, MetricStep.MINUTE, MetricStep.HOUR, MetricStep.DAY);
+    assertThat(signups).filteredOn(rollup -> rollup.getStep() == MetricStep.HOUR)
+        .extracting(MetricRollup::getEventCount).containsExactly(3L);
+
+    MetricSeriesResponse hourly = metricsService.query(
+        List.of(MetricSeries.SIGNUPS), hour.minusHours(1), hour.plusHours(2), MetricStep.HOUR).get(0);
+    assertThat(hourly.getPoints()).extracting(MetricSeriesResponse.Point::getCount).containsExactly(0L, 3L, 0L);
+    assertThat(hourly.getTotal()).isEqualTo(3);
+  }
+
+  @Test
+  void laterFlushesAddToExistingBucketsAndUnflushedCountsAreVisible() {
+    LocalDateTime minute = LocalDateTime.now().minusMinutes(10).truncatedTo(ChronoUnit.MINUTES);
+    metricsService.record(MetricSeries.MESSAGES_SENT, minute);
+    metricsService.flush();
+    metricsService.record(MetricSeries.MESSAGES_SENT, minute);
+    metricsService.flush();
+    // Each flush commits on its own in production; drop the row cached by the first one
+    entityManager.clear();
+
+    // Current minute, still in memory
+    metricsService.record(MetricSeries.MESSAGES_SENT);
+
+    MetricSeriesResponse perMinute = metricsService.query(
+        List.of(MetricSeries.MESSAGES_SENT), minute, LocalDateTime.now(), MetricStep.MINUTE).get(0);
+    assertThat(perMinute.getPoints().get(0).getCount()).isEqualTo(2);
+    assertThat(perMinute.getTotal()).isEqualTo(3);
+  }
+
+  @Test
+  void compactDropsMinutesPastRetentionAndRejectsQueriesForThem() {
+    LocalDateTime old = LocalDateTime.now().minusDays(5).truncatedTo(ChronoUnit.MINUTES);
+    metricsService.record(MetricSeries.REPORTS_FILED, old);
+    metricsService.flush();
+
+    metricsService.compact();
+
+    assertThat(metricRollupRepository.findAll()).extracting(MetricRollup::getStep)
+        .containsExactlyInAnyOrder(MetricStep.HOUR, MetricStep.DAY);
+    assertThat(metricsService.query(List.of(MetricSeries.REPORTS_FILED), old.minusDays(1), old.plusDays(1),
+        MetricStep.DAY).get(0).getTotal()).isEqualTo(1);
+    assertThatThrownBy(() -> metricsService.query(List.of(MetricSeries.REPORTS_FILED), old, old.plusHours(1),
+        MetricStep.MINUTE)).isInstanceOf(BadRequestException.class);
+  }
+}
@@ -0,0 +1,147 @@
+package com.neumarket.service;
+
+import com.neumarket.enums.ListingStatus;
+import com.neumarket.model.BlobDeletion;
+import com.neumarket.model.Listing;
+import com.neumarket.model.ListingImage;
+import com.neumarket.model.StoredBlob;
+import com.neumarket.model.User;
+import com.neumarket.repository.BlobDeletionRepository;
+import com.neumarket.search.ListingSearchIndex;
+import com.neumarket.storage.BlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.neumarket.service.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Import({BlobDeletionService.class, StoredBlobService.class, CleanupService.class, ListingSearchIndex.class})
+class BlobDeletionServiceTests {
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private BlobDeletionService blobDeletionService;
+
+  @Autowired
+  private BlobDeletionRepository blobDeletionRepository;
+
+  @Autowired
+  private CleanupService cleanupService;
+
+  @MockitoBean
+  private BlobStore blobStore;
+
+  @BeforeEach
+  void setUp() {
+    when(blobStore.nameFromUrl(anyString())).thenAnswer(invocation ->
+        invocation.<String>getArgument(0).replace("https://blobs.example/", ""));
+  }
+
+  @Test
+  void drainDeletesQueuedBlobsAndEmptiesTheQueue() throws IOException {
+    blobDeletionService.enqueue(List.of("listing-1/a.jpg", "listing-1/b.jpg"));
+
+    blobDeletionService.drain();
+
+    verify(blobStore).delete("listing-1/a.jpg");
+    verify(blobStore).delete("listing-1/b.jpg");
+    assertThat(blobDeletionRepository.count()).isZero();
+  }
+
+  @Test
+  void failedDeletesAreRetriedWithBackoff() throws IOException {
+    doThrow(new IOException("storage unavailable")).when(blobStore).delete("listing-1/a.jpg");
+    blobDeletionService.enqueue(List.of("listing-1/a.jpg"));
+
+    blobDeletionService.drain();
+    entityManager.clear();
+
+    BlobDeletion deletion = blobDeletionRepository.findAll().get(0);
+    assertThat(deletion.getAttempts()).isEqualTo(1);
+    assertThat(deletion.getLastError()).isEqualTo("storage unavailable");
+    assertThat(deletion.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(30));
+
+    // Not due yet
+    blobDeletionService.drain();
+    verify(blobStore, times(1)).delete("listing-1/a.jpg");
+
+    assertThat(blobDeletionService.backoff(1)).isEqualTo(Duration.ofMinutes(1));
+    assertThat(blobDeletionService.backoff(3)).isEqualTo(Duration.ofMinutes(4));
+    assertThat(blobDeletionService.backoff(40)).isEqualTo(Duration.ofHours(6));
+  }
+
+  @Test
+  void purgedListingsQueueTheirImagesButKeepSharedContent() {
+    User seller = entityManager.persist(user("seller@northeastern.edu"));
+    Listing purged = entityManager.persist(listing(seller, "old-chair", ListingStatus.DELETED));
+    Listing kept = entityManager.persist(listing(seller, "new-chair", ListingStatus.ACTIVE));
+
+    StoredBlob shared = entityManager.persist(StoredBlob.builder()
+        .sha256("a".repeat(64))
+        .blobName("listing-1/shared.jpg")
+        .url("https://blobs.example/listing-1/shared.jpg")
+        .size(10L)
+        .refCount(2)
+        .build());
+    StoredBlob own = entityManager.persist(StoredBlob.builder()
+        .sha256("b".repeat(64))
+        .blobName("listing-1/own.jpg")
+        .url("https://blobs.example/listing-1/own.jpg")
+        .size(10L)
+        .build());
+    entityManager.persist(image(purged, shared));
+    entityManager.persist(image(kept, shared));
+    entityManager.persist(image(purged, own));
+    // Uploaded before content was shared
+    entityManager.persist(ListingImage.builder()
+        .listing(purged)
+        .imageUrl("https://blobs.example/listing-1/legacy.jpg")
+        .thumbnailUrl("https://blobs.example/listing-1/legacy-thumb.jpg")
+        .build());
+    entityManager.flush();
+    entityManager.getEntityManager()
+        .createQuery("UPDATE Listing l SET l.updatedAt = :updatedAt WHERE l.id = :id")
+        .setParameter("updatedAt", LocalDateTime.now().minusDays(60))
+        .setParameter("id", purged.getId())
+        .executeUpdate();
+    entityManager.clear();
+
+    cleanupService.purgeDeletedListings();
+    entityManager.clear();
+
+    assertThat(entityManager.find(Listing.class, purged.getId())).isNull();
+    assertThat(entityManager.find(StoredBlob.class, shared.getId()).getRefCount()).isEqualTo(1);
+    assertThat(entityManager.find(StoredBlob.class, own.getId())).isNull();
+    assertThat(blobDeletionRepository.findAll()).extracting(BlobDeletion::getBlobName).containsExactlyInAnyOrder(
+        "listing-1/own.jpg", "listing-1/own-thumb.jpg", "listing-1/own-medium.jpg",
+        "listing-1/legacy.jpg", "listing-1/legacy-thumb.jpg");
+  }
+
+  private static Listing listing(User seller, String slug, ListingStatus status) {
+    return TestListings.listing(seller, "Chair").slug(slug).price(BigDecimal.valueOf(15)).status(status).build();
+  }
+
+  private static ListingImage image(Listing listing, StoredBlob blob) {
+    return ListingImage.builder()
+        .listing(listing)
+        .storedBlob(blob)
+        .imageUrl(blob.getUrl())
+        .build();
+  }
+}
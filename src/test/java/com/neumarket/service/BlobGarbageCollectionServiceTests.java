@@ -0,0 +1,119 @@
+package com.neumarket.service;
+
+import com.neumarket.dto.response.BlobGcReport;
+import com.neumarket.enums.Category;
+import com.neumarket.model.BlobDeletion;
+import com.neumarket.model.Listing;
+import com.neumarket.model.ListingImage;
+import com.neumarket.model.StoredBlob;
+import com.neumarket.model.User;
+import com.neumarket.repository.BlobDeletionRepository;
+import com.neumarket.storage.BlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static com.neumarket.service.TestListings.listing;
+import static com.neumarket.service.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {"app.storage.gc.page-size=3", "app.storage.gc.page-pause-ms=0"})
+@Import({BlobGarbageCollectionService.class, BlobDeletionService.class})
+class BlobGarbageCollectionServiceTests {
+
+  private static final Instant OLD = Instant.now().minus(Duration.ofDays(3));
+  private static final Instant RECENT = Instant.now().minus(Duration.ofMinutes(5));
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private BlobGarbageCollectionService blobGarbageCollectionService;
+
+  @Autowired
+  private BlobDeletionRepository blobDeletionRepository;
+
+  @MockitoBean
+  private BlobStore blobStore;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    when(blobStore.urlFor(anyString())).thenAnswer(invocation -> "https://blobs.example/" + invocation.getArgument(0));
+
+    User seller = entityManager.persist(user("seller@northeastern.edu"));
+    Listing listing = entityManager.persist(listing(seller, "Bike")
+        .price(BigDecimal.valueOf(120))
+        .category(Category.OTHER)
+        .build());
+    entityManager.persist(StoredBlob.builder()
+        .sha256("c".repeat(64))
+        .blobName("listing-1/shared.jpg")
+        .url("https://blobs.example/listing-1/shared.jpg")
+        .thumbnailUrl("https://blobs.example/listing-1/shared-thumb.jpg")
+        .size(10L)
+        .build());
+    // Uploaded before content was shared
+    entityManager.persist(ListingImage.builder()
+        .listing(listing)
+        .imageUrl("https://blobs.example/listing-1/legacy.jpg")
+        .build());
+    entityManager.persist(BlobDeletion.builder().blobName("listing-1/queued.jpg").build());
+    entityManager.flush();
+
+    // Two pages of storage listing, in name order
+    when(blobStore.list(isNull(), eq(3))).thenReturn(new BlobStore.BlobPage(List.of(
+        blob("listing-1/fresh-orphan.jpg", RECENT, 5),
+        blob("listing-1/legacy.jpg", OLD, 5),
+        blob("listing-1/orphan-a.jpg", OLD, 100)), "listing-1/orphan-a.jpg"));
+    when(blobStore.list(eq("listing-1/orphan-a.jpg"), eq(3))).thenReturn(new BlobStore.BlobPage(List.of(
+        blob("listing-1/orphan-b.jpg", OLD, 50),
+        blob("listing-1/queued.jpg", OLD, 5),
+        blob("listing-1/shared-thumb.jpg", OLD, 5),
+        blob("listing-1/shared.jpg", OLD, 5)), null));
+  }
+
+  @Test
+  void dryRunReportsOrphansWithoutQueueingThem() {
+    BlobGcReport report = blobGarbageCollectionService.collect(true);
+
+    assertThat(report.isCompleted()).isTrue();
+    assertThat(report.getScanned()).isEqualTo(7);
+    assertThat(report.getReferenced()).isEqualTo(3);
+    assertThat(report.getTooRecent()).isEqualTo(1);
+    assertThat(report.getAlreadyQueued()).isEqualTo(1);
+    assertThat(report.getOrphaned()).isEqualTo(2);
+    assertThat(report.getOrphanedBytes()).isEqualTo(150);
+    assertThat(report.getSample()).containsExactly("listing-1/orphan-a.jpg", "listing-1/orphan-b.jpg");
+    assertThat(report.getQueued()).isZero();
+    assertThat(queuedNames()).containsExactly("listing-1/queued.jpg");
+  }
+
+  @Test
+  void sweepQueuesOnlyOldUnreferencedBlobs() {
+    BlobGcReport report = blobGarbageCollectionService.collect(false);
+
+    assertThat(report.getQueued()).isEqualTo(2);
+    assertThat(queuedNames()).containsExactlyInAnyOrder(
+        "listing-1/queued.jpg", "listing-1/orphan-a.jpg", "listing-1/orphan-b.jpg");
+  }
+
+  private List<String> queuedNames() {
+    return blobDeletionRepository.findAll().stream().map(BlobDeletion::getBlobName).toList();
+  }
+
+  private static BlobStore.BlobInfo blob(String name, Instant lastModified, long size) {
+    return new BlobStore.BlobInfo(name, size, lastModified);
+  }
+}
@@ -0,0 +1,273 @@
+package com.neumarket.service;
+
+import com.neumarket.dto.response.ChatMessageResponse;
+import com.neumarket.event.MessageSentEvent;
+import com.neumarket.event.MessagesReadEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Events go through the application context in real transactions, so only the
+ * AFTER_COMMIT listeners decide when a stream hears about them.
+ */
+@DataJpaTest
+@Import({UnreadCounterService.class, ChatStreamServiceTests.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChatStreamServiceTests {
+
+  private static final long SENDER = 1L;
+  private static final long RECIPIENT = 2L;
+
+  @Autowired
+  private RecordingChatStreamService chatStreamService;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @BeforeEach
+  void setUp() {
+    // Close whatever earlier tests left open
+    chatStreamService.held = null;
+    chatStreamService.emitters.forEach(RecordingEmitter::finish);
+    chatStreamService.emitters.clear();
+  }
+
+  @Test
+  void messageAndReadEventsWaitForTheCommit() {
+    RecordingEmitter sender = subscribe(SENDER);
+    RecordingEmitter recipient = subscribe(RECIPIENT);
+
+    transactionTemplate.executeWithoutResult(status -> {
+      eventPublisher.publishEvent(messageSent());
+      assertThat(sender.events).containsExactly("unread");
+      assertThat(recipient.events).containsExactly("unread");
+    });
+    assertThat(sender.events).containsExactly("unread", "message");
+    assertThat(recipient.events).containsExactly("unread", "message", "unread");
+
+    transactionTemplate.executeWithoutResult(status -> {
+      eventPublisher.publishEvent(new MessagesReadEvent(10L, RECIPIENT, SENDER, 1));
+      status.setRollbackOnly();
+    });
+    assertThat(sender.events).containsExactly("unread", "message");
+
+    transactionTemplate.executeWithoutResult(status ->
+        eventPublisher.publishEvent(new MessagesReadEvent(10L, RECIPIENT, SENDER, 1)));
+    assertThat(sender.events).containsExactly("unread", "message", "read");
+    assertThat(recipient.events).containsExactly("unread", "message", "unread", "unread");
+  }
+
+  @Test
+  void eventsPublishedOutsideATransactionAreNotSent() {
+    RecordingEmitter sender = subscribe(SENDER);
+
+    eventPublisher.publishEvent(messageSent());
+
+    assertThat(sender.events).containsExactly("unread");
+  }
+
+  @Test
+  void sixthStreamClosesTheOldest() {
+    List<RecordingEmitter> tabs = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      tabs.add(subscribe(SENDER));
+    }
+
+    assertThat(tabs.get(0).completed).isTrue();
+    assertThat(tabs.subList(1, 6)).noneMatch(tab -> tab.completed);
+
+    transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(messageSent()));
+    assertThat(tabs.get(0).events).containsExactly("unread");
+    assertThat(tabs.subList(1, 6)).allSatisfy(tab -> assertThat(tab.events).containsExactly("unread", "message"));
+  }
+
+  @Test
+  void completedAndFailedStreamsLeaveTheRegistry() {
+    List<RecordingEmitter> tabs = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      tabs.add(subscribe(SENDER));
+    }
+
+    tabs.get(1).complete();
+    tabs.get(1).finish();
+    tabs.get(2).fail(new IOException("Connection reset"));
+    tabs.get(3).broken = true;
+    transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(messageSent()));
+
+    // Only tabs 0 and 4 are left, so three more fit under the cap
+    for (int i = 0; i < 3; i++) {
+      subscribe(SENDER);
+    }
+    assertThat(tabs.get(0).completed).isFalse();
+    assertThat(tabs.get(4).completed).isFalse();
+
+    subscribe(SENDER);
+    assertThat(tabs.get(0).completed).isTrue();
+  }
+
+  @Test
+  void sendsRunOffThePublishingThread() {
+    RecordingEmitter sender = subscribe(SENDER);
+    chatStreamService.held = new ArrayList<>();
+
+    transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(messageSent()));
+    assertThat(sender.events).containsExactly("unread");
+
+    chatStreamService.release();
+    assertThat(sender.events).containsExactly("unread", "message");
+  }
+
+  @Test
+  void streamThatFallsBehindIsCompletedAndDropped() {
+    RecordingEmitter slow = subscribe(SENDER);
+    chatStreamService.held = new ArrayList<>();
+
+    // One more than a stream may have waiting
+    for (int i = 0; i <= 32; i++) {
+      chatStreamService.heartbeat();
+    }
+    assertThat(slow.completed).isFalse();
+
+    // The pending sender sees the stream was dropped and completes it instead of writing
+    chatStreamService.release();
+    assertThat(slow.completed).isTrue();
+
+    transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(messageSent()));
+    assertThat(slow.events).containsExactly("unread");
+    for (int i = 0; i < 5; i++) {
+      subscribe(SENDER);
+    }
+    assertThat(chatStreamService.emitters).filteredOn(tab -> tab.completed).containsExactly(slow);
+  }
+
+  private RecordingEmitter subscribe(Long userId) {
+    return (RecordingEmitter) chatStreamService.subscribe(userId);
+  }
+
+  private static MessageSentEvent messageSent() {
+    return new MessageSentEvent(10L, SENDER, RECIPIENT,
+        ChatMessageResponse.builder().content("hi").isOwnMessage(true).build(),
+        ChatMessageResponse.builder().content("hi").isOwnMessage(false).build());
+  }
+
+  @TestConfiguration
+  static class Config {
+
+    @Bean
+    RecordingChatStreamService chatStreamService(UnreadCounterService unreadCounterService) {
+      return new RecordingChatStreamService(unreadCounterService);
+    }
+  }
+
+  static class RecordingChatStreamService extends ChatStreamService {
+
+    final List<RecordingEmitter> emitters = new ArrayList<>();
+    // Sends wait here while set, otherwise they run inline
+    List<Runnable> held;
+
+    RecordingChatStreamService(UnreadCounterService unreadCounterService) {
+      super(unreadCounterService);
+    }
+
+    @Override
+    SseEmitter newEmitter() {
+      RecordingEmitter emitter = new RecordingEmitter();
+      emitters.add(emitter);
+      return emitter;
+    }
+
+    @Override
+    Executor newSendExecutor() {
+      return task -> {
+        if (held != null) {
+          held.add(task);
+        } else {
+          task.run();
+        }
+      };
+    }
+
+    void release() {
+      List<Runnable> tasks = held;
+      held = null;
+      tasks.forEach(Runnable::run);
+    }
+  }
+
+  /**
+   * Stands in for the servlet container: records event names, and runs the lifecycle callbacks
+   * when the test ends or breaks the request (the container runs them after the fact, never
+   * inside complete())
+   */
+  static class RecordingEmitter extends SseEmitter {
+
+    private static final Pattern EVENT_NAME = Pattern.compile("^event:(\\S+)", Pattern.MULTILINE);
+
+    final List<String> events = new ArrayList<>();
+    boolean broken;
+    boolean completed;
+    private Runnable completionCallback = () -> { };
+    private Consumer<Throwable> errorCallback = e -> { };
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      if (broken) {
+        throw new IOException("Broken pipe");
+      }
+      for (DataWithMediaType part : builder.build()) {
+        Matcher name = EVENT_NAME.matcher(String.valueOf(part.getData()));
+        if (name.find()) {
+          events.add(name.group(1));
+        }
+      }
+    }
+
+    @Override
+    public void onCompletion(Runnable callback) {
+      completionCallback = callback;
+    }
+
+    @Override
+    public void onError(Consumer<Throwable> callback) {
+      errorCallback = callback;
+    }
+
+    @Override
+    public void complete() {
+      completed = true;
+    }
+
+    void finish() {
+      completed = true;
+      completionCallback.run();
+    }
+
+    void fail(Throwable ex) {
+      errorCallback.accept(ex);
+      finish();
+    }
+  }
+}
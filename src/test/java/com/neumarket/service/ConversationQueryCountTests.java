@@ -0,0 +1,157 @@
+package com.neumarket.service;
+
+import com.neumarket.dto.response.ConversationResponse;
+import com.neumarket.model.Conversation;
+import com.neumarket.model.Listing;
+import com.neumarket.model.ListingImage;
+import com.neumarket.model.Message;
+import com.neumarket.model.User;
+import com.neumarket.repository.ConversationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.neumarket.service.TestListings.listing;
+import static com.neumarket.service.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the number of SQL statements issued per inbox and per listing's conversation list.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ConversationService.class)
+class ConversationQueryCountTests {
+
+  private static final int CONVERSATION_COUNT = 6;
+  private static final int MESSAGES_PER_CONVERSATION = 5;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private ConversationService conversationService;
+
+  @Autowired
+  private ConversationRepository conversationRepository;
+
+  private User seller;
+  private Listing listing;
+  private final List<User> buyers = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    seller = entityManager.persist(user("seller@northeastern.edu"));
+    listing = entityManager.persist(listing(seller, "Bookshelf")
+        .price(BigDecimal.valueOf(40))
+        .build());
+    entityManager.persist(ListingImage.builder().listing(listing).imageUrl("https://images.example/shelf.jpg").displayOrder(0).build());
+
+    for (int i = 0; i < CONVERSATION_COUNT; i++) {
+      User buyer = entityManager.persist(user("buyer" + i + "@northeastern.edu"));
+      buyers.add(buyer);
+      Conversation conversation = entityManager.persist(Conversation.builder()
+          .listing(listing).buyer(buyer).seller(seller).sellerUnreadCount(MESSAGES_PER_CONVERSATION).build());
+
+      // Buyer writes every message; the seller has read none of them
+      for (int m = 0; m < MESSAGES_PER_CONVERSATION; m++) {
+        Message message = entityManager.persist(Message.builder()
+            .conversation(conversation).sender(buyer).content("message " + m).isRead(false).build());
+        conversation.recordLastMessage(message);
+      }
+    }
+
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void inboxIsASingleSelect() {
+    Statistics statistics = statistics();
+
+    statistics.clear();
+    List<ConversationResponse> inbox = conversationService.getUserConversations(seller.getId());
+
+    assertThat(inbox).hasSize(CONVERSATION_COUNT);
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+
+  @Test
+  void inboxRowsCarryLastMessageUnreadCountAndOtherParticipant() {
+    List<ConversationResponse> inbox = conversationService.getUserConversations(seller.getId());
+
+    assertThat(inbox).allSatisfy(row -> {
+      assertThat(row.getLastMessage()).isEqualTo("message " + (MESSAGES_PER_CONVERSATION - 1));
+      assertThat(row.getUnreadCount()).isEqualTo(MESSAGES_PER_CONVERSATION);
+      assertThat(row.getIsSeller()).isTrue();
+      assertThat(row.getOtherParticipant().getName()).startsWith("buyer");
+      assertThat(row.getListing().getThumbnailUrl()).isEqualTo("https://images.example/shelf.jpg");
+    });
+
+    // The buyer's own messages are never unread for them
+    List<ConversationResponse> buyerInbox = conversationService.getUserConversations(buyers.get(0).getId());
+    assertThat(buyerInbox).singleElement().satisfies(row -> {
+      assertThat(row.getUnreadCount()).isZero();
+      assertThat(row.getOtherParticipant().getId()).isEqualTo(seller.getId());
+    });
+  }
+
+  @Test
+  void listingConversationsAreOneSelectPlusOwnershipCheck() {
+    Statistics statistics = statistics();
+
+    statistics.clear();
+    List<ConversationResponse> rows = conversationService.getConversationsForListing(listing.getId(), seller.getId());
+
+    assertThat(rows).hasSize(CONVERSATION_COUNT);
+    // Listing lookup for the ownership check + the inbox select
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+  }
+
+  @Test
+  void inboxVersionIsOneStatementAndFollowsUnreadCounts() {
+    Statistics statistics = statistics();
+
+    statistics.clear();
+    String version = conversationService.getUserConversationsVersion(seller.getId());
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    String buyerVersion = conversationService.getUserConversationsVersion(buyers.get(0).getId());
+
+    Long conversationId = conversationRepository.findByListingIdAndBuyerId(listing.getId(), buyers.get(0).getId())
+        .orElseThrow().getId();
+    conversationRepository.decrementUnread(conversationId, seller.getId(), 2);
+
+    assertThat(conversationService.getUserConversationsVersion(seller.getId())).isNotEqualTo(version);
+    // The seller reading doesn't change what the buyer sees
+    assertThat(conversationService.getUserConversationsVersion(buyers.get(0).getId())).isEqualTo(buyerVersion);
+  }
+
+  @Test
+  void backfillFillsLastMessageForOlderConversations() {
+    entityManager.getEntityManager()
+        .createQuery("UPDATE Conversation c SET c.lastMessageContent = null, c.lastMessageAt = null")
+        .executeUpdate();
+
+    assertThat(conversationRepository.backfillLastMessages()).isEqualTo(CONVERSATION_COUNT);
+    entityManager.clear();
+
+    assertThat(conversationService.getUserConversations(seller.getId()))
+        .allSatisfy(row -> assertThat(row.getLastMessage()).isEqualTo("message " + (MESSAGES_PER_CONVERSATION - 1)));
+  }
+
+  private Statistics statistics() {
+    return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+}
@@ -0,0 +1,168 @@
+package com.neumarket.service;
+
+import com.neumarket.dto.response.DashboardStatsResponse;
+import com.neumarket.enums.ListingStatus;
+import com.neumarket.enums.ReportReason;
+import com.neumarket.enums.ReportStatus;
+import com.neumarket.enums.ReportType;
+import com.neumarket.event.BulkDataChangedEvent;
+import com.neumarket.event.ConversationStartedEvent;
+import com.neumarket.event.ListingChangedEvent;
+import com.neumarket.event.ReportChangedEvent;
+import com.neumarket.event.UserChangedEvent;
+import com.neumarket.model.Listing;
+import com.neumarket.model.Report;
+import com.neumarket.model.User;
+import com.neumarket.repository.ConversationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+
+import static com.neumarket.service.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test transactions never commit, so events are delivered by calling the listeners directly.
+ */
+@DataJpaTest
+@Import(DashboardStatsService.class)
+class DashboardStatsServiceTests {
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private DashboardStatsService statsService;
+
+  // Lets a test fire events while a reload is reading
+  @MockitoBean
+  private ConversationRepository conversationRepository;
+
+  private User seller;
+
+  @BeforeEach
+  void setUp() {
+    seller = entityManager.persist(user("seller@northeastern.edu", true));
+    entityManager.persist(user("pending@northeastern.edu", false));
+    entityManager.persist(listing("Desk", new BigDecimal("40.00"), ListingStatus.ACTIVE));
+    entityManager.persist(listing("Chair", new BigDecimal("20.00"), ListingStatus.SOLD));
+    entityManager.flush();
+
+    // The service outlives each test's rolled-back data
+    statsService.reconcile();
+  }
+
+  @Test
+  void reconcileCountsTheDatabase() {
+    DashboardStatsResponse stats = statsService.getDashboardStats();
+
+    assertThat(stats.getTotalUsers()).isEqualTo(2);
+    assertThat(stats.getVerifiedUsers()).isEqualTo(1);
+    assertThat(stats.getNewUsersToday()).isEqualTo(2);
+    assertThat(stats.getTotalListings()).isEqualTo(2);
+    assertThat(stats.getNewListingsToday()).isEqualTo(2);
+    assertThat(stats.getActiveListings()).isEqualTo(1);
+    assertThat(stats.getSoldListings()).isEqualTo(1);
+    assertThat(stats.getAverageListingPrice()).isEqualByComparingTo("40.00");
+    assertThat(stats.getListingsByCategory()).containsEntry("FURNITURE", 1L);
+  }
+
+  @Test
+  void eventsKeepCountersInStepWithTheDatabase() {
+    User buyer = entityManager.persist(user("buyer@northeastern.edu", false));
+    statsService.onUserChanged(UserChangedEvent.created(buyer));
+    UserChangedEvent.Snapshot unverified = UserChangedEvent.Snapshot.of(buyer);
+    buyer.setEmailVerified(true);
+    statsService.onUserChanged(UserChangedEvent.updated(unverified, buyer));
+
+    Listing lamp = entityManager.persist(listing("Lamp", new BigDecimal("15.00"), ListingStatus.ACTIVE));
+    statsService.onListingChanged(ListingChangedEvent.created(lamp));
+    ListingChangedEvent.Snapshot active = ListingChangedEvent.Snapshot.of(lamp);
+    lamp.setStatus(ListingStatus.SOLD);
+    statsService.onListingChanged(ListingChangedEvent.updated(active, lamp));
+
+    Report report = entityManager.persist(Report.builder()
+        .reporter(buyer)
+        .reportType(ReportType.LISTING)
+        .targetId(lamp.getId())
+        .reason(ReportReason.values()[0])
+        .status(ReportStatus.PENDING)
+        .build());
+    statsService.onReportChanged(new ReportChangedEvent(report.getId(), null, ReportStatus.PENDING, report.getCreatedAt()));
+    report.setStatus(ReportStatus.DISMISSED);
+    statsService.onReportChanged(new ReportChangedEvent(report.getId(), ReportStatus.PENDING, ReportStatus.DISMISSED,
+        report.getCreatedAt()));
+    entityManager.flush();
+
+    DashboardStatsResponse incremental = statsService.getDashboardStats();
+    statsService.reconcile();
+    DashboardStatsResponse reconciled = statsService.getDashboardStats();
+
+    assertThat(incremental).isEqualTo(reconciled);
+    assertThat(incremental.getVerifiedUsers()).isEqualTo(2);
+    assertThat(incremental.getSoldListings()).isEqualTo(2);
+    assertThat(incremental.getResolvedReports()).isEqualTo(1);
+  }
+
+  @Test
+  void bulkChangesForceAReload() {
+    assertThat(statsService.getDashboardStats().getActiveListings()).isEqualTo(1);
+
+    entityManager.getEntityManager()
+        .createQuery("UPDATE Listing l SET l.status = :expired WHERE l.status = :active")
+        .setParameter("expired", ListingStatus.EXPIRED)
+        .setParameter("active", ListingStatus.ACTIVE)
+        .executeUpdate();
+    assertThat(statsService.getDashboardStats().getActiveListings()).isEqualTo(1);
+
+    statsService.onBulkDataChanged(new BulkDataChangedEvent("cleanupExpiredListings", 1));
+
+    DashboardStatsResponse stats = statsService.getDashboardStats();
+    assertThat(stats.getActiveListings()).isZero();
+    assertThat(stats.getAverageListingPrice()).isEqualByComparingTo("0");
+  }
+
+  @Test
+  void eventsArrivingDuringAReloadAreReplayedOntoIt() {
+    // A conversation commits after the reload has taken its snapshot
+    when(conversationRepository.count()).thenAnswer(invocation -> {
+      statsService.onConversationStarted(new ConversationStartedEvent(1L, 2L, 3L));
+      return 0L;
+    });
+
+    statsService.reconcile();
+
+    assertThat(statsService.getDashboardStats().getTotalConversations()).isEqualTo(1);
+  }
+
+  @Test
+  void bulkChangeDuringAReloadDiscardsIt() {
+    when(conversationRepository.count())
+        .thenAnswer(invocation -> {
+          statsService.onBulkDataChanged(new BulkDataChangedEvent("cleanupExpiredListings", 1));
+          return 0L;
+        })
+        .thenReturn(0L);
+    statsService.reconcile();
+
+    // The next read loads again instead of trusting the discarded counters; the one after is cached
+    statsService.getDashboardStats();
+    statsService.getDashboardStats();
+
+    // Once in setUp, then the discarded reconcile and the reload
+    verify(conversationRepository, times(3)).count();
+  }
+
+  private Listing listing(String title, BigDecimal price, ListingStatus status) {
+    return TestListings.listing(seller, title).price(price).status(status).build();
+  }
+}
@@ -0,0 +1,173 @@
+package com.neumarket.service;
+
+import com.neumarket.cache.ListingDetailCache;
+import com.neumarket.dto.response.ListingResponse;
+import com.neumarket.enums.Category;
+import com.neumarket.exception.BadRequestException;
+import com.neumarket.model.Listing;
+import com.neumarket.model.User;
+import com.neumarket.model.BlobDeletion;
+import com.neumarket.repository.BlobDeletionRepository;
+import com.neumarket.repository.ListingImageRepository;
+import com.neumarket.repository.StoredBlobRepository;
+import com.neumarket.storage.BlobStore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.neumarket.service.TestListings.listing;
+import static com.neumarket.service.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Uploads run outside any transaction here, like they do from the controller.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ImageService.class, StoredBlobService.class, BlobDeletionService.class})
+class ImageUploadTests {
+
+  private static final long UPLOAD_MILLIS = 300;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private ImageService imageService;
+
+  @Autowired
+  private ListingImageRepository listingImageRepository;
+
+  @Autowired
+  private StoredBlobRepository storedBlobRepository;
+
+  @Autowired
+  private BlobDeletionRepository blobDeletionRepository;
+
+  @MockitoBean
+  private BlobStore blobStore;
+
+  @MockitoBean
+  private ImageVariantService imageVariantService;
+
+  @MockitoBean
+  private ListingDetailCache detailCache;
+
+  private final Set<String> stored = ConcurrentHashMap.newKeySet();
+  private Listing listing;
+  private User seller;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    listingImageRepository.deleteAll();
+    storedBlobRepository.deleteAll();
+    blobDeletionRepository.deleteAll();
+    // Commit the fixture so the service's own transactions can see it
+    EntityManager em = entityManagerFactory.createEntityManager();
+    em.getTransaction().begin();
+    seller = user("seller" + System.nanoTime() + "@northeastern.edu");
+    em.persist(seller);
+    listing = listing(seller, "Monitor")
+        .price(BigDecimal.valueOf(80))
+        .category(Category.ELECTRONICS)
+        .slug("monitor-" + System.nanoTime())
+        .build();
+    em.persist(listing);
+    em.getTransaction().commit();
+    em.close();
+
+    // A slow remote store: every write takes UPLOAD_MILLIS
+    when(blobStore.put(anyString(), any(InputStream.class), anyLong(), anyString())).thenAnswer(invocation -> {
+      Thread.sleep(UPLOAD_MILLIS);
+      String name = invocation.getArgument(0);
+      stored.add(name);
+      return "https://blobs.example/" + name;
+    });
+  }
+
+  @Test
+  void uploadsRunInParallelAndRowsAreInsertedTogether() {
+    long started = System.nanoTime();
+    List<ListingResponse.ImageResponse> images =
+        imageService.uploadImages(listing.getId(), List.of(jpeg("a"), jpeg("b"), jpeg("c"), jpeg("d")), seller.getId());
+    long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+    assertThat(images).extracting(ListingResponse.ImageResponse::getDisplayOrder).containsExactly(1, 2, 3, 4);
+    assertThat(listingImageRepository.countByListingId(listing.getId())).isEqualTo(4);
+    images.forEach(image -> verify(imageVariantService).generateAsync(eq(image.getId()), anyString()));
+    // Close to one upload, far from the sum of four
+    assertThat(elapsedMillis).isLessThan(UPLOAD_MILLIS * 3);
+  }
+
+  @Test
+  void failedUploadRemovesTheOthersAndSavesNothing() throws IOException {
+    MultipartFile broken = new MockMultipartFile("files", "broken.jpg", "image/jpeg", new byte[] {1}) {
+      @Override
+      public InputStream getInputStream() throws IOException {
+        throw new IOException("disk gone");
+      }
+    };
+
+    assertThatThrownBy(() -> imageService.uploadImages(
+        listing.getId(), List.of(jpeg("a"), broken, jpeg("c")), seller.getId()))
+        .isInstanceOf(BadRequestException.class);
+
+    assertThat(listingImageRepository.countByListingId(listing.getId())).isZero();
+    verifyNoInteractions(imageVariantService);
+    // The two good files were written, then queued for deletion
+    assertThat(stored).hasSize(2);
+    assertThat(queuedDeletions()).containsAll(stored);
+  }
+
+  @Test
+  void identicalContentIsStoredOnceAndDeletedWithItsLastImage() throws IOException {
+    List<ListingResponse.ImageResponse> first =
+        imageService.uploadImages(listing.getId(), List.of(jpeg("same")), seller.getId());
+    List<ListingResponse.ImageResponse> second =
+        imageService.uploadImages(listing.getId(), List.of(jpeg("same")), seller.getId());
+
+    assertThat(stored).hasSize(1);
+    assertThat(second.get(0).getImageUrl()).isEqualTo(first.get(0).getImageUrl());
+    assertThat(storedBlobRepository.findAll()).singleElement()
+        .satisfies(blob -> assertThat(blob.getRefCount()).isEqualTo(2));
+    // Only new content gets variants generated
+    verify(imageVariantService, times(1)).generateAsync(anyLong(), anyString());
+
+    String blobName = stored.iterator().next();
+    imageService.deleteImage(first.get(0).getId(), seller.getId());
+    assertThat(queuedDeletions()).isEmpty();
+
+    imageService.deleteImage(second.get(0).getId(), seller.getId());
+    assertThat(queuedDeletions()).contains(blobName);
+    assertThat(storedBlobRepository.count()).isZero();
+    verify(blobStore, never()).delete(anyString());
+  }
+
+  private List<String> queuedDeletions() {
+    return blobDeletionRepository.findAll().stream().map(BlobDeletion::getBlobName).toList();
+  }
+
+  private static MockMultipartFile jpeg(String name) {
+    return new MockMultipartFile("files", name + ".jpg", "image/jpeg", name.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,145 @@
+package com.neumarket.service;
+
+import com.neumarket.cache.ListingDetailCache;
+import com.neumarket.repository.ListingImageRepository;
+import com.neumarket.repository.ListingRepository;
+import com.neumarket.repository.StoredBlobRepository;
+import com.neumarket.storage.LocalBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ImageVariantServiceTests {
+
+  private static final String ORIGINAL = "listing-9/photo.png";
+
+  private final StoredBlobRepository storedBlobRepository = mock(StoredBlobRepository.class);
+  private final ListingImageRepository listingImageRepository = mock(ListingImageRepository.class);
+  private final ListingRepository listingRepository = mock(ListingRepository.class);
+  private final BlobDeletionService blobDeletionService = mock(BlobDeletionService.class);
+  private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+  private final ListingDetailCache detailCache = mock(ListingDetailCache.class);
+  private LocalBlobStore blobStore;
+  private ImageVariantService service;
+
+  @TempDir
+  Path root;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    blobStore = new LocalBlobStore(root, "https://blobs.example/");
+    service = new ImageVariantService(storedBlobRepository, listingImageRepository, listingRepository,
+        transactionTemplate, blobStore, blobDeletionService, detailCache);
+    ReflectionTestUtils.setField(service, "thumbnailSize", 320);
+    ReflectionTestUtils.setField(service, "mediumSize", 1024);
+    ReflectionTestUtils.setField(service, "jpegQuality", 0.8f);
+    ReflectionTestUtils.setField(service, "maxSourcePixels", 50_000_000L);
+
+    when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+        invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+  }
+
+  @Test
+  void largeImageGetsThumbnailAndMediumJpegs() throws IOException {
+    storeOriginal(2400, 1600);
+    when(storedBlobRepository.setVariantUrls(anyLong(), any(), any())).thenReturn(1);
+
+    service.generate(5L, ORIGINAL);
+
+    verify(storedBlobRepository).setVariantUrls(5L,
+        "https://blobs.example/listing-9/photo-thumb.jpg",
+        "https://blobs.example/listing-9/photo-medium.jpg");
+    verify(listingImageRepository).setVariantUrlsByStoredBlobId(5L,
+        "https://blobs.example/listing-9/photo-thumb.jpg",
+        "https://blobs.example/listing-9/photo-medium.jpg");
+    BufferedImage thumbnail = uploadedImage("listing-9/photo-thumb.jpg");
+    assertThat(thumbnail.getWidth()).isEqualTo(320);
+    assertThat(thumbnail.getHeight()).isEqualTo(213);
+    assertThat(uploadedImage("listing-9/photo-medium.jpg").getWidth()).isEqualTo(1024);
+  }
+
+  @Test
+  void smallImageKeepsOriginalForVariantsItAlreadyFits() throws IOException {
+    storeOriginal(600, 400);
+    when(storedBlobRepository.setVariantUrls(anyLong(), any(), any())).thenReturn(1);
+
+    service.generate(5L, ORIGINAL);
+
+    verify(storedBlobRepository).setVariantUrls(5L, "https://blobs.example/listing-9/photo-thumb.jpg", null);
+    assertThat(blobStore.resolve("listing-9/photo-medium.jpg")).doesNotExist();
+  }
+
+  @Test
+  void variantsOfContentReleasedMeanwhileAreRemoved() throws IOException {
+    storeOriginal(2400, 1600);
+    when(storedBlobRepository.setVariantUrls(anyLong(), any(), any())).thenReturn(0);
+
+    service.generate(5L, ORIGINAL);
+
+    verify(blobDeletionService).enqueue(List.of("listing-9/photo-thumb.jpg", "listing-9/photo-medium.jpg"));
+    verifyNoInteractions(listingImageRepository);
+  }
+
+  @Test
+  void imageOverThePixelLimitIsSkippedBeforeDecoding() throws IOException {
+    storeOriginal(2400, 1600);
+    ReflectionTestUtils.setField(service, "maxSourcePixels", 2400L * 1600 - 1);
+
+    service.generate(5L, ORIGINAL);
+
+    verifyNoInteractions(storedBlobRepository, listingImageRepository);
+    assertThat(blobStore.resolve("listing-9/photo-thumb.jpg")).doesNotExist();
+  }
+
+  @Test
+  void muchLargerImageIsDecodedSubsampled() throws IOException {
+    storeOriginal(5000, 1000);
+    when(storedBlobRepository.setVariantUrls(anyLong(), any(), any())).thenReturn(1);
+
+    // Every second pixel: still at least twice the medium size
+    assertThat(service.read(ORIGINAL).getWidth()).isEqualTo(2500);
+
+    service.generate(5L, ORIGINAL);
+    assertThat(uploadedImage("listing-9/photo-medium.jpg").getWidth()).isEqualTo(1024);
+    assertThat(uploadedImage("listing-9/photo-thumb.jpg").getWidth()).isEqualTo(320);
+  }
+
+  @Test
+  void variantNamesSitNextToTheOriginal() {
+    assertThat(ImageVariantService.variantName("listing-3/abc.jpeg", "thumb")).isEqualTo("listing-3/abc-thumb.jpg");
+    assertThat(ImageVariantService.variantName("listing-3/abc", "medium")).isEqualTo("listing-3/abc-medium.jpg");
+  }
+
+  private void storeOriginal(int width, int height) throws IOException {
+    ByteArrayOutputStream png = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", png);
+    byte[] bytes = png.toByteArray();
+    blobStore.put(ORIGINAL, new ByteArrayInputStream(bytes), bytes.length, "image/png");
+  }
+
+  private BufferedImage uploadedImage(String name) throws IOException {
+    Path file = blobStore.resolve(name);
+    try (InputStream in = Files.newInputStream(file)) {
+      // JPEG signature
+      assertThat(in.readNBytes(2)).containsExactly(0xFF, 0xD8);
+    }
+    return ImageIO.read(file.toFile());
+  }
+}
@@ -0,0 +1,103 @@
+package com.neumarket.service;
+
+import com.neumarket.model.JobLease;
+import com.neumarket.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two JobLeaseService instances on one database stand in for two nodes.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({JobLeaseService.class, SimpleMeterRegistry.class})
+class JobLeaseServiceTests {
+
+  private static final Duration AT_MOST = Duration.ofMinutes(5);
+  private static final Duration AT_LEAST = Duration.ofMinutes(1);
+
+  @Autowired
+  private JobLeaseService nodeA;
+
+  @Autowired
+  private JobLeaseRepository jobLeaseRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private JobLeaseService nodeB;
+
+  @BeforeEach
+  void setUp() {
+    nodeB = new JobLeaseService(jobLeaseRepository, transactionManager, meterRegistry);
+    nodeB.init();
+  }
+
+  @AfterEach
+  void tearDown() {
+    jobLeaseRepository.deleteAll();
+  }
+
+  @Test
+  void onlyOneNodeRunsAJobPerTick() {
+    AtomicInteger runs = new AtomicInteger();
+
+    assertThat(nodeA.runExclusively("cleanup", AT_MOST, AT_LEAST, runs::incrementAndGet)).isTrue();
+    assertThat(nodeB.runExclusively("cleanup", AT_MOST, AT_LEAST, runs::incrementAndGet)).isFalse();
+    // Held for atLeastFor even after a quick run
+    assertThat(nodeA.runExclusively("cleanup", AT_MOST, AT_LEAST, runs::incrementAndGet)).isFalse();
+
+    assertThat(runs).hasValue(1);
+    assertThat(meterRegistry.counter("jobs.lease.acquired", "job", "cleanup").count()).isEqualTo(1);
+    assertThat(meterRegistry.counter("jobs.lease.skipped", "job", "cleanup").count()).isEqualTo(2);
+  }
+
+  @Test
+  void anotherNodeTakesOverOnceTheLeaseRunsOut() {
+    nodeA.runExclusively("job", AT_MOST, AT_LEAST, () -> { });
+    expire("job");
+
+    assertThat(nodeB.runExclusively("job", AT_MOST, AT_LEAST, () -> { })).isTrue();
+    assertThat(jobLeaseRepository.findById("job")).get()
+        .extracting(JobLease::getOwner).isEqualTo(nodeB.getOwner());
+  }
+
+  @Test
+  void shardsAreClaimedIndependently() {
+    List<Integer> ranOnA = new ArrayList<>();
+    List<Integer> ranOnB = new ArrayList<>();
+
+    assertThat(nodeA.runSharded("expiry", 3, AT_MOST, AT_LEAST, ranOnA::add)).isEqualTo(3);
+    expire("expiry#1");
+    assertThat(nodeB.runSharded("expiry", 3, AT_MOST, AT_LEAST, ranOnB::add)).isEqualTo(1);
+
+    assertThat(ranOnA).containsExactlyInAnyOrder(0, 1, 2);
+    assertThat(ranOnB).containsExactly(1);
+  }
+
+  private void expire(String lease) {
+    JobLease row = jobLeaseRepository.findById(lease).orElseThrow();
+    row.setLeasedUntil(LocalDateTime.now().minusSeconds(1));
+    jobLeaseRepository.save(row);
+  }
+}
@@ -0,0 +1,203 @@
+package com.neumarket.service;
+
+import com.neumarket.cache.ListingBrowseCache;
+import com.neumarket.cache.ListingDetailCache;
+import com.neumarket.dto.response.CursorPagedResponse;
+import com.neumarket.dto.response.ListingSummaryResponse;
+import com.neumarket.enums.Category;
+import com.neumarket.enums.ListingStatus;
+import com.neumarket.exception.BadRequestException;
+import com.neumarket.model.Listing;
+import com.neumarket.model.User;
+import com.neumarket.repository.ListingRepository;
+import com.neumarket.repository.UserRepository;
+import com.neumarket.search.ListingSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.neumarket.service.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Walks every browse sort page by page. Listings come in pairs sharing a createdAt and prices
+ * repeat, so the id tie-break decides where each page ends.
+ */
+@DataJpaTest
+@Import({ListingService.class, SavedItemService.class, ListingSearchIndex.class, ListingDetailCache.class,
+    ListingBrowseCache.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ListingCursorPagingTests {
+
+  private static final LocalDateTime BASE = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+  private static final int[] PRICES = {20, 10, 20, 30, 10, 30};
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private ListingService listingService;
+
+  @Autowired
+  private ListingSearchIndex searchIndex;
+
+  @Autowired
+  private ListingRepository listingRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private final List<Long> lamps = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    // Committed so the index rebuild and each service call see the same rows
+    EntityManager em = entityManagerFactory.createEntityManager();
+    em.getTransaction().begin();
+    User seller = user("seller@northeastern.edu");
+    em.persist(seller);
+    for (int i = 0; i < PRICES.length; i++) {
+      Listing lamp = listing(seller, "Desk lamp " + i, Category.FURNITURE, PRICES[i]);
+      em.persist(lamp);
+      lamps.add(lamp.getId());
+    }
+    Listing helmet = listing(seller, "Bike helmet", Category.BIKES, 15);
+    em.persist(helmet);
+    em.flush();
+
+    // onCreate stamps now(); pin the pairs (0,1), (2,3), (4,5) to one createdAt each
+    for (int i = 0; i < lamps.size(); i++) {
+      em.createQuery("UPDATE Listing l SET l.createdAt = :createdAt WHERE l.id = :id")
+          .setParameter("createdAt", BASE.minusHours(i / 2))
+          .setParameter("id", lamps.get(i))
+          .executeUpdate();
+    }
+    em.createQuery("UPDATE Listing l SET l.createdAt = :createdAt WHERE l.id = :id")
+        .setParameter("createdAt", BASE.plusHours(1))
+        .setParameter("id", helmet.getId())
+        .executeUpdate();
+    em.getTransaction().commit();
+    em.close();
+
+    searchIndex.rebuild();
+  }
+
+  @AfterEach
+  void tearDown() {
+    searchIndex.removeAll(listingRepository.findAll().stream().map(Listing::getId).toList());
+    listingRepository.deleteAll();
+    userRepository.deleteAll();
+  }
+
+  @Test
+  void newestBreaksTiesByHigherIdFirst() {
+    assertThat(walk(null, "newest")).containsExactly(lamp(1), lamp(0), lamp(3), lamp(2), lamp(5), lamp(4));
+  }
+
+  @Test
+  void oldestBreaksTiesByLowerIdFirst() {
+    assertThat(walk(null, "oldest")).containsExactly(lamp(4), lamp(5), lamp(2), lamp(3), lamp(0), lamp(1));
+  }
+
+  @Test
+  void cheapestBreaksTiesByLowerIdFirst() {
+    assertThat(walk(null, "price_asc")).containsExactly(lamp(1), lamp(4), lamp(0), lamp(2), lamp(3), lamp(5));
+  }
+
+  @Test
+  void priciestBreaksTiesByHigherIdFirst() {
+    assertThat(walk(null, "price_desc")).containsExactly(lamp(5), lamp(3), lamp(2), lamp(0), lamp(4), lamp(1));
+  }
+
+  @Test
+  void searchPagesFromTheIndexInTheSameOrder() {
+    assertThat(searchIndex.isReady()).isTrue();
+
+    assertThat(walk("lamp", "newest")).containsExactly(lamp(1), lamp(0), lamp(3), lamp(2), lamp(5), lamp(4));
+    assertThat(walk("lamp", "price_desc")).containsExactly(lamp(5), lamp(3), lamp(2), lamp(0), lamp(4), lamp(1));
+  }
+
+  @Test
+  void searchPagesSkipHitsNoLongerActiveWithoutEndingEarly() {
+    // Sold without the index hearing of it, as on another node
+    EntityManager em = entityManagerFactory.createEntityManager();
+    em.getTransaction().begin();
+    em.createQuery("UPDATE Listing l SET l.status = :status WHERE l.id IN :ids")
+        .setParameter("status", ListingStatus.SOLD)
+        .setParameter("ids", List.of(lamp(0), lamp(2)))
+        .executeUpdate();
+    em.getTransaction().commit();
+    em.close();
+
+    assertThat(walk("lamp", "newest")).containsExactly(lamp(1), lamp(3), lamp(5), lamp(4));
+  }
+
+  @Test
+  void cursorRoundTripsAndIsTiedToItsSort() {
+    ListingCursor byDate = new ListingCursor("newest", BASE, null, 42L);
+    ListingCursor byPrice = new ListingCursor("price_asc", null, new BigDecimal("19.99"), 7L);
+
+    assertThat(ListingCursor.decode(byDate.encode(), "newest")).isEqualTo(byDate);
+    assertThat(ListingCursor.decode(byPrice.encode(), "price_asc")).isEqualTo(byPrice);
+    assertThat(ListingCursor.decode(" ", "newest")).isNull();
+
+    assertThatThrownBy(() -> ListingCursor.decode(byDate.encode(), "oldest"))
+        .isInstanceOf(BadRequestException.class);
+    assertThatThrownBy(() -> ListingCursor.decode("not a cursor!", "newest"))
+        .isInstanceOf(BadRequestException.class);
+  }
+
+  @Test
+  void rejectsPageSizesOutsideTheLimit() {
+    for (int size : new int[] {0, -1, 101}) {
+      assertThatThrownBy(() -> page(null, "newest", null, size))
+          .isInstanceOf(BadRequestException.class)
+          .hasMessage("size must be between 1 and 100");
+    }
+    assertThat(page(null, "newest", null, 100).getContent()).hasSize(lamps.size());
+  }
+
+  /**
+   * Follow nextCursor two listings at a time until the last page
+   */
+  private List<Long> walk(String search, String sort) {
+    List<Long> ids = new ArrayList<>();
+    String cursor = null;
+    do {
+      CursorPagedResponse<ListingSummaryResponse> page = page(search, sort, cursor, 2);
+      page.getContent().forEach(summary -> ids.add(summary.getId()));
+      assertThat(page.isHasNext()).isEqualTo(page.getNextCursor() != null);
+      cursor = page.getNextCursor();
+    } while (cursor != null);
+    return ids;
+  }
+
+  private CursorPagedResponse<ListingSummaryResponse> page(String search, String sort, String cursor, int size) {
+    // Without search text, narrow to furniture to leave the helmet out
+    Category category = search == null ? Category.FURNITURE : null;
+    return listingService.getListingsByCursor(category, null, null, null, search, sort, cursor, size, null);
+  }
+
+  private Long lamp(int i) {
+    return lamps.get(i);
+  }
+
+  private static Listing listing(User seller, String title, Category category, int price) {
+    return TestListings.listing(seller, title).category(category).price(BigDecimal.valueOf(price)).build();
+  }
+}
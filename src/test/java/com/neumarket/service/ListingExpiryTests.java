@@ -0,0 +1,112 @@
+package com.neumarket.service;
+
+import com.neumarket.enums.ListingStatus;
+import com.neumarket.model.Listing;
+import com.neumarket.model.User;
+import com.neumarket.repository.ListingRepository;
+import com.neumarket.repository.UserRepository;
+import com.neumarket.search.ListingSearchIndex;
+import com.neumarket.storage.BlobStore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static com.neumarket.service.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Expiry commits batch by batch here, like it does from the scheduler.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({CleanupService.class, StoredBlobService.class, BlobDeletionService.class, ListingSearchIndex.class,
+    DashboardStatsService.class})
+class ListingExpiryTests {
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private CleanupService cleanupService;
+
+  @Autowired
+  private ListingSearchIndex searchIndex;
+
+  @Autowired
+  private DashboardStatsService statsService;
+
+  @Autowired
+  private ListingRepository listingRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @MockitoBean
+  private BlobStore blobStore;
+
+  @BeforeEach
+  void setUp() {
+    // Commit the fixture so each batch's own transaction can see it
+    EntityManager em = entityManagerFactory.createEntityManager();
+    em.getTransaction().begin();
+    User seller = user("seller@northeastern.edu");
+    em.persist(seller);
+    for (int i = 0; i < 5; i++) {
+      em.persist(listing(seller, "Expired lamp " + i, LocalDateTime.now().minusHours(1)));
+    }
+    em.persist(listing(seller, "Current lamp", LocalDateTime.now().plusDays(30)));
+    em.getTransaction().commit();
+    em.close();
+
+    searchIndex.rebuild();
+    statsService.reconcile();
+    ReflectionTestUtils.setField(cleanupService, "expiryBatchSize", 2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    searchIndex.removeAll(listingRepository.findAll().stream().map(Listing::getId).toList());
+    listingRepository.deleteAll();
+    userRepository.deleteAll();
+  }
+
+  @Test
+  void expiresEveryDueListingAcrossBatches() {
+    cleanupService.cleanupExpiredListings();
+
+    assertThat(listingRepository.findAll())
+        .extracting(Listing::getTitle, Listing::getStatus)
+        .containsExactlyInAnyOrder(
+            tuple("Expired lamp 0", ListingStatus.EXPIRED),
+            tuple("Expired lamp 1", ListingStatus.EXPIRED),
+            tuple("Expired lamp 2", ListingStatus.EXPIRED),
+            tuple("Expired lamp 3", ListingStatus.EXPIRED),
+            tuple("Expired lamp 4", ListingStatus.EXPIRED),
+            tuple("Current lamp", ListingStatus.ACTIVE));
+  }
+
+  @Test
+  void searchIndexAndStatsFollowEachBatch() {
+    cleanupService.cleanupExpiredListings();
+
+    assertThat(searchIndex.search("lamp", null, null, null, null)).hasSize(1);
+    assertThat(statsService.getDashboardStats().getActiveListings()).isEqualTo(1);
+  }
+
+  private static Listing listing(User seller, String title, LocalDateTime expiresAt) {
+    return TestListings.listing(seller, title).price(BigDecimal.valueOf(25)).expiresAt(expiresAt).build();
+  }
+}
@@ -0,0 +1,314 @@
+package com.neumarket.service;
+
+import com.neumarket.cache.ListingBrowseCache;
+import com.neumarket.cache.ListingDetailCache;
+import com.neumarket.dto.response.ListingResponse;
+import com.neumarket.dto.response.ListingSummaryResponse;
+import com.neumarket.dto.response.PagedResponse;
+import com.neumarket.dto.response.SavedItemResponse;
+import com.neumarket.event.ListingChangedEvent;
+import com.neumarket.model.Listing;
+import com.neumarket.model.ListingImage;
+import com.neumarket.model.SavedItem;
+import com.neumarket.model.User;
+import com.neumarket.repository.ListingRepository;
+import com.neumarket.search.ListingSearchIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.neumarket.service.TestListings.listing;
+import static com.neumarket.service.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the number of SQL statements issued per browse page, user listing page, listing page
+ * and saved-items list.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ListingService.class, SavedItemService.class, ListingSearchIndex.class, ListingDetailCache.class,
+    ListingBrowseCache.class, SimpleMeterRegistry.class})
+class ListingQueryCountTests {
+
+  private static final int LISTING_COUNT = 12;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private ListingService listingService;
+
+  @Autowired
+  private SavedItemService savedItemService;
+
+  @Autowired
+  private ListingDetailCache detailCache;
+
+  @Autowired
+  private ListingBrowseCache browseCache;
+
+  @Autowired
+  private ListingRepository listingRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private User seller;
+  private User buyer;
+  private final List<Listing> listings = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    // Ids and slugs repeat across tests that roll back
+    detailCache.invalidateAll();
+    browseCache.invalidateAll();
+
+    seller = entityManager.persist(user("seller@northeastern.edu"));
+    buyer = entityManager.persist(user("buyer@northeastern.edu"));
+
+    for (int i = 0; i < LISTING_COUNT; i++) {
+      listings.add(entityManager.persist(
+          listing(seller, "Desk lamp " + i).price(BigDecimal.valueOf(10 + i)).build()));
+    }
+
+    // Two images per listing, persisted out of display order
+    for (Listing listing : listings) {
+      entityManager.persist(image(listing, 2));
+      entityManager.persist(image(listing, 1));
+    }
+
+    // Buyer saved every third listing
+    for (int i = 0; i < LISTING_COUNT; i += 3) {
+      entityManager.persist(SavedItem.builder().user(buyer).listing(listings.get(i)).build());
+    }
+
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void savedFlagsCostOneQueryPerPage() {
+    long smallPage = savedLookupStatements(4);
+    long largePage = savedLookupStatements(LISTING_COUNT);
+
+    assertThat(smallPage).isEqualTo(1);
+    assertThat(largePage).isEqualTo(1);
+  }
+
+  @Test
+  void savedFlagsAreResolvedForTheWholePage() {
+    PagedResponse<ListingSummaryResponse> page = browse(LISTING_COUNT, buyer.getId());
+
+    List<Long> savedIds = page.getContent().stream()
+        .filter(ListingSummaryResponse::getIsSaved)
+        .map(ListingSummaryResponse::getId)
+        .toList();
+
+    assertThat(savedIds).containsExactlyInAnyOrder(
+        listings.get(0).getId(), listings.get(3).getId(), listings.get(6).getId(), listings.get(9).getId());
+  }
+
+  @Test
+  void userListingsResolveSavedFlagsInOneQuery() {
+    Statistics statistics = statistics();
+
+    statistics.clear();
+    listingService.getListingsByUser(seller.getId(), null);
+    long anonymous = statistics.getPrepareStatementCount();
+    entityManager.clear();
+
+    statistics.clear();
+    listingService.getListingsByUser(seller.getId(), buyer.getId());
+    long loggedIn = statistics.getPrepareStatementCount();
+
+    assertThat(loggedIn - anonymous).isEqualTo(1);
+  }
+
+  @Test
+  void browsePageIsOneSelectPlusCountRegardlessOfSize() {
+    assertThat(browseStatements(4)).isEqualTo(2);
+    assertThat(browseStatements(LISTING_COUNT)).isEqualTo(2);
+  }
+
+  @Test
+  void repeatAnonymousBrowseIsServedFromCache() {
+    browse(4, null);
+    entityManager.clear();
+
+    assertThat(browseStatements(4)).isZero();
+    // Other filters are their own entry
+    assertThat(browseStatements(LISTING_COUNT)).isEqualTo(2);
+  }
+
+  @Test
+  void browseCardsCarrySellerAndFirstImage() {
+    PagedResponse<ListingSummaryResponse> page = browse(LISTING_COUNT, null);
+
+    assertThat(page.getContent()).hasSize(LISTING_COUNT).allSatisfy(card -> {
+      assertThat(card.getSellerName()).isEqualTo("seller");
+      assertThat(card.getThumbnailUrl()).endsWith("/" + card.getId() + "-1.jpg");
+    });
+  }
+
+  @Test
+  void savedItemsDoNotLoadListingsOneByOne() {
+    Statistics statistics = statistics();
+
+    statistics.clear();
+    List<SavedItemResponse> saved = savedItemService.getSavedItems(buyer.getId());
+
+    assertThat(saved).hasSize(4);
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+  }
+
+  @Test
+  void userListingsAreASingleSelect() {
+    Statistics statistics = statistics();
+
+    statistics.clear();
+    listingService.getListingsByUser(seller.getId(), null);
+
+    // existsById + the summary select
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+  }
+
+  @Test
+  void repeatListingViewsOnlyLookUpTheSavedFlag() {
+    Statistics statistics = statistics();
+    listingService.getListingBySlug("desk-lamp-0", null);
+    entityManager.clear();
+
+    statistics.clear();
+    ListingResponse anonymous = listingService.getListingBySlug("desk-lamp-0", null);
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+
+    ListingResponse saved = listingService.getListingBySlug("desk-lamp-0", buyer.getId());
+    ListingResponse notSaved = listingService.getListingBySlug("desk-lamp-1", buyer.getId());
+
+    assertThat(anonymous.getIsSaved()).isFalse();
+    assertThat(anonymous.getImages()).hasSize(2);
+    assertThat(saved.getIsSaved()).isTrue();
+    assertThat(notSaved.getIsSaved()).isFalse();
+    assertThat(listingService.getListingBySlug("desk-lamp-0", null).getIsSaved()).isFalse();
+    assertThat(meterRegistry.get("cache.gets").tag("cache", "listing.detail").tag("result", "hit")
+        .functionCounter().count()).isPositive();
+  }
+
+  @Test
+  void changedListingIsReloaded() {
+    Listing listing = listings.get(0);
+    listingService.getListingBySlug("desk-lamp-0", null);
+
+    Listing managed = entityManager.find(Listing.class, listing.getId());
+    ListingChangedEvent.Snapshot before = ListingChangedEvent.Snapshot.of(managed);
+    managed.setTitle("Brass desk lamp");
+    entityManager.flush();
+    detailCache.onListingChanged(ListingChangedEvent.updated(before, managed));
+
+    assertThat(listingService.getListingBySlug("desk-lamp-0", null).getTitle()).isEqualTo("Brass desk lamp");
+  }
+
+  @Test
+  void cachedCopyBehindTheVersionIsReloaded() {
+    listingService.getListingBySlug("desk-lamp-0", null);
+
+    // Changed without an event reaching this node's cache, as a write on another node would be
+    entityManager.getEntityManager()
+        .createQuery("UPDATE Listing l SET l.title = :title, l.updatedAt = :updatedAt WHERE l.slug = :slug")
+        .setParameter("title", "Brass desk lamp")
+        .setParameter("updatedAt", LocalDateTime.now().plusSeconds(1))
+        .setParameter("slug", "desk-lamp-0")
+        .executeUpdate();
+    entityManager.clear();
+
+    assertThat(listingService.getListingBySlug("desk-lamp-0", null).getTitle()).isEqualTo("Desk lamp 0");
+    ListingService.ListingVersion version = listingService.getListingVersion("desk-lamp-0", null);
+    assertThat(listingService.getListingBySlug("desk-lamp-0", null, version).getTitle()).isEqualTo("Brass desk lamp");
+
+    // Reloaded once; the fresh copy then serves that version from the cache
+    Statistics statistics = statistics();
+    statistics.clear();
+    assertThat(listingService.getListingBySlug("desk-lamp-0", null, version).getTitle()).isEqualTo("Brass desk lamp");
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+  }
+
+  @Test
+  void listingVersionFollowsImagesAndSavedFlag() {
+    Listing listing = listings.get(1);
+    ListingService.ListingVersion anonymous = listingService.getListingVersion("desk-lamp-1", null);
+    ListingService.ListingVersion buyerView = listingService.getListingVersion("desk-lamp-1", buyer.getId());
+    assertThat(buyerView).isEqualTo(anonymous);
+
+    entityManager.persist(SavedItem.builder()
+        .user(entityManager.find(User.class, buyer.getId()))
+        .listing(entityManager.find(Listing.class, listing.getId()))
+        .build());
+    entityManager.flush();
+    assertThat(listingService.getListingVersion("desk-lamp-1", buyer.getId())).isNotEqualTo(buyerView);
+
+    listingRepository.touch(List.of(listing.getId()), LocalDateTime.now().plusSeconds(1));
+    assertThat(listingService.getListingVersion("desk-lamp-1", null)).isNotEqualTo(anonymous);
+    assertThat(listingService.getListingVersion("no-such-listing", null)).isNull();
+  }
+
+  private long browseStatements(int pageSize) {
+    Statistics statistics = statistics();
+
+    statistics.clear();
+    browse(pageSize, null);
+    entityManager.clear();
+
+    return statistics.getPrepareStatementCount();
+  }
+
+  /**
+   * Extra statements a logged-in browse costs over the same anonymous browse
+   */
+  private long savedLookupStatements(int pageSize) {
+    Statistics statistics = statistics();
+
+    statistics.clear();
+    browse(pageSize, null);
+    long anonymous = statistics.getPrepareStatementCount();
+    entityManager.clear();
+
+    statistics.clear();
+    browse(pageSize, buyer.getId());
+    long loggedIn = statistics.getPrepareStatementCount();
+    entityManager.clear();
+
+    return loggedIn - anonymous;
+  }
+
+  private PagedResponse<ListingSummaryResponse> browse(int pageSize, Long currentUserId) {
+    return listingService.getListings(null, null, null, null, null, "newest", 0, pageSize, currentUserId);
+  }
+
+  private Statistics statistics() {
+    return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  private static ListingImage image(Listing listing, int displayOrder) {
+    return ListingImage.builder()
+        .listing(listing)
+        .imageUrl("https://images.example/" + listing.getId() + "-" + displayOrder + ".jpg")
+        .displayOrder(displayOrder)
+        .build();
+  }
+}
@@ -0,0 +1,123 @@
+package com.neumarket.service;
+
+import com.neumarket.dto.response.ChatMessageResponse;
+import com.neumarket.dto.response.CursorPagedResponse;
+import com.neumarket.exception.BadRequestException;
+import com.neumarket.model.Conversation;
+import com.neumarket.model.Listing;
+import com.neumarket.model.Message;
+import com.neumarket.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.neumarket.service.TestListings.listing;
+import static com.neumarket.service.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pages through a conversation's history with ?before=, newest page first.
+ */
+@DataJpaTest
+@Import({MessageService.class, UnreadCounterService.class})
+class MessagePagingTests {
+
+  private static final int MESSAGE_COUNT = 7;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private MessageService messageService;
+
+  private User buyer;
+  private Conversation conversation;
+
+  @BeforeEach
+  void setUp() {
+    User seller = entityManager.persist(user("seller@northeastern.edu"));
+    buyer = entityManager.persist(user("buyer@northeastern.edu"));
+    User other = entityManager.persist(user("other@northeastern.edu"));
+    Listing listing = entityManager.persist(listing(seller, "Bookshelf")
+        .price(BigDecimal.valueOf(40))
+        .build());
+
+    conversation = entityManager.persist(Conversation.builder().listing(listing).buyer(buyer).seller(seller).build());
+    Conversation elsewhere = entityManager.persist(
+        Conversation.builder().listing(listing).buyer(other).seller(seller).build());
+
+    // Interleaved with another conversation so its ids leave gaps in this one
+    for (int i = 0; i < MESSAGE_COUNT; i++) {
+      User sender = i % 2 == 0 ? buyer : seller;
+      entityManager.persist(Message.builder()
+          .conversation(conversation).sender(sender).content("message " + i).isRead(false).build());
+      entityManager.persist(Message.builder()
+          .conversation(elsewhere).sender(other).content("elsewhere " + i).isRead(false).build());
+    }
+
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void latestPageIsOldestFirstWithACursorToOlderHistory() {
+    CursorPagedResponse<ChatMessageResponse> page = messageService.getMessages(conversation.getId(), null, 3, buyer.getId());
+
+    assertThat(page.getContent())
+        .extracting(ChatMessageResponse::getContent)
+        .containsExactly("message 4", "message 5", "message 6");
+    assertThat(page.getContent())
+        .extracting(ChatMessageResponse::getIsOwnMessage)
+        .containsExactly(true, false, true);
+    assertThat(page.isHasNext()).isTrue();
+    assertThat(page.getNextCursor()).isEqualTo(String.valueOf(page.getContent().get(0).getId()));
+  }
+
+  @Test
+  void beforeWalksBackToTheFirstMessage() {
+    List<String> history = new ArrayList<>();
+    List<Integer> pageSizes = new ArrayList<>();
+    Long before = null;
+    CursorPagedResponse<ChatMessageResponse> page;
+    do {
+      page = messageService.getMessagesForAdmin(conversation.getId(), before, 3);
+      pageSizes.add(page.getContent().size());
+      history.addAll(0, page.getContent().stream().map(ChatMessageResponse::getContent).toList());
+      before = page.getNextCursor() != null ? Long.valueOf(page.getNextCursor()) : null;
+    } while (before != null);
+
+    assertThat(pageSizes).containsExactly(3, 3, 1);
+    assertThat(history).containsExactly(
+        "message 0", "message 1", "message 2", "message 3", "message 4", "message 5", "message 6");
+    assertThat(page.isHasNext()).isFalse();
+  }
+
+  @Test
+  void pageEndingExactlyAtTheFirstMessageHasNoCursor() {
+    CursorPagedResponse<ChatMessageResponse> page =
+        messageService.getMessagesForAdmin(conversation.getId(), null, MESSAGE_COUNT);
+
+    assertThat(page.getContent()).hasSize(MESSAGE_COUNT);
+    assertThat(page.getNextCursor()).isNull();
+    assertThat(page.isHasNext()).isFalse();
+  }
+
+  @Test
+  void rejectsLimitsOutsideOneToOneHundred() {
+    for (int limit : new int[] {0, -1, 101}) {
+      assertThatThrownBy(() -> messageService.getMessagesForAdmin(conversation.getId(), null, limit))
+          .isInstanceOf(BadRequestException.class)
+          .hasMessage("limit must be between 1 and 100");
+    }
+    assertThat(messageService.getMessagesForAdmin(conversation.getId(), null, 100).getContent())
+        .hasSize(MESSAGE_COUNT);
+  }
+}
@@ -0,0 +1,38 @@
+package com.neumarket.service;
+
+import com.neumarket.enums.Category;
+import com.neumarket.enums.Condition;
+import com.neumarket.enums.ListingStatus;
+import com.neumarket.model.Listing;
+import com.neumarket.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Unsaved ACTIVE listings for test fixtures: every required field is set (furniture in good
+ * condition for $10, slug from the title, expiring in 30 days) and tests override the rest.
+ * Public so the search tests can build listings too.
+ */
+public final class TestListings {
+
+  private TestListings() {
+  }
+
+  public static Listing.ListingBuilder listing(User seller, String title) {
+    return listing(title).user(seller);
+  }
+
+  public static Listing.ListingBuilder listing(String title) {
+    return Listing.builder()
+        .title(title)
+        .price(BigDecimal.TEN)
+        .category(Category.FURNITURE)
+        .condition(Condition.GOOD)
+        .status(ListingStatus.ACTIVE)
+        .slug(title.toLowerCase().replace(' ', '-'))
+        // Persisting stamps its own; the search index reads it from unsaved listings
+        .createdAt(LocalDateTime.now())
+        .expiresAt(LocalDateTime.now().plusDays(30));
+  }
+}
@@ -0,0 +1,25 @@
+package com.neumarket.service;
+
+import com.neumarket.model.User;
+
+/**
+ * Unsaved users for test fixtures; the name is the part of the email before the @.
+ */
+final class TestUsers {
+
+  private TestUsers() {
+  }
+
+  static User user(String email) {
+    return user(email, true);
+  }
+
+  static User user(String email, boolean verified) {
+    return User.builder()
+        .email(email)
+        .passwordHash("hash")
+        .name(email.substring(0, email.indexOf('@')))
+        .emailVerified(verified)
+        .build();
+  }
+}
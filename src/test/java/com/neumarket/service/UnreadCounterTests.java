@@ -0,0 +1,150 @@
+package com.neumarket.service;
+
+import com.neumarket.dto.request.MessageRequest;
+import com.neumarket.enums.Category;
+import com.neumarket.model.Conversation;
+import com.neumarket.model.Listing;
+import com.neumarket.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+
+import static com.neumarket.service.TestListings.listing;
+import static com.neumarket.service.TestUsers.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that maintained unread counters track sends and reads, and that reconciliation repairs drift.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({MessageService.class, UnreadCounterService.class})
+class UnreadCounterTests {
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private MessageService messageService;
+
+  @Autowired
+  private UnreadCounterService unreadCounterService;
+
+  private User seller;
+  private User buyer;
+  private Conversation conversation;
+
+  @BeforeEach
+  void setUp() {
+    seller = entityManager.persist(user("seller@northeastern.edu"));
+    buyer = entityManager.persist(user("buyer@northeastern.edu"));
+    Listing listing = entityManager.persist(listing(seller, "Mini fridge")
+        .price(BigDecimal.valueOf(60))
+        .category(Category.ELECTRONICS)
+        .build());
+    conversation = entityManager.persist(Conversation.builder().listing(listing).buyer(buyer).seller(seller).build());
+
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void sendingAndReadingMoveBothCounters() {
+    send(buyer, "Is this still available?");
+    send(buyer, "I can pick up today");
+    send(seller, "Yes it is");
+
+    assertThat(messageService.getUnreadCount(conversation.getId(), seller.getId())).isEqualTo(2);
+    assertThat(messageService.getUnreadCount(conversation.getId(), buyer.getId())).isEqualTo(1);
+    assertThat(storedTotal(seller)).isEqualTo(2);
+    assertThat(storedTotal(buyer)).isEqualTo(1);
+
+    messageService.markAsRead(conversation.getId(), seller.getId());
+    entityManager.clear();
+
+    assertThat(messageService.getUnreadCount(conversation.getId(), seller.getId())).isZero();
+    assertThat(storedTotal(seller)).isZero();
+    assertThat(storedTotal(buyer)).isEqualTo(1);
+
+    // Nothing left to mark: counters must not go negative
+    messageService.markAsRead(conversation.getId(), seller.getId());
+    entityManager.clear();
+    assertThat(storedTotal(seller)).isZero();
+  }
+
+  @Test
+  void reconcileRepairsDriftedCounters() {
+    send(buyer, "Hello");
+    send(buyer, "Still there?");
+
+    entityManager.getEntityManager()
+        .createQuery("UPDATE Conversation c SET c.sellerUnreadCount = 7, c.buyerUnreadCount = 3")
+        .executeUpdate();
+    entityManager.getEntityManager()
+        .createQuery("UPDATE User u SET u.unreadMessageCount = 42")
+        .executeUpdate();
+    entityManager.clear();
+
+    unreadCounterService.reconcile();
+    entityManager.clear();
+
+    assertThat(messageService.getUnreadCount(conversation.getId(), seller.getId())).isEqualTo(2);
+    assertThat(messageService.getUnreadCount(conversation.getId(), buyer.getId())).isZero();
+    assertThat(storedTotal(seller)).isEqualTo(2);
+    assertThat(storedTotal(buyer)).isZero();
+  }
+
+  @Test
+  void badgeReadsAreServedFromMemoryAfterTheFirst() {
+    send(buyer, "Hi");
+    Statistics statistics = statistics();
+
+    statistics.clear();
+    assertThat(unreadCounterService.getTotalUnread(seller.getId())).isEqualTo(1);
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+    statistics.clear();
+    assertThat(unreadCounterService.getTotalUnread(seller.getId())).isEqualTo(1);
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+  }
+
+  @Test
+  void rowsWrittenWithoutTheCounterColumnsStartAtZero() {
+    // As for rows that existed before the counters were added
+    entityManager.getEntityManager()
+        .createNativeQuery("INSERT INTO users (email, password_hash, name, role, email_verified, blocked, created_at) "
+            + "VALUES ('legacy@northeastern.edu', 'hash', 'legacy', 'USER', true, false, CURRENT_TIMESTAMP)")
+        .executeUpdate();
+
+    Number stored = (Number) entityManager.getEntityManager()
+        .createNativeQuery("SELECT unread_message_count FROM users WHERE email = 'legacy@northeastern.edu'")
+        .getSingleResult();
+    assertThat(stored.intValue()).isZero();
+  }
+
+  private void send(User sender, String content) {
+    MessageRequest request = new MessageRequest();
+    request.setContent(content);
+    messageService.sendMessage(conversation.getId(), request, sender.getId());
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private int storedTotal(User user) {
+    return entityManager.find(User.class, user.getId()).getUnreadMessageCount();
+  }
+
+  private Statistics statistics() {
+    return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+}